@@ -6,7 +6,7 @@ import (
 	"time"
 )
 
-var warnList map[string]int
+var warnList = map[string]int{}
 var blackList []string
 
 func addWarningApplication(appName string) {
@@ -27,49 +27,80 @@ func addWarningApplication(appName string) {
 	}
 }
 
+// Last cursor read in the change feed of Demeter
+var cursor int64 = -1
+
+// Grouping procedure to launch for each type of tag reported by the change feed
+var groupingProcedures = map[string]string{
+	"level":        "CALL demeter.group.levels($application);",
+	"module":       "CALL demeter.group.modules($application);",
+	"architecture": "CALL demeter.group.architectures($application);",
+}
+
 func watchDemeterTags() {
 	// Retrieve actual session
 	var session neo4j.Session
 	session, _ = GetSession()
 
-	result , err := session.Run("MATCH (o:Object) WHERE EXISTS(o.Tags) AND any( x IN o.Tags WHERE x CONTAINS $prefix ) RETURN DISTINCT [ x IN LABELS(o) WHERE NOT x='Object'] as application, COUNT(o) as numTags;", map[string]interface{}{"prefix": "Dmg_"})
+	// Only the changes since the last poll are returned
+	result, err := session.Run("CALL demeter.changes.since($cursor) YIELD cursor, application, type, numTags RETURN cursor, application, type, numTags;", map[string]interface{}{"cursor": cursor})
 
 	if err != nil {
-		logger.Error("Failed to check if tags are present in the Database.")
+		logger.Error("Failed to retrieve the changes of Demeter tags in the Database.")
+		return
 	}
 
-	var appList []string
+	// Types of grouping to launch per application
+	toGroup := map[string][]string{}
+	var lastCursor = cursor
 
 	// Parse the result
 	for result.Next() {
 		record := result.Record()
-		applications, _ := record.Get("application")
+		recordCursor, _ := record.Get("cursor")
+		application, _ := record.Get("application")
+		groupType, _ := record.Get("type")
 		numTags, _ := record.Get("numTags")
-		logger.Info(numTags, " tags were found in application ", applications)
 
-		appArray := applications.([]interface{})
+		if c, ok := recordCursor.(int64); ok && c > lastCursor {
+			lastCursor = c
+		}
 
-		// Verify is the app is not detected yet, and add it to the list
-		for _, a := range appArray {
-			appName := a.(string)
-			if !ContainsStringList(appList, appName) {
-				appList = append(appList, appName)
-			}
+		appName, ok := application.(string)
+		if !ok {
+			continue
+		}
+		typeName, _ := groupType.(string)
+		if _, ok := groupingProcedures[typeName]; !ok {
+			continue
+		}
+
+		logger.Info(numTags, " ", typeName, " tags were found in application ", appName)
+		if !ContainsStringList(toGroup[appName], typeName) {
+			toGroup[appName] = append(toGroup[appName], typeName)
 		}
 	}
 
+	if err = result.Err(); err != nil {
+		logger.Error("Failed to parse the changes of Demeter tags : ", err)
+		return
+	}
+	cursor = lastCursor
+
 	// If Tags are detected, launch the Demeter Grouping  for each  application
-	for _, app := range appList {
+	for app, types := range toGroup {
 
 		// Ignore the application if blacklisted
 		if ContainsStringList(blackList, app) {
 			continue
 		}
 
-		_ , err := session.Run("CALL demeter.groupTags($application);", map[string]interface{}{"application": app})
-		if err != nil {
-			// If produce an error, add a warning. If too many warning, the application will be ignored
-			addWarningApplication(app)
+		for _, t := range types {
+			_, err := session.Run(groupingProcedures[t], map[string]interface{}{"application": app})
+			if err != nil {
+				// If produce an error, add a warning. If too many warning, the application will be ignored
+				addWarningApplication(app)
+			}
 		}
 	}
 }
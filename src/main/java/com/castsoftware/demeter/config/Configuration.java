@@ -25,7 +25,9 @@ import com.castsoftware.demeter.exceptions.file.MissingFileException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Singleton in charge of the communication with the configuration file
@@ -33,6 +35,7 @@ import java.util.Properties;
 public class Configuration {
 
     private static final Properties properties = loadConfiguration();
+    private static final List<Runnable> RELOAD_LISTENERS = new CopyOnWriteArrayList<>();
 
     private static Properties loadConfiguration() {
         try (InputStream input =
@@ -62,6 +65,7 @@ public class Configuration {
         try {
             properties.store(new FileOutputStream("procedure.properties"), null);
             loadConfiguration();
+            notifyReload();
         } catch (IOException e) {
             throw new FileNotFoundException(
                     "Error during property saving. File not found",
@@ -70,6 +74,25 @@ public class Configuration {
         }
     }
 
+    /**
+     * Register a callback run each time the configuration is saved or reloaded. Used by the values
+     * cached for the transaction listeners, which can't afford to read the configuration on every commit.
+     *
+     * @param listener Callback to run
+     */
+    public static void addReloadListener(Runnable listener) {
+        RELOAD_LISTENERS.add(listener);
+    }
+
+    /**
+     * Run the callbacks registered for the reload of the configuration
+     */
+    static void notifyReload() {
+        for (Runnable listener : RELOAD_LISTENERS) {
+            listener.run();
+        }
+    }
+
     /**
      * Get the corresponding value for the specified key as a String
      *
@@ -110,6 +110,8 @@ public class UserConfiguration {
         } catch (IOException e) {
             throw new MissingFileException("No file 'demeter.conf' was found.", configurationPath.toString(), "CONFxLOAD1");
         }
+
+        Configuration.notifyReload();
     }
 
     /**
@@ -159,6 +161,7 @@ public class UserConfiguration {
      */
     public static Properties reload() {
         PROPERTIES = loadConfiguration();
+        Configuration.notifyReload();
         return PROPERTIES;
     }
 
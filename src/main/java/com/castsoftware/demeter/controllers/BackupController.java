@@ -32,6 +32,7 @@ import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.ResourceIterator;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -73,17 +74,21 @@ public class BackupController {
         List<String> toDeleteLevelsNAme = new ArrayList<>();
 
         // Delete Demeter level5 group based on their full name
-        for (Level5Node level : Level5Node.getAllNodesByApplication(neo4jAL, applicationContext)) {
-            String fullName = level.getFullName();
-
-            // If the full name match, the level was generated by Demeter
-            if (fullName.matches(".*##(" + GENERATED_LEVEL_PREFIX + ".*)")) {
-                // Keep level to reassign nodes later
-                toDeleteLevelsNAme.add(level.getName());
-                level.deleteNode();
-            } else {
-                // Is not a demeter level
-                toCheckLevels.add(level);
+        try (ResourceIterator<Level5Node> levels =
+                     Level5Node.iterateNodesByApplication(neo4jAL, applicationContext)) {
+            while (levels.hasNext()) {
+                Level5Node level = levels.next();
+                String fullName = level.getFullName();
+
+                // If the full name match, the level was generated by Demeter
+                if (fullName.matches(".*##(" + GENERATED_LEVEL_PREFIX + ".*)")) {
+                    // Keep level to reassign nodes later
+                    toDeleteLevelsNAme.add(level.getName());
+                    level.deleteNode();
+                } else {
+                    // Is not a demeter level
+                    toCheckLevels.add(level);
+                }
             }
         }
 
@@ -152,17 +157,21 @@ public class BackupController {
 
         Level5Node toTreat = null;
         // Get the level associated with the search
-        for (Level5Node level : Level5Node.getAllNodesByApplication(neo4jAL, applicationContext)) {
-            String fullName = level.getFullName();
-
-            // If the full name match, the level was generated by Demeter
-            if (fullName.matches("(.*)##" + GENERATED_LEVEL_PREFIX + levelName)) {
-                // Keep level to reassign nodes later
-                toTreat = level;
-                break;
-            } else {
-                // Is not a demeter level
-                toCheckLevels.add(level);
+        try (ResourceIterator<Level5Node> levels =
+                     Level5Node.iterateNodesByApplication(neo4jAL, applicationContext)) {
+            while (levels.hasNext()) {
+                Level5Node level = levels.next();
+                String fullName = level.getFullName();
+
+                // If the full name match, the level was generated by Demeter
+                if (fullName.matches("(.*)##" + GENERATED_LEVEL_PREFIX + levelName)) {
+                    // Keep level to reassign nodes later
+                    toTreat = level;
+                    break;
+                } else {
+                    // Is not a demeter level
+                    toCheckLevels.add(level);
+                }
             }
         }
 
@@ -29,6 +29,8 @@ import com.castsoftware.demeter.exceptions.neo4j.Neo4jNoResult;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.models.BackupNode;
 import com.castsoftware.demeter.models.demeter.*;
+import com.castsoftware.demeter.services.deletion.BulkDeleteService;
+import com.castsoftware.demeter.services.tags.TagCleanupService;
 import com.castsoftware.demeter.utils.Workspace;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
@@ -78,8 +80,10 @@ public class UtilsController {
         // Retrieve every node label
         int numDeleted = 0;
 
+        // Deleted by batches, committed independently
         for (String labelAsString : ALL_LABELS) {
-            numDeleted += neo4jAL.deleteAllNodesByLabel(Label.label(labelAsString));
+            numDeleted +=
+                    BulkDeleteService.deleteByLabel(neo4jAL, Label.label(labelAsString)).getNodes();
         }
 
         return numDeleted;
@@ -93,21 +97,10 @@ public class UtilsController {
      * @throws Neo4jQueryException If an error is thrown during the process
      */
     public static int removeTags(Neo4jAL neo4jAL) throws Neo4jQueryException {
-        // Retrieve every node label
-        int numDeleted = 0;
-
-        String forgedRemoveTags =
-                String.format(
-                        "MATCH (n:%1$s) WHERE EXISTS(n.%2$s) SET n.%2$s = [x IN n.%2$s WHERE NOT x CONTAINS '%3$s'] RETURN COUNT(n) as del",
-                        OBJECT_LABEL, OBJECT_TAG_PROPERTY, TAG_PREFIX);
-
-        Result res = neo4jAL.executeQuery(forgedRemoveTags);
-        if (res.hasNext()) {
-            Long deleted = (Long) res.next().get("del");
-            numDeleted = deleted.intValue();
-        }
-
-        return numDeleted;
+        // Only the objects carrying a Demeter tag are rewritten
+        TagCleanupService.CleanupReport report =
+                TagCleanupService.clean(neo4jAL, OBJECT_LABEL, TagCleanupService.Match.CONTAINS, TAG_PREFIX);
+        return (int) report.getModified();
     }
 
     /**
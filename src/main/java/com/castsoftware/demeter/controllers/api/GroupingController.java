@@ -27,13 +27,20 @@ import com.castsoftware.demeter.exceptions.file.MissingFileException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.results.demeter.CandidateFindingResult;
 import com.castsoftware.demeter.results.demeter.DemeterGroupResult;
+import com.castsoftware.demeter.services.lookup.PageCursor;
 import org.neo4j.graphdb.Result;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class GroupingController {
+
+    // Names of the paginated lists
+    private static final String CANDIDATES_LIST = "candidates";
+    private static final String DEMETER_GROUPS_LIST = "demeterGroups";
+
     // Community prefix
 
     /**
@@ -124,85 +131,89 @@ public class GroupingController {
 
 
     /**
-     * Get the number of application concerned by a prefixed tag in the database
+     * Get the tags with a prefix in the applications, by pages. The applications are explored in the
+     * order of their name, using their application label, until the page holds at least the limit of
+     * rows. The rows of an application are never split between two pages, and the continuation token
+     * is the name of their application. A page shorter than the limit is the last one.
      *
-     * @param neo4jAL   Neo4j Access Layer
-     * @param tagPrefix Name of the prefix to look for
+     * @param neo4jAL     Neo4j Access Layer
+     * @param tagPrefix   Name of the prefix to look for
+     * @param application Name of the application, null for all the applications
+     * @param cursor      Page to explore, sorted by application name
      * @return A list of match as a list of GroupingResult
      * @throws Neo4jQueryException
      */
-    private static List<CandidateFindingResult> getGroupingResults(Neo4jAL neo4jAL, String tagPrefix) throws Neo4jQueryException {
+    private static List<CandidateFindingResult> getGroupingResults(
+            Neo4jAL neo4jAL, String tagPrefix, String application, PageCursor cursor)
+            throws Neo4jQueryException {
         List<CandidateFindingResult> candidateFindingResults = new ArrayList<>();
 
-        String request = "MATCH (app:Application) " +
-                "WITH [app.Name] as appName " +
-                "MATCH (o:Object) WHERE EXISTS(o.Tags) " +
-                "AND any( x IN o.Tags WHERE x CONTAINS $tagPrefix ) " +
-                "AND any( x IN LABELS(o) WHERE x IN appName) " +
-                "RETURN DISTINCT [ x IN LABELS(o) WHERE x IN appName][0] as application , [x IN o.Tags WHERE x CONTAINS $tagPrefix] as tags,  COUNT(o) as numTags";
+        String appRequest = "MATCH (app:Application) " +
+                "WHERE ($appName IS NULL OR app.Name=$appName) AND ($after IS NULL OR app.Name > $after) " +
+                "RETURN app.Name as name ORDER BY name" + cursor.getLimitClause();
+        Map<String, Object> appParameters = new HashMap<>();
+        appParameters.put("appName", application);
+        appParameters.put("after", cursor.getAfter());
 
         Map<String, Object> parameters = Map.of("tagPrefix", tagPrefix);
-        Result res = neo4jAL.executeQuery(request, parameters);
-
-        while (res.hasNext()) {
-            Map<String, Object> result = res.next();
-            String applicationName = (String) result.get("application");
-            String[] tags = (String[]) result.get("tags");
-            Long numTags = (Long) result.get("numTags");
-
-            candidateFindingResults.add(new CandidateFindingResult(applicationName, tags, numTags));
-        }
-
-        return candidateFindingResults;
-    }
-
-    /**
-     * Get the number of application concerned by a tag in the database
-     *
-     * @param neo4jAL   Neo4j Access Layer
-     * @param tagPrefix Name of the prefix to look for
-     * @return A list of match as a list of GroupingResult
-     * @throws Neo4jQueryException
-     */
-    private static List<CandidateFindingResult> getGroupingResultsOneApplication(Neo4jAL neo4jAL, String tagPrefix, String application) throws Neo4jQueryException {
-        List<CandidateFindingResult> candidateFindingResults = new ArrayList<>();
-
-        String request = "MATCH (app:Application) WHERE app.Name=$appName " +
-                "WITH [app.Name] as appName " +
-                "MATCH (o:Object) WHERE EXISTS(o.Tags) " +
-                "AND any( x IN o.Tags WHERE x CONTAINS $tagPrefix ) " +
-                "AND any( x IN LABELS(o) WHERE x IN appName) " +
-                "RETURN DISTINCT [ x IN LABELS(o) WHERE x IN appName][0] as application , [x IN o.Tags WHERE x CONTAINS $tagPrefix] as tags,  COUNT(o) as numTags";
-
-        Map<String, Object> parameters = Map.of("tagPrefix", tagPrefix, "appName", application);
-        Result res = neo4jAL.executeQuery(request, parameters);
-
-        while (res.hasNext()) {
-            Map<String, Object> result = res.next();
-            String applicationName = (String) result.get("application");
-            String[] tags = (String[]) result.get("tags");
-            Long numTags = (Long) result.get("numTags");
-
-            candidateFindingResults.add(new CandidateFindingResult(applicationName, tags, numTags));
+        while (true) {
+            List<String> applications = new ArrayList<>();
+            Result appRes = neo4jAL.executeQuery(appRequest, appParameters);
+            while (appRes.hasNext()) {
+                applications.add((String) appRes.next().get("name"));
+            }
+
+            for (String applicationName : applications) {
+                String request = String.format("MATCH (o:Object:`%s`) WHERE EXISTS(o.Tags) " +
+                        "AND any( x IN o.Tags WHERE x CONTAINS $tagPrefix ) " +
+                        "RETURN [x IN o.Tags WHERE x CONTAINS $tagPrefix] as tags, COUNT(o) as numTags", applicationName);
+                Result res = neo4jAL.executeQuery(request, parameters);
+
+                String next = cursor.next(applicationName);
+                while (res.hasNext()) {
+                    Map<String, Object> result = res.next();
+                    String[] tags = (String[]) result.get("tags");
+                    Long numTags = (Long) result.get("numTags");
+
+                    candidateFindingResults.add(new CandidateFindingResult(applicationName, tags, numTags, next));
+                }
+            }
+
+            // Applications without candidates don't fill the page, keep exploring the next ones
+            if (!cursor.isLimited()
+                    || applications.size() < cursor.getLimit()
+                    || candidateFindingResults.size() >= cursor.getLimit()) break;
+            appParameters.put("after", applications.get(applications.size() - 1));
         }
 
         return candidateFindingResults;
     }
 
     /**
-     * Get a list of the group with the specified prefix
+     * Get a list of the group with the specified prefix. The groups are sorted by name, then by id for
+     * the groups sharing a name. The ids are reused by Neo4j after a deletion, so they are not used
+     * alone as a sort key.
      *
      * @param neo4jAL     Neo4j Access Layer
      * @param application Name of the application
      * @param groupPrefix Prefix of the groups
+     * @param cursor      Page of groups, sorted by name and id
      * @return
      * @throws Neo4jQueryException
      */
-    private static List<DemeterGroupResult> getDemeterGroupedOneApplication(Neo4jAL neo4jAL, String application, String groupPrefix) throws Neo4jQueryException {
+    private static List<DemeterGroupResult> getDemeterGroupedOneApplication(Neo4jAL neo4jAL, String application, String groupPrefix, PageCursor cursor) throws Neo4jQueryException {
         List<DemeterGroupResult> demeterGroupResults = new ArrayList<>();
 
-        String request = String.format("MATCH (l:Level5:`%s`)-[:Aggregates]->(o:Object) WHERE l.FullName=~'.*##%s(.*)' RETURN ID(l) as id, l.Name as groupName, COUNT(o) as numObjects ;", application, groupPrefix);
-        Result res = neo4jAL.executeQuery(request);
+        String request = String.format("MATCH (l:Level5:`%s`) WHERE l.FullName=~'.*##%s(.*)' " +
+                "AND ($afterName IS NULL OR l.Name > $afterName OR (l.Name = $afterName AND ID(l) > $afterId)) " +
+                "AND (l)-[:Aggregates]->(:Object) " +
+                "WITH l ORDER BY l.Name, ID(l)%s " +
+                "MATCH (l)-[:Aggregates]->(o:Object) " +
+                "RETURN ID(l) as id, l.Name as groupName, COUNT(o) as numObjects ORDER BY groupName, id", application, groupPrefix, cursor.getLimitClause());
+        Map<String, Object> params = new HashMap<>();
+        params.put("afterName", cursor.getAfterName());
+        params.put("afterId", cursor.getAfterNameId());
+        Result res = neo4jAL.executeQuery(request, params);
 
         while (res.hasNext()) {
             Map<String, Object> result = res.next();
@@ -210,7 +221,7 @@ public class GroupingController {
             String groupName = (String) result.get("groupName");
             Long numObjects = (Long) result.get("numObjects");
 
-            demeterGroupResults.add(new DemeterGroupResult(id, groupName, application, numObjects));
+            demeterGroupResults.add(new DemeterGroupResult(id, groupName, application, numObjects, cursor.next(groupName, id)));
         }
 
         return demeterGroupResults;
@@ -226,11 +237,25 @@ public class GroupingController {
      * @throws Neo4jQueryException
      */
     public static List<CandidateFindingResult> getCandidateApplicationsLevelGroup(Neo4jAL neo4jAL) throws Neo4jQueryException {
-        return getGroupingResults(neo4jAL, getLevelGroupPrefix());
+        return getGroupingResults(neo4jAL, getLevelGroupPrefix(), null, PageCursor.all(CANDIDATES_LIST));
     }
 
     public static List<CandidateFindingResult> getCandidateApplicationsLevelGroup(Neo4jAL neo4jAL, String application) throws Neo4jQueryException {
-        return getGroupingResultsOneApplication(neo4jAL, getLevelGroupPrefix(), application);
+        return getGroupingResults(neo4jAL, getLevelGroupPrefix(), application, PageCursor.all(CANDIDATES_LIST));
+    }
+
+    /**
+     * Get a page of the candidates application for the Level Grouping
+     *
+     * @param neo4jAL     Neo4j access Layer
+     * @param application Name of the application, null or empty for all the applications
+     * @param limit       Maximum number of applications in the page, 0 for all
+     * @param token       Continuation token of the previous page
+     * @return
+     * @throws Neo4jQueryException
+     */
+    public static List<CandidateFindingResult> getCandidateApplicationsLevelGroup(Neo4jAL neo4jAL, String application, Long limit, String token) throws Neo4jQueryException {
+        return getGroupingResults(neo4jAL, getLevelGroupPrefix(), emptyToNull(application), PageCursor.of(CANDIDATES_LIST, limit, token));
     }
 
     /**
@@ -241,11 +266,25 @@ public class GroupingController {
      * @throws Neo4jQueryException
      */
     public static List<CandidateFindingResult> getCandidateApplicationsModuleGroup(Neo4jAL neo4jAL) throws Neo4jQueryException {
-        return getGroupingResults(neo4jAL, getModuleGroupPrefix());
+        return getGroupingResults(neo4jAL, getModuleGroupPrefix(), null, PageCursor.all(CANDIDATES_LIST));
     }
 
     public static List<CandidateFindingResult> getCandidateApplicationsModuleGroup(Neo4jAL neo4jAL, String application) throws Neo4jQueryException {
-        return getGroupingResultsOneApplication(neo4jAL, getModuleGroupPrefix(), application);
+        return getGroupingResults(neo4jAL, getModuleGroupPrefix(), application, PageCursor.all(CANDIDATES_LIST));
+    }
+
+    /**
+     * Get a page of the candidates application for the Module Grouping
+     *
+     * @param neo4jAL     Neo4j access Layer
+     * @param application Name of the application, null or empty for all the applications
+     * @param limit       Maximum number of applications in the page, 0 for all
+     * @param token       Continuation token of the previous page
+     * @return
+     * @throws Neo4jQueryException
+     */
+    public static List<CandidateFindingResult> getCandidateApplicationsModuleGroup(Neo4jAL neo4jAL, String application, Long limit, String token) throws Neo4jQueryException {
+        return getGroupingResults(neo4jAL, getModuleGroupPrefix(), emptyToNull(application), PageCursor.of(CANDIDATES_LIST, limit, token));
     }
 
     /**
@@ -257,8 +296,22 @@ public class GroupingController {
      * @throws Neo4jQueryException
      */
     public static List<DemeterGroupResult> getDemeterLevels(Neo4jAL neo4jAL, String application) throws Neo4jQueryException {
+        return getDemeterLevels(neo4jAL, application, 0L, "");
+    }
+
+    /**
+     * Get a page of the demeter levels in an application
+     *
+     * @param neo4jAL     Neo4j Access Layer
+     * @param application
+     * @param limit       Maximum number of levels in the page, 0 for all
+     * @param token       Continuation token of the previous page
+     * @return
+     * @throws Neo4jQueryException
+     */
+    public static List<DemeterGroupResult> getDemeterLevels(Neo4jAL neo4jAL, String application, Long limit, String token) throws Neo4jQueryException {
         String generatedLevelPrefix = Configuration.get("demeter.prefix.generated_level_prefix");
-        return getDemeterGroupedOneApplication(neo4jAL, application, generatedLevelPrefix);
+        return getDemeterGroupedOneApplication(neo4jAL, application, generatedLevelPrefix, PageCursor.of(DEMETER_GROUPS_LIST, limit, token));
     }
 
     /**
@@ -271,8 +324,11 @@ public class GroupingController {
      */
     public static List<DemeterGroupResult> getDemeterModules(Neo4jAL neo4jAL, String application) throws Neo4jQueryException {
         String generatedLevelPrefix = Configuration.get("demeter.prefix.generated_module_prefix");
-        return getDemeterGroupedOneApplication(neo4jAL, application, generatedLevelPrefix);
+        return getDemeterGroupedOneApplication(neo4jAL, application, generatedLevelPrefix, PageCursor.all(DEMETER_GROUPS_LIST));
     }
 
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
 
 }
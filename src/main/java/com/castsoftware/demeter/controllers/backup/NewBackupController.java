@@ -28,6 +28,9 @@ import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.models.backup.MasterSaveNode;
 import com.castsoftware.demeter.services.backup.BackupService;
 import com.castsoftware.demeter.services.backup.MasterSaveNodeService;
+import com.castsoftware.demeter.services.blobs.BlobStoreService;
+import com.castsoftware.demeter.services.lookup.PageCursor;
+import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Result;
 
@@ -36,6 +39,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class NewBackupController {
 
@@ -117,10 +121,19 @@ public class NewBackupController {
      * @return The list of save detected
      */
     public List<MasterSaveNode> getListSave() throws Exception {
+        return getListSave(PageCursor.all(MasterSaveNodeService.PAGE_LIST));
+    }
+
+    /**
+     * Get a page of the saves in the application
+     *
+     * @param cursor Page to get, sorted by id
+     */
+    public List<MasterSaveNode> getListSave(PageCursor cursor) throws Exception {
         try {
 
             // Return the distinct list
-            return MasterSaveNodeService.getListMasterSave(neo4jAL, application);
+            return MasterSaveNodeService.getListMasterSave(neo4jAL, application, cursor);
         } catch (Exception e) {
             // Failed to execute the original query
             neo4jAL.logError(
@@ -129,6 +142,37 @@ public class NewBackupController {
         }
     }
 
+    /**
+     * Get the picture of a save, by chunks. Pictures stored on the node by the previous versions are
+     * still returned.
+     *
+     * @param id Id of the save
+     * @return The stream of chunks, empty if the save has no picture
+     */
+    public Stream<String> getPicture(Long id) throws Exception, Neo4jBadNodeFormatException {
+        Optional<Node> node = MasterSaveNodeService.findMasterSaveNodeById(neo4jAL, id);
+        if (node.isEmpty() || !node.get().hasLabel(Label.label(application))) {
+            throw new Exception(
+                    String.format("No save with id '%d' in the application '%s'.", id, application));
+        }
+
+        MasterSaveNode save = MasterSaveNode.read(node.get());
+        int chunkSize = BlobStoreService.getChunkSize();
+
+        if (!save.getPictureRef().isEmpty()) {
+            try {
+                return BlobStoreService.stream(neo4jAL.getDb().databaseName(), save.getPictureRef(), chunkSize);
+            } catch (Exception e) {
+                neo4jAL.logError(
+                        String.format("Failed to read the picture of the save with id '%d'.", id), e);
+                throw new Exception("Failed to read the picture of the save. Check the logs");
+            }
+        }
+
+        if (!save.getPicture().isEmpty()) return BlobStoreService.split(save.getPicture(), chunkSize);
+        return Stream.empty();
+    }
+
     /**
      * Get the list of all saves in the application
      *
@@ -163,7 +207,7 @@ public class NewBackupController {
         try {
             Node node = MasterSaveNodeService.findOrCreateMasterSaveNode(neo4jAL, application, name);
             MasterSaveNode masterSaveNode = new MasterSaveNode(node);
-            masterSaveNode.setPicture(picture);
+            masterSaveNode.setPicture(neo4jAL, picture);
             masterSaveNode.setTimestamp(timestamp);
             masterSaveNode.setDescription(description);
         } catch (Exception e) {
@@ -29,6 +29,8 @@ import com.castsoftware.demeter.models.demeter.ConfigurationNode;
 import com.castsoftware.demeter.models.demeter.DocumentNode;
 import com.castsoftware.demeter.models.demeter.TagNode;
 import com.castsoftware.demeter.models.demeter.UseCaseNode;
+import com.castsoftware.demeter.services.execution.GuardedExecutionService;
+import com.castsoftware.demeter.services.tags.TagCostService;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Result;
@@ -111,15 +113,31 @@ public class ConfigurationController {
 
         int nExecution = 0;
 
-        // Execute activated tag's requests
+        // Execute activated tag's requests, the cheapest first
         List<TagNode> tags = TagController.getSelectedTags(neo4jAL, configurationName);
+        TagCostService.sortByCost(tags);
 
         for (TagNode n : tags) {
             try {
-                List<Node> res = n.executeRequest(applicationLabel); // Results need to be processed
-                neo4jAL.logInfo("Statistics saved for tag : " + n.getTag());
-                nExecution++;
-            } catch (Exception | Neo4jNoResult | Neo4jBadRequestException err) {
+                if (Boolean.TRUE.equals(n.getNode().getProperty(TagNode.getCostFlaggedProperty(), false))) {
+                    neo4jAL.logInfo("Tag exceeding the cost budget : " + n.getTag());
+                }
+
+                // Each tag runs in its own transaction, with a timeout
+                GuardedExecutionService.Outcome<Long> outcome =
+                        GuardedExecutionService.run(neo4jAL, child -> n.countRequest(child, applicationLabel));
+                GuardedExecutionService.record(n.getNode(), outcome);
+
+                if (outcome.isCompleted()) {
+                    neo4jAL.logInfo("Statistics saved for tag : " + n.getTag());
+                    nExecution++;
+                } else {
+                    neo4jAL.logError(
+                            String.format(
+                                    "Tag with Node ID %d ended with status %s : %s",
+                                    n.getNodeId(), outcome.getStatus().name(), outcome.getMessage()));
+                }
+            } catch (Exception | Neo4jNoResult | Neo4jQueryException err) {
                 neo4jAL
                         .getLogger()
                         .error(
@@ -134,8 +152,17 @@ public class ConfigurationController {
                 DocumentController.getSelectedDocuments(neo4jAL, configurationName);
         for (DocumentNode d : documents) {
             try {
-                List<Node> res = d.execute(applicationLabel); // Results need to be processed
-            } catch (Exception | Neo4jNoResult | Neo4jBadRequestException err) {
+                GuardedExecutionService.Outcome<Long> outcome =
+                        GuardedExecutionService.run(neo4jAL, child -> d.execute(child, applicationLabel));
+                GuardedExecutionService.record(d.getNode(), outcome);
+
+                if (!outcome.isCompleted()) {
+                    neo4jAL.logError(
+                            String.format(
+                                    "Document with Node ID %d ended with status %s : %s",
+                                    d.getNodeId(), outcome.getStatus().name(), outcome.getMessage()));
+                }
+            } catch (Exception | Neo4jNoResult | Neo4jQueryException err) {
                 neo4jAL
                         .getLogger()
                         .error(
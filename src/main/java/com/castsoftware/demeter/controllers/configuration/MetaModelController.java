@@ -20,10 +20,12 @@
 package com.castsoftware.demeter.controllers.configuration;
 
 import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.metaModels.MetaModel;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 
 public class MetaModelController {
 
@@ -44,11 +46,13 @@ public class MetaModelController {
      *
      * @param neo4jAL       Neo4j Access Layer
      * @param metaModelName Name of the meta model to execute.
+     * @return The duration of the scan and of the writing, and the objects matched by each rule
      */
-    public static void executeMetamodel(
-            Neo4jAL neo4jAL, String applicationContext, String metaModelName) throws IOException {
+    public static List<String> executeMetamodel(
+            Neo4jAL neo4jAL, String applicationContext, String metaModelName)
+            throws IOException, Neo4jQueryException {
         MetaModel mm =
                 new MetaModel(neo4jAL, metaModelName, applicationContext); // Create the metamodel
-        mm.process(); // Process the metamodel
+        return mm.process(); // Process the metamodel
     }
 }
@@ -24,7 +24,10 @@ import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jNoResult;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.models.imaging.Level5Node;
+import com.castsoftware.demeter.services.lookup.ApplicationLookupService;
+import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
 
 public class RenameController {
 
@@ -46,18 +49,19 @@ public class RenameController {
             throws Neo4jNoResult, Neo4jQueryException {
 
         // Find level to rename
-        Level5Node found = null;
-        for (Level5Node l : Level5Node.getAllNodesByApplication(neo4jAL, applicationContext)) {
-            if (l.getName().equals(toRename)) {
-                found = l;
-                break;
-            }
+        Node levelNode;
+        try (ResourceIterator<Node> it =
+                     ApplicationLookupService.findNodes(
+                             neo4jAL,
+                             Label.label(Level5Node.getLabel()),
+                             applicationContext,
+                             Level5Node.getNameProperty(),
+                             toRename)) {
+            // If no level match, return false
+            if (!it.hasNext()) return false;
+            levelNode = it.next();
         }
 
-        // If no level match, return false
-        if (found == null) return false;
-
-        Node levelNode = found.getNode();
         levelNode.setProperty(Level5Node.getNameProperty(), newName);
 
         return true;
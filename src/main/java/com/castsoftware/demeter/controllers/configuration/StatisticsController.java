@@ -37,6 +37,7 @@ import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.RelationshipType;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -196,18 +197,22 @@ public class StatisticsController {
 
         List<StatisticNode> statList = getSelectedStatistics(nal, configurationName);
 
+        List<Path> reports;
         try (PreStatisticsLogger pl = new PreStatisticsLogger(applicationContext)) {
 
-            pl.flushBuffer();
-            pl.writeStatistics(statList);
+            pl.writeStatistics(nal, statList);
             pl.writeHighlights(highlightList);
             pl.save();
+            reports = pl.getOutputFiles();
         }
 
         returnList.add(
                 String.format("%d tags and %d statistics were processed.", nExecution, statList.size()));
         returnList.add(
                 String.format("The report was saved at '%s'.", PreStatisticsLogger.getOutputDirectory()));
+        for (Path report : reports) {
+            returnList.add(report.toString());
+        }
 
         return returnList;
     }
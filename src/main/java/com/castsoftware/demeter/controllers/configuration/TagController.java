@@ -24,7 +24,11 @@ import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.neo4j.*;
 import com.castsoftware.demeter.models.demeter.TagNode;
 import com.castsoftware.demeter.models.demeter.UseCaseNode;
+import com.castsoftware.demeter.results.demeter.ApproximateTagResult;
 import com.castsoftware.demeter.results.demeter.TagResult;
+import com.castsoftware.demeter.services.execution.GuardedExecutionService;
+import com.castsoftware.demeter.services.tags.TagCostService;
+import com.castsoftware.demeter.services.tags.TagForecastService;
 import com.castsoftware.demeter.tags.TagProcessing;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
@@ -33,6 +37,7 @@ import org.neo4j.graphdb.Result;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -112,16 +117,26 @@ public class TagController {
                     ERROR_PREFIX + "ADDU1");
         }
 
-        // Check the validity of the query
-        if (!validateQuery(neo4jAL, request)) {
+        // Check the validity and the cost of the query
+        Optional<TagCostService.TagCost> cost = estimateQuery(neo4jAL, request);
+        if (cost.isEmpty()) {
             throw new Neo4jBadRequestException(
                     String.format("The request provided is in incorrect format. Request : '%s'", request),
                     ERROR_PREFIX + "ADDU2");
         }
 
+        if (cost.get().isOverBudget() && TagCostService.isRejecting()) {
+            throw new Neo4jBadRequestException(
+                    String.format(
+                            "The request provided exceeds the cost budget ( %s for a budget of %d ). Request : '%s'",
+                            cost.get().describe(), TagCostService.getBudget(), request),
+                    ERROR_PREFIX + "ADDU3");
+        }
+
         TagNode tagNode = new TagNode(neo4jAL, tag, active, request, description);
         tagNode.setCategories(categories);
         Node n = tagNode.createNode();
+        TagCostService.store(n, cost.get());
 
         // Create the relation from the use case to the tag
         parent.createRelationshipTo(n, RelationshipType.withName(USE_CASE_TO_TAG_RELATIONSHIP));
@@ -172,6 +187,66 @@ public class TagController {
         return tagResultList;
     }
 
+    /**
+     * Return an approximate forecast of the tags on a specific application. Each request is either
+     * evaluated on a sample of the objects, or counted until a cap is reached.
+     *
+     * @param neo4jAL           Neo4j Access Layer
+     * @param configurationName Name of the configuration to use
+     * @param applicationName   Name of the application
+     * @param mode              Method of the forecast
+     * @param sampleSize        Number of objects sampled, 0 to use the configuration
+     * @param cap               Number of matches counted before stopping, 0 to use the configuration
+     * @return The list of estimates
+     * @throws Neo4jQueryException
+     * @throws Neo4jBadRequestException
+     * @throws Neo4jNoResult
+     */
+    public static List<ApproximateTagResult> forecastTagApproximate(
+            Neo4jAL neo4jAL,
+            String configurationName,
+            String applicationName,
+            TagForecastService.Mode mode,
+            long sampleSize,
+            long cap)
+            throws Neo4jQueryException, Neo4jBadRequestException, Neo4jNoResult {
+        List<TagNode> tagNodeList = TagController.getSelectedTags(neo4jAL, configurationName);
+        List<ApproximateTagResult> resultList = new ArrayList<>();
+
+        int size = sampleSize > 0 ? (int) sampleSize : TagForecastService.getSampleSize();
+        long limit = cap > 0 ? cap : TagForecastService.getCap();
+
+        for (TagNode tn : tagNodeList) {
+            try {
+                // Ignored non active requests
+                if (!tn.getActive()) continue;
+
+                TagForecastService.Estimate estimate =
+                        TagForecastService.forecast(
+                                neo4jAL, tn.getRequest(), applicationName, mode, size, limit);
+                String useCaseName = tn.getParentUseCase().getName();
+                resultList.add(
+                        new ApproximateTagResult(
+                                tn.getNodeId(),
+                                tn.getTag(),
+                                tn.getDescription(),
+                                estimate,
+                                tn.getCategories(),
+                                useCaseName));
+            } catch (Exception
+                    | Neo4jQueryException
+                    | Neo4JTemplateLanguageException
+                    | Neo4jNoResult
+                    | Neo4jBadNodeFormatException e) {
+                neo4jAL.logError(
+                        String.format("Tag with Id '%d' produced an error during forecasting.", tn.getNodeId()),
+                        e);
+            }
+        }
+
+        return resultList;
+    }
+
     /**
      * Execute specified tag request
      *
@@ -196,13 +271,23 @@ public class TagController {
 
         TagNode tn = TagNode.fromNode(neo4jAL, tagNode);
 
-        int numAffected = tn.executeRequest(applicationContext).size();
+        GuardedExecutionService.Outcome<Long> outcome =
+                GuardedExecutionService.run(neo4jAL, child -> tn.countRequest(child, applicationContext));
+        GuardedExecutionService.record(tagNode, outcome);
+        if (!outcome.isCompleted()) {
+            throw new Neo4jBadRequestException(
+                    String.format(
+                            "The execution of the tag ended with status %s : %s",
+                            outcome.getStatus().name(), outcome.getMessage()),
+                    ERROR_PREFIX + "EXET2");
+        }
+
         String useCaseName = tn.getParentUseCase().getName();
         return new TagResult(
                 tn.getNodeId(),
                 tn.getTag(),
                 tn.getDescription(),
-                (long) numAffected,
+                outcome.getValue(),
                 tn.getCategories(),
                 useCaseName);
     }
@@ -215,6 +300,18 @@ public class TagController {
      * @return True is the test was a success, false otherwise
      */
     public static boolean validateQuery(Neo4jAL neo4jAL, String request) {
+        return estimateQuery(neo4jAL, request).isPresent();
+    }
+
+    /**
+     * Check the validity of a query provided, and estimate its cost with the plan of the EXPLAIN on a
+     * real application. If a sample application is configured, the request is also profiled on it.
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @param request The request to test
+     * @return The cost of the request, or an empty optional if the request isn't valid
+     */
+    public static Optional<TagCostService.TagCost> estimateQuery(Neo4jAL neo4jAL, String request) {
         // Check the validity og the provided request
         try {
             // Sanitization, keep, everything but semi-colons
@@ -224,19 +321,22 @@ public class TagController {
             // Check the presence of anchors in the request
             if (!TagProcessing.isCountAnchorPresent(request)
                     || !TagProcessing.isReturnAnchorPresent(request)) {
-                return false;
+                return Optional.empty();
             }
 
             // Replace anchors and Execute explain
+            String application = TagCostService.getPlanningApplication(neo4jAL);
             String forgedReq = "EXPLAIN " + TagProcessing.processAll(request);
-            forgedReq = TagProcessing.replaceDummyApplicationContext(forgedReq);
+            forgedReq = TagProcessing.processApplicationContext(forgedReq, application);
             neo4jAL.logInfo("Request to execute :" + forgedReq);
             Result result = neo4jAL.executeQuery(forgedReq);
 
-            return true;
+            TagCostService.TagCost cost = TagCostService.fromPlan(result.getExecutionPlanDescription());
+            TagCostService.profile(neo4jAL, request, cost);
+            return Optional.of(cost);
 
         } catch (Neo4jQueryException | Neo4JTemplateLanguageException e) {
-            return false;
+            return Optional.empty();
         }
     }
 }
@@ -25,9 +25,10 @@ import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadNodeFormatException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jNoResult;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
-import com.castsoftware.demeter.models.Neo4jObject;
 import com.castsoftware.demeter.models.demeter.ConfigurationNode;
 import com.castsoftware.demeter.models.demeter.UseCaseNode;
+import com.castsoftware.demeter.services.configuration.ActiveBranchService;
+import com.castsoftware.demeter.services.lookup.PageCursor;
 import org.neo4j.graphdb.*;
 
 import java.util.*;
@@ -36,6 +37,9 @@ import java.util.stream.Collectors;
 public class UseCaseController {
 
     private static final String ERROR_PREFIX = "USECCx";
+
+    // Name of the paginated list of use cases
+    public static final String PAGE_LIST = "useCases";
     private static final String USE_CASE_RELATIONSHIP =
             Configuration.get("neo4j.relationships.use_case.to_use_case");
     private static final String DEFAULT_SELECTED_VALUE =
@@ -92,6 +96,32 @@ public class UseCaseController {
         return UseCaseNode.getAllNodes(neo4jAL);
     }
 
+    /**
+     * Return a page of the use case nodes present in the database, sorted by id
+     *
+     * @param neo4jAL Neo4J Access Layer
+     * @param cursor  Page to get
+     * @return list of use cases in the page
+     * @throws Neo4jQueryException
+     */
+    public static List<UseCaseNode> listUseCases(Neo4jAL neo4jAL, PageCursor cursor)
+            throws Neo4jQueryException {
+        String req = String.format("MATCH (n:`%s`) WHERE ID(n) > $after " +
+                "RETURN n as node ORDER BY ID(n)%s", UseCaseNode.getLabel(), cursor.getLimitClause());
+        List<UseCaseNode> useCases = new ArrayList<>();
+
+        Result res = neo4jAL.executeQuery(req, Map.of("after", cursor.getAfterId()));
+        while (res.hasNext()) {
+            Node n = (Node) res.next().get("node");
+            try {
+                useCases.add(UseCaseNode.fromNode(neo4jAL, n));
+            } catch (Neo4jBadNodeFormatException e) {
+                neo4jAL.logError(String.format("The use case node with id [%d] was ignored.", n.getId()), e);
+            }
+        }
+        return useCases;
+    }
+
     /**
      * Return all active use case nodes present in the database
      *
@@ -207,7 +237,8 @@ public class UseCaseController {
 
     /**
      * Search for nodes with a specific label inside the confirmation. The nodes with a matching label
-     * and present in an active branch will be returned.
+     * and present in an active branch will be returned. The active branches are cached per
+     * configuration, and the cache is dropped when a configuration node changes.
      *
      * @param neo4jAL           Neo4j Access Layer
      * @param configurationName Name of the configuration to parse
@@ -220,74 +251,6 @@ public class UseCaseController {
     public static Set<Node> searchByLabelInActiveBranches(
             Neo4jAL neo4jAL, String configurationName, Label toFind)
             throws Neo4jBadRequestException, Neo4jQueryException, Neo4jNoResult {
-        Label UseCaseLabel = Label.label(UseCaseNode.getLabel());
-        Set<Node> matchingNodes = new HashSet<>();
-
-        String req =
-                String.format(
-                        "MATCH(o:%s) WHERE o.%s=\"%s\" RETURN o as res",
-                        ConfigurationNode.getLabel(), ConfigurationNode.getNameProperty(), configurationName);
-        Result result = neo4jAL.executeQuery(req);
-
-        if (!result.hasNext()) {
-            throw new Neo4jNoResult(
-                    String.format(
-                            "The request to find Configuration node with name \"%s\" didn't produced any result.",
-                            configurationName),
-                    req,
-                    ERROR_PREFIX + "GATG1");
-        }
-
-        Node confNode = null;
-
-        try {
-            confNode = (Node) result.next().get("res");
-        } catch (NoSuchElementException | NullPointerException e) {
-            throw new Neo4jBadRequestException(
-                    "Error the request didn't return results in a correct format.", req, e, "GATG2");
-        }
-
-        // Iterate over Active Use Case
-        Stack<Node> toVisit = new Stack<>();
-        Set<Node> visited = new HashSet<>();
-
-        // Start with the configuration node
-        toVisit.add(confNode);
-
-        while (!toVisit.isEmpty()) {
-            Node n = toVisit.pop();
-
-            // Check the activation value if useCase Node
-            if (n.hasLabel(Label.label(UseCaseNode.getLabel()))) {
-                // Check the value for active property
-                boolean active =
-                        Neo4jObject.castPropertyToBoolean(n.getProperty(UseCaseNode.getActiveProperty()));
-                boolean selected =
-                        Neo4jObject.castPropertyToBoolean(n.getProperty(UseCaseNode.getSelectedProperty()));
-
-                if (!active || !selected) {
-                    visited.add(n);
-                    continue;
-                }
-            }
-
-            // Check if UseCase Nodes are connected
-            for (Relationship rel : n.getRelationships(Direction.OUTGOING)) {
-                Node otherNode = rel.getEndNode();
-
-                if (otherNode.hasLabel(UseCaseLabel) || !visited.contains(otherNode)) {
-                    toVisit.add(otherNode);
-                }
-
-                if (otherNode.hasLabel(toFind)) {
-                    matchingNodes.add(rel.getEndNode());
-                }
-            }
-
-            visited.add(n);
-        }
-
-        // TagNode.fromNode(neo4jAL, otherNode)
-        return matchingNodes;
+        return ActiveBranchService.getNodes(neo4jAL, configurationName, toFind);
     }
 }
@@ -26,6 +26,7 @@ import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadNodeFormatException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jNoResult;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.services.tags.TagCleanupService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Result;
 
@@ -39,7 +40,6 @@ public abstract class AGrouping {
     public AGrouping(Neo4jAL neo4jAL, String applicationContext) {
         this.neo4jAL = neo4jAL;
         this.applicationContext = applicationContext;
-
     }
 
     public abstract String getTagPrefix();
@@ -63,9 +63,13 @@ public abstract class AGrouping {
         neo4jAL.logInfo("Start refreshing views...");
         refresh();
 
-        // Clean tags
+        // Clean tags on the grouped objects only
         neo4jAL.logInfo("Cleaning tags...");
-        cleanTags();
+        List<Node> grouped = new ArrayList<>();
+        for (List<Node> nodeList : mapNode.values()) {
+            grouped.addAll(nodeList);
+        }
+        cleanTags(grouped);
         return nodes;
     }
 
@@ -153,16 +157,20 @@ public abstract class AGrouping {
     }
 
     /**
-     * Clean the residual tags in the database
+     * Clean the residual tags in the application. Only the objects carrying the prefix are rewritten.
      */
     public void cleanTags() throws Neo4jQueryException {
-        // Once the operation is done, remove Demeter tag prefix tags
-        String removeTagsQuery =
-                String.format(
-                        "MATCH (o:`%1$s`) WHERE EXISTS(o.Tags)  SET o.Tags = [ x IN o.Tags WHERE NOT x CONTAINS $tagPrefix ] RETURN COUNT(o) as removedTags;",
-                        applicationContext);
-        Map<String, Object> params = Map.of("tagPrefix", getTagPrefix());
-        Result tagRemoveRes = neo4jAL.executeQuery(removeTagsQuery, params);
+        TagCleanupService.clean(neo4jAL, applicationContext, TagCleanupService.Match.CONTAINS, getTagPrefix());
+        neo4jAL.logInfo("Cleaning Done !");
+    }
+
+    /**
+     * Clean the residual tags on a list of grouped objects
+     *
+     * @param nodeList Objects grouped
+     */
+    public void cleanTags(List<Node> nodeList) throws Neo4jQueryException {
+        TagCleanupService.clean(neo4jAL, nodeList, TagCleanupService.Match.CONTAINS, getTagPrefix());
         neo4jAL.logInfo("Cleaning Done !");
     }
 
@@ -21,17 +21,24 @@ package com.castsoftware.demeter.controllers.grouping;
 
 import com.castsoftware.demeter.config.Configuration;
 import com.castsoftware.demeter.controllers.grouping.architectures.ArchitectureGroupController;
+import com.castsoftware.demeter.controllers.grouping.levels.LevelGroupController;
 import com.castsoftware.demeter.controllers.grouping.modules.ModuleGroupController;
 import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.results.CompactNodeResult;
 import com.castsoftware.demeter.results.demeter.CandidateFindingResult;
+import com.castsoftware.demeter.results.demeter.GroupingSummaryResult;
+import com.castsoftware.demeter.services.grouping.GroupingType;
+import com.castsoftware.demeter.services.grouping.ParallelGroupingService;
+import com.castsoftware.demeter.services.grouping.ParallelGroupingService.ApplicationReport;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Result;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 public class GroupingUtilsController {
 
@@ -43,7 +50,7 @@ public class GroupingUtilsController {
      * @param prefix  Prefix of the controleler
      * @return The list of application
      */
-    private static List<String> getCandidatesApplications(Neo4jAL neo4jAL, String prefix) throws Neo4jQueryException {
+    public static List<String> getCandidatesApplications(Neo4jAL neo4jAL, String prefix) throws Neo4jQueryException {
 
         String applicationReq =
                 "MATCH (o:Object) WHERE EXISTS (o.Tags) AND any(x in o.Tags WHERE x STARTS WITH $tagPrefix) "
@@ -103,6 +110,77 @@ public class GroupingUtilsController {
         return res;
     }
 
+    /**
+     * Group all the applications carrying the tags of a grouping, in parallel. Each application is
+     * grouped in its own transaction, the failures are isolated per application.
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @param type    Type of grouping
+     * @param workers Number of workers, 0 to use the configuration
+     * @return The summary of the grouping
+     * @throws Neo4jQueryException If Neo4j Cypher requests are not valid
+     */
+    public static GroupingSummaryResult groupAllInParallel(Neo4jAL neo4jAL, GroupingType type, Long workers)
+            throws Neo4jQueryException {
+        long start = System.currentTimeMillis();
+        List<String> applications = getCandidatesApplications(neo4jAL, type.getPrefix());
+
+        List<ApplicationReport> reports =
+                ParallelGroupingService.groupInParallel(
+                        neo4jAL, type, applications, workers == null ? 0 : workers.intValue());
+        GroupingSummaryResult summary =
+                new GroupingSummaryResult(type, reports, System.currentTimeMillis() - start);
+
+        neo4jAL.logInfo(
+                String.format(
+                        "%s grouping done in %d ms : %d/%d applications succeeded, %d groups created.",
+                        type.name(), summary.duration, summary.numSucceeded, summary.numApplications, summary.numGroups));
+        if (!summary.failed.isEmpty()) {
+            neo4jAL.logInfo(String.format("Failed applications : [%s].", String.join(", ", summary.failed)));
+        }
+
+        return summary;
+    }
+
+    /**
+     * Launch a grouping and return the compact version of the groups created. Shared by the .compact
+     * procedures.
+     *
+     * @param neo4jAL     Neo4j Access Layer
+     * @param type        Type of grouping
+     * @param application Application to group, null to group all the applications
+     * @param summary     If true, only return one row aggregating all the groups
+     * @return The stream of compact results
+     * @throws Neo4jQueryException      If Neo4j Cypher requests are not valid
+     * @throws Neo4jBadRequestException If the creation of a group failed
+     */
+    public static Stream<CompactNodeResult> groupCompact(
+            Neo4jAL neo4jAL, GroupingType type, String application, Boolean summary)
+            throws Neo4jQueryException, Neo4jBadRequestException {
+        long start = System.currentTimeMillis();
+        List<Node> nodes;
+
+        if (application != null) {
+            nodes = ParallelGroupingService.groupApplication(neo4jAL, type, application);
+        } else {
+            switch (type) {
+                case LEVEL:
+                    nodes = new LevelGroupController(neo4jAL).groupInAllApplications();
+                    break;
+                case MODULE:
+                    nodes = groupAllModules(neo4jAL);
+                    break;
+                case ARCHITECTURE:
+                    nodes = groupAllArchitecture(neo4jAL);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported grouping type " + type);
+            }
+        }
+
+        return CompactNodeResult.of(nodes, System.currentTimeMillis() - start, Boolean.TRUE.equals(summary));
+    }
+
     /**
      * Group architectures in the selected applications
      * @param neo4jAL Neo4j Access Layer
@@ -22,6 +22,7 @@ package com.castsoftware.demeter.controllers.grouping.aggregations;
 import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jNoResult;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.services.deletion.BulkDeleteService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Result;
 
@@ -466,11 +467,13 @@ public class AggregationController {
                                     + "has been found and will now be deleted.",
                             aggregationName, application));
             List<Node> nodeList = this.getCustomNodesAttached(aggNode.get().getId());
-            for (Node node : nodeList) {
-                this.neo4jAL.deleteNodeById(node.getId());
+            long[] ids = new long[nodeList.size() + 1];
+            for (int i = 0; i < nodeList.size(); i++) {
+                ids[i] = nodeList.get(i).getId();
             }
+            ids[nodeList.size()] = aggNode.get().getId();
 
-            this.neo4jAL.deleteNodeById(aggNode.get().getId());
+            BulkDeleteService.delete(this.neo4jAL, ids, aggregationName);
         } else {
             this.neo4jAL.logError(
                     String.format(
@@ -26,7 +26,19 @@ import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.file.FileNotFoundException;
 import com.castsoftware.demeter.exceptions.file.MissingFileException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.services.sequences.SequenceKind;
+import com.castsoftware.demeter.services.sequences.SequenceService;
+import com.castsoftware.demeter.services.tags.TagCleanupService;
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.tuple.primitive.LongLongPair;
+import org.eclipse.collections.api.tuple.primitive.LongObjectPair;
+import org.eclipse.collections.impl.map.mutable.primitive.LongLongHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
 
@@ -35,11 +47,15 @@ import java.util.*;
 public class ArchitectureGroupController extends AGrouping {
 
     private final Set<String> createdArchitectures;
+    private final SequenceService.Block modelIds;
+    private final SequenceService.Block subsetIds;
 
 
     public ArchitectureGroupController(Neo4jAL neo4jAL, String applicationContext) {
         super(neo4jAL, applicationContext);
         createdArchitectures = new HashSet<>();
+        modelIds = new SequenceService.Block(neo4jAL, applicationContext, SequenceKind.MODEL_ID);
+        subsetIds = new SequenceService.Block(neo4jAL, applicationContext, SequenceKind.SUBSET_ID);
     }
 
     public static String getPrefix() {
@@ -125,52 +141,64 @@ public class ArchitectureGroupController extends AGrouping {
             }
         }
 
-        // Generate random tag
-
-        StringBuilder generatedString = new StringBuilder();
-        Random r = new Random();
-        String alphabet = "123456789azertyuiiopqsdfghjklmwxcvbnxyz";
-        for (int i = 0; i < 10; i++) {
-            generatedString.append(alphabet.charAt(r.nextInt(alphabet.length())));
-        }
-
-        neo4jAL.logInfo("Flagging objects and subObjects ...");
-        // Get Subsets and objects, flag objects
+        // Map each object of the architecture to its subset
+        neo4jAL.logInfo("Mapping objects and subObjects ...");
         String req = String.format("MATCH (a:ArchiModel:`%1$s`)  WHERE a.Name=$archiName " +
                 "WITH a MATCH (a)-[]->(s:Subset:`%1$s`)-[]->(o) WHERE (o:Object OR o:SubObject) " +
-                "SET o.TempSubset_%2$s=s.Name SET o.Subset = [ x in o.Subset WHERE NOT x=s.Name ];", applicationContext, generatedString.toString());
-        neo4jAL.executeQuery(req, parameters);
+                "RETURN ID(o) as object, ID(s) as subset", applicationContext);
+        Result resMembers = neo4jAL.executeQuery(req, parameters);
 
+        LongLongHashMap subsetByObject = new LongLongHashMap();
+        while (resMembers.hasNext()) {
+            Map<String, Object> t = resMembers.next();
+            subsetByObject.getIfAbsentPut((Long) t.get("object"), (Long) t.get("subset"));
+        }
+
+        // Derive the references between subsets from the outgoing relationships of their objects
         neo4jAL.logInfo("Getting relationships ...");
-        // Linking subset
-        String req2 = String.format("MATCH (o:`%1$s`)-[]->(o2:`%1$s`) WHERE NOT o.TempSubset_%2$s=o2.TempSubset_%2$s " +
-                "AND (o:Object OR o:SubObject) AND (o2:Object OR o2:SubObject) " +
-                "RETURN DISTINCT o.TempSubset_%2$s as source_module, o2.TempSubset_%2$s as target_module", applicationContext, generatedString.toString());
-
-        Result res2 = neo4jAL.executeQuery(req2, parameters);
-        if (!res.hasNext()) neo4jAL.logInfo("No subset to relink.");
-
-        while (res2.hasNext()) {
-            Map<String, Object> t = res2.next();
-            neo4jAL.logInfo(String.format("Create references between subset : '%s' and subset '%s'.", t.get("source_module"), t.get("target_module")));
-
-            String reqRel = String.format("MATCH (a:ArchiModel:`%1$s`)-[]->(s:Subset:`%1$s`), (a:ArchiModel:`%1$s`)-[]->(s2:Subset:`%1$s`) WHERE a.Name=$archiName " +
-                    "AND s.Name=$subsetSource AND s2.Name=$subsetTarget " +
-                    "MERGE (s)-[:References]->(s2)", applicationContext);
-            Map<String, Object> params = Map.of("archiName", architectureName, "subsetSource", t.get("source_module"), "subsetTarget", t.get("target_module"));
-            neo4jAL.executeQuery(reqRel, params);
+        LongObjectHashMap<LongHashSet> references = new LongObjectHashMap<>();
+        for (LongLongPair member : subsetByObject.keyValuesView()) {
+            Node o = neo4jAL.getNodeById(member.getOne());
+            if (o == null) continue;
+
+            for (Relationship rel : o.getRelationships(Direction.OUTGOING)) {
+                long otherId = rel.getEndNodeId();
+                if (!subsetByObject.containsKey(otherId)) continue;
+
+                long otherSubset = subsetByObject.get(otherId);
+                if (otherSubset != member.getTwo()) {
+                    references.getIfAbsentPut(member.getTwo(), LongHashSet::new).add(otherSubset);
+                }
+            }
         }
 
+        if (references.isEmpty()) neo4jAL.logInfo("No subset to relink.");
+
+        // Only write the missing References
+        RelationshipType referencesRel = RelationshipType.withName("References");
+        for (LongObjectPair<LongHashSet> reference : references.keyValuesView()) {
+            Node source = neo4jAL.getNodeById(reference.getOne());
+            if (source == null) continue;
+
+            LongHashSet existing = new LongHashSet();
+            for (Relationship rel : source.getRelationships(Direction.OUTGOING, referencesRel)) {
+                existing.add(rel.getEndNodeId());
+            }
+
+            LongIterator targets = reference.getTwo().longIterator();
+            while (targets.hasNext()) {
+                long targetId = targets.next();
+                if (existing.contains(targetId)) continue;
 
-        // Clean temp tags
-        String removeTagReq = String.format("MATCH (o:`%1$s`) WHERE (o:Object OR o:SubObject) AND EXISTS(o.TempSubset_%2$s) REMOVE o.TempSubset_%2$s", applicationContext, generatedString.toString());
-        neo4jAL.executeQuery(removeTagReq);
+                Node target = neo4jAL.getNodeById(targetId);
+                if (target == null) continue;
 
+                neo4jAL.logInfo(String.format("Create references between subset : '%s' and subset '%s'.",
+                        source.getProperty("Name", ""), target.getProperty("Name", "")));
+                source.createRelationshipTo(target, referencesRel);
+            }
+        }
 
-    /*String refreshConnections =
-            String.format("MATCH (a:ArchiModel:`%1$s`)-[]->(n:Subset:`%1$s`)-[]->(o) WHERE a.Name=$archiName AND NOT (n)<-[]-(:ArchiModel) AND (o:Object OR o:SubObject) "
-                    + "SET o.Subset = [ x in o.Subset WHERE NOT x=n.Name ] DETACH DELETE n", applicationContext);
-    neo4jAL.executeQuery(refreshConnections, parameters);*/
         neo4jAL.logInfo("Subsets Connections were refreshed..");
     }
 
@@ -234,18 +262,14 @@ public class ArchitectureGroupController extends AGrouping {
 
 
     /**
-     * Clean one specific tag from all the objects
+     * Clean one specific tag from the objects of the group
      *
-     * @param tag
+     * @param tag      Tag to remove
+     * @param nodeList Objects carrying the tag
      * @throws Neo4jQueryException
      */
-    private void cleanOneTag(String tag) throws Neo4jQueryException {
-        String removeTagsQuery =
-                String.format(
-                        "MATCH (o:`%1$s`) WHERE EXISTS(o.Tags) SET o.Tags = [ x IN o.Tags WHERE NOT x=$tag ] RETURN DISTINCT COLLECT(o.Tags) as removedTags;",
-                        applicationContext);
-        Map<String, Object> params = Map.of("tag", tag);
-        neo4jAL.executeQuery(removeTagsQuery, params);
+    private void cleanOneTag(String tag, List<Node> nodeList) throws Neo4jQueryException {
+        TagCleanupService.clean(neo4jAL, nodeList, TagCleanupService.Match.EQUALS, tag);
         neo4jAL.logError(
                 String.format(
                         "Architecture Tag [ %s ] in application '%s' was not in a good format, and was removed from the database.",
@@ -325,7 +349,7 @@ public class ArchitectureGroupController extends AGrouping {
     public Node group(String groupName, List<Node> nodeList) throws Neo4jQueryException {
         String[] cleanedGroupName = groupName.replace(getTagPrefix(), "").split("\\$");
         if (cleanedGroupName.length < 2) { // The group is not in a correct format
-            cleanOneTag(groupName);
+            cleanOneTag(groupName, nodeList);
             return null;
         }
 
@@ -336,20 +360,7 @@ public class ArchitectureGroupController extends AGrouping {
         createdArchitectures.add(nameView);
 
         // Create archi model
-        String modelIdReq =
-                String.format("MATCH (n:ArchiModel:`%s`) RETURN n.ModelId as modelId", applicationContext);
-        Result res = this.neo4jAL.executeQuery(modelIdReq);
-        String temp;
-        long maxId = 1L;
-        while (res.hasNext()) {
-            try {
-                temp = (String) res.next().get("modelId");
-                if (Long.parseLong(temp) >= maxId) {
-                    maxId = Long.parseLong(temp) + 1;
-                }
-            } catch (ClassCastException | NumberFormatException ignored) {
-            }
-        }
+        long maxId = modelIds.next();
 
         // Merge & update Archi model
         String req =
@@ -370,20 +381,7 @@ public class ArchitectureGroupController extends AGrouping {
         Node archiNode = (Node) result.next().get("node");
 
         // Create the subset
-        String subsetIdReq =
-                String.format("MATCH (n:Subset:`%s`) RETURN n.SubsetId as subsetId", applicationContext);
-        Result resSubsetId = this.neo4jAL.executeQuery(subsetIdReq);
-        String tempSub;
-        Long maxIdSub = 1L;
-        while (resSubsetId.hasNext()) {
-            try {
-                tempSub = (String) resSubsetId.next().get("subsetId");
-                if (Long.parseLong(tempSub) >= maxIdSub) {
-                    maxIdSub = Long.parseLong(tempSub) + 1;
-                }
-            } catch (ClassCastException | NumberFormatException ignored) {
-            }
-        }
+        Long maxIdSub = subsetIds.next();
 
         // Subset parameters
         Map<String, Object> paramsSubset =
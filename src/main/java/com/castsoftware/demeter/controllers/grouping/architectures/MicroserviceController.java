@@ -26,9 +26,19 @@ import com.castsoftware.demeter.exceptions.file.MissingFileException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadNodeFormatException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.services.architectures.MicroserviceTraversalService;
+import com.castsoftware.demeter.services.architectures.MicroserviceTraversalService.TraversalResult;
+import com.castsoftware.demeter.services.tags.TagCleanupService;
+import com.castsoftware.demeter.utils.configuration.BatchConfiguration;
+import com.castsoftware.demeter.utils.configuration.ParallelConfiguration;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
 import org.neo4j.graphdb.*;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class MicroserviceController extends ArchitectureGroupController {
 
@@ -127,7 +137,7 @@ public class MicroserviceController extends ArchitectureGroupController {
         String microserviceFullName = uniqueArchi + " " + microserviceName + " Microservice$";
 
         // Flag
-        List<Node> nodeList = flagNode(microserviceFullName, startingNode, Direction.OUTGOING);
+        flagNode(microserviceFullName, startingNode, Direction.OUTGOING);
         // processed += flagNode(microserviceFullName, con, Direction.INCOMING).size();
 
         // Extract
@@ -135,84 +145,58 @@ public class MicroserviceController extends ArchitectureGroupController {
         this.launchWithoutClean();
 
         // Clean specific tag
-        String removeTag =
-                String.format(
-                        "MATCH(o:Object:`%1$s`) WHERE EXISTS(o.Tags) SET o.Tags=[x in o.Tags WHERE NOT x  STARTS WITH $tagName]",
-                        applicationContext);
-        Map<String, Object> paramsTag = Map.of("tagName", "$a_" + microserviceFullName);
         neo4jAL.logInfo("Cleaning launched for : " + startingNode.getProperty("Name"));
-        neo4jAL.executeQuery(removeTag, paramsTag);
+        TagCleanupService.clean(
+                neo4jAL, applicationContext, TagCleanupService.Match.STARTS_WITH, "$a_" + microserviceFullName);
 
         neo4jAL.logInfo("Operation finished for : " + startingNode.getProperty("Name"));
     }
 
-    private List<Node> flagNode(String microserviceFullName, Node startingNode, Direction direction)
+    /**
+     * Flag the objects reachable from the starting node with the microservice tag. The traversal is
+     * done in memory, and the tags are written per level in batches once the traversal is complete.
+     *
+     * @param microserviceFullName Name of the microservice
+     * @param startingNode         Entry point of the microservice
+     * @param direction            Direction of the relationships to follow
+     * @return The number of objects flagged
+     * @throws Neo4jQueryException If the tag request failed
+     */
+    private long flagNode(String microserviceFullName, Node startingNode, Direction direction)
             throws Neo4jQueryException {
-        long processedOne = 0L;
         neo4jAL.logInfo(
                 String.format("Processing %s controller.", startingNode.getProperty("Name")));
 
-        List<Node> visited = new ArrayList<>();
-        List<Long> visitedID = new ArrayList<>();
-        Stack<Node> toVisit = new Stack<>();
-
-        // Get neighbors of controllers
-        for (Relationship r : startingNode.getRelationships()) {
-            toVisit.add(r.getOtherNode(startingNode));
-        }
-        visitedID.add(startingNode.getId());
+        TraversalResult traversal =
+                MicroserviceTraversalService.traverse(
+                        neo4jAL.getTransaction(), startingNode.getId(), direction);
 
-        // Init to visit To bottom
-        // Apply prop on controller
-        String tag = "$a_" + microserviceFullName + "Entry";
         String reqArchi =
                 String.format(
-                        "MATCH (obj:Object:`%1$s`) WHERE ID(obj)=$Id SET obj.Tags = CASE WHEN obj.Tags IS NULL THEN [$tag] ELSE obj.Tags + $tag END;",
+                        "UNWIND $ids as id MATCH (obj:Object:`%1$s`) WHERE ID(obj)=id "
+                                + "SET obj.Tags = CASE WHEN obj.Tags IS NULL THEN [$tag] ELSE obj.Tags + $tag END;",
                         applicationContext);
-        Map<String, Object> params = Map.of("Id", startingNode.getId(), "tag", tag);
-        neo4jAL.executeQuery(reqArchi, params);
-
-        // Parse relationship outgoing
-        while (!toVisit.empty()) {
-            Node treat = toVisit.pop();
-            // Ignore if visited
-            if (visitedID.contains(treat.getId())) continue;
-
-            // Add to visited nodes
-            visitedID.add(treat.getId());
-            visited.add(treat);
-            // flag for microservice
-
-            // Flag with architecture
-            if (treat.hasLabel(Label.label("Object")) && treat.hasProperty("Level")) {
-                tag = "$a_" + microserviceFullName + treat.getProperty("Level");
-                reqArchi =
-                        String.format(
-                                "MATCH (obj:Object:`%1$s`) WHERE ID(obj)=$Id "
-                                        + "SET obj.Tags = CASE WHEN obj.Tags IS NULL THEN [$tag] ELSE obj.Tags + $tag END;",
-                                applicationContext);
-                params = Map.of("Id", treat.getId(), "tag", tag);
-                neo4jAL.executeQuery(reqArchi, params);
-
-                // Get all linked objects
-                // Skip if the node isn't an object or a subObject
-
-                // Add relationships
-                for (Relationship rel : treat.getRelationships(direction)) {
-                    Node out = rel.getOtherNode(treat);
-                    toVisit.add(out);
-                }
-
-                processedOne++;
-            }
+        int batchSize = BatchConfiguration.getBatchSize();
 
+        // Apply prop on controller
+        String tag = "$a_" + microserviceFullName + "Entry";
+        neo4jAL.executeBatchedQuery(
+                reqArchi, new long[]{startingNode.getId()}, Map.of("tag", tag), batchSize);
+
+        // Flag with architecture, one batch of queries per level
+        for (Map.Entry<String, LongArrayList> entry : traversal.getLevelMap().entrySet()) {
+            tag = "$a_" + microserviceFullName + entry.getKey();
+            neo4jAL.executeBatchedQuery(
+                    reqArchi, entry.getValue().toArray(), Map.of("tag", tag), batchSize);
         }
 
+        long processedOne = traversal.getObjectCount();
         neo4jAL.logInfo(
                 String.format(
-                        "IN %s controller : %d", startingNode.getProperty("Name"), processedOne));
+                        "IN %s controller : %d ( %d nodes visited )",
+                        startingNode.getProperty("Name"), processedOne, traversal.getVisited()));
 
-        return visited;
+        return processedOne;
     }
 
     @Override
@@ -225,16 +209,19 @@ public class MicroserviceController extends ArchitectureGroupController {
         setPrefix(value);
     }
 
-    public void extractMicroservice(String architecturePrefix)
-            throws Neo4jQueryException, Neo4jBadRequestException {
-
-        // Get all node controllers
+    /**
+     * Get the entry points of the microservices, objects flagged with the microservice prefix
+     *
+     * @return The list of candidates ordered by name
+     * @throws Neo4jQueryException If the request failed
+     */
+    private List<Node> getCandidates() throws Neo4jQueryException {
         String req =
                 String.format(
-                        "MATCH (obj:Object:`%1$s`) WHERE any([x in obj.Tags WHERE NOT x  STARTS WITH $tagName]) RETURN obj as node ORDER BY obj.Name",
+                        "MATCH (obj:Object:`%1$s`) WHERE any(x in obj.Tags WHERE x STARTS WITH $tagName) RETURN obj as node ORDER BY obj.Name",
                         applicationContext);
         Map<String, Object> reqGather = Map.of("tagName", getPrefix());
-        Result res = neo4jAL.executeQuery(req);
+        Result res = neo4jAL.executeQuery(req, reqGather);
 
         List<Node> candidates = new ArrayList<>();
         while (res.hasNext()) {
@@ -242,6 +229,14 @@ public class MicroserviceController extends ArchitectureGroupController {
         }
 
         neo4jAL.logInfo(String.format("Detected %d candidates", candidates.size()));
+        return candidates;
+    }
+
+    public void extractMicroservice(String architecturePrefix)
+            throws Neo4jQueryException, Neo4jBadRequestException {
+
+        // Get all node controllers
+        List<Node> candidates = getCandidates();
 
         List<String> createdArchiModels = new ArrayList<>();
 
@@ -254,7 +249,7 @@ public class MicroserviceController extends ArchitectureGroupController {
             String microserviceFullName = uniqueArchi + " " + microserviceName + " Microservice$";
 
             // Flag
-            flagNode(microserviceFullName, con, Direction.OUTGOING).size();
+            flagNode(microserviceFullName, con, Direction.OUTGOING);
             // processed += flagNode(microserviceFullName, con, Direction.INCOMING).size();
             uniqueId++;
 
@@ -263,13 +258,9 @@ public class MicroserviceController extends ArchitectureGroupController {
             this.launchWithoutClean();
 
             // Clean specific tag
-            String removeTag =
-                    String.format(
-                            "MATCH(o:Object:`%1$s`) WHERE EXISTS(o.Tags) SET o.Tags=[x in o.Tags WHERE NOT x  STARTS WITH $tagName]",
-                            applicationContext);
-            Map<String, Object> paramsTag = Map.of("tagName", getPrefix() + microserviceFullName);
             neo4jAL.logInfo("Cleaning launched for : " + con.getProperty("Name"));
-            neo4jAL.executeQuery(removeTag, paramsTag);
+            TagCleanupService.clean(
+                    neo4jAL, applicationContext, TagCleanupService.Match.STARTS_WITH, getPrefix() + microserviceFullName);
 
             createdArchiModels.add(microserviceFullName);
             neo4jAL.logInfo("Operation finished for : " + con.getProperty("Name"));
@@ -277,4 +268,101 @@ public class MicroserviceController extends ArchitectureGroupController {
 
         refresh();
     }
+
+    /**
+     * Extract all the microservices of the application in parallel. The traversals are executed in
+     * read-only worker transactions, then the architectures are created in a single write phase
+     * without flagging the objects.
+     *
+     * @param architecturePrefix Prefix of the architectures to create
+     * @return The list of subsets created
+     * @throws Neo4jQueryException      If the requests failed
+     * @throws Neo4jBadRequestException If the creation of a group failed
+     */
+    public List<Node> extractMicroserviceParallel(String architecturePrefix)
+            throws Neo4jQueryException, Neo4jBadRequestException {
+
+        List<Node> candidates = getCandidates();
+        GraphDatabaseService db = neo4jAL.getDb();
+        int workers = Math.max(1, Math.min(ParallelConfiguration.getWorkers(), candidates.size()));
+        neo4jAL.logInfo(
+                String.format(
+                        "Launching %d traversals on %d workers.", candidates.size(), workers));
+
+        // Read phase, one worker transaction per traversal
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        List<Future<TraversalResult>> futures = new ArrayList<>();
+        try {
+            for (Node con : candidates) {
+                long idCandidate = con.getId();
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    try (Transaction tx = db.beginTx()) {
+                                        return MicroserviceTraversalService.traverse(
+                                                tx, idCandidate, Direction.OUTGOING);
+                                    }
+                                }));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Write phase
+        List<Node> created = new ArrayList<>();
+        long uniqueId = 0L;
+        for (int i = 0; i < candidates.size(); i++) {
+            Node con = candidates.get(i);
+            String uniqueArchi = String.format("%s-%d", architecturePrefix, uniqueId);
+            String microserviceName = ((String) con.getProperty("Name"));
+            String microserviceFullName = uniqueArchi + " " + microserviceName + " Microservice$";
+            uniqueId++;
+
+            TraversalResult traversal;
+            try {
+                traversal = futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new Neo4jQueryException(
+                        "The microservice extraction was interrupted.", e, "MICxEMP01");
+            } catch (ExecutionException e) {
+                neo4jAL.logError(
+                        String.format("Traversal failed for candidate : %s", microserviceName), e.getCause());
+                continue;
+            }
+
+            neo4jAL.logInfo(
+                    String.format(
+                            "Grouping launched for : %s ( %d objects )",
+                            microserviceName, traversal.getObjectCount()));
+
+            String groupPrefix = getTagPrefix() + microserviceFullName;
+            Node subset = group(groupPrefix + "Entry", List.of(con));
+            if (subset != null) created.add(subset);
+            for (Map.Entry<String, LongArrayList> entry : traversal.getLevelMap().entrySet()) {
+                subset = group(groupPrefix + entry.getKey(), getNodes(entry.getValue()));
+                if (subset != null) created.add(subset);
+            }
+        }
+
+        refresh();
+        return created;
+    }
+
+    /**
+     * Get the nodes in the current transaction
+     *
+     * @param ids Ids of the nodes
+     * @return The list of nodes
+     * @throws Neo4jQueryException If the node retrieval failed
+     */
+    private List<Node> getNodes(LongArrayList ids) throws Neo4jQueryException {
+        List<Node> nodes = new ArrayList<>(ids.size());
+        Node n;
+        for (int i = 0; i < ids.size(); i++) {
+            n = neo4jAL.getNodeById(ids.get(i));
+            if (n != null) nodes.add(n);
+        }
+        return nodes;
+    }
 }
@@ -20,12 +20,16 @@
 package com.castsoftware.demeter.controllers.grouping.levels;
 
 import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.controllers.grouping.GroupingUtilsController;
 import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jNoResult;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.models.imaging.Level5Node;
+import com.castsoftware.demeter.results.demeter.GroupingSummaryResult;
+import com.castsoftware.demeter.services.grouping.GroupingType;
 import com.castsoftware.demeter.services.levels.LevelService;
 import com.castsoftware.demeter.services.levels.ObjectService;
+import com.castsoftware.demeter.services.tags.TagCleanupService;
 import com.castsoftware.demeter.utils.LevelsUtils;
 import org.neo4j.graphdb.*;
 
@@ -129,6 +133,18 @@ public class LevelGroupController {
         }
     }
 
+    /**
+     * Group demeter levels in every applications, in parallel. Each application is grouped in its own
+     * transaction.
+     *
+     * @param workers Number of workers, 0 to use the configuration
+     * @return The summary of the grouping
+     * @throws Neo4jQueryException If the Neo4j query or its parameter are incorrect
+     */
+    public GroupingSummaryResult groupInAllApplicationsParallel(Long workers) throws Neo4jQueryException {
+        return GroupingUtilsController.groupAllInParallel(neo4jAL, GroupingType.LEVEL, workers);
+    }
+
     /**
      * Get the Demeter Tag identifier
      *
@@ -319,8 +335,8 @@ public class LevelGroupController {
 
         addStatus("All the level in the application were refreshed.");
 
-        // Clean the tag processed
-        cleanTag(applicationContext, groupName);
+        // Clean the tag processed on the grouped objects
+        cleanTag(nodeList, groupName);
 
         return newLevel5;
     }
@@ -438,17 +454,22 @@ public class LevelGroupController {
      */
     public void cleanTag(String applicationContext, String group) throws Neo4jQueryException {
         // Once the operation is done, remove Demeter tag prefix tags
-        String removeTagsQuery =
-                String.format(
-                        "MATCH (o:`%1$s`) WHERE EXISTS(o.%2$s)  SET o.%2$s = [ x IN o.%2$s WHERE NOT x CONTAINS $tag ] RETURN COUNT(o) as removedTags;",
-                        applicationContext, IMAGING_OBJECT_TAGS);
-        Map<String, Object> params = Map.of("tag", group);
-        Result tagRemoveRes = neo4jAL.executeQuery(removeTagsQuery, params);
-
-        if (tagRemoveRes.hasNext()) {
-            Long nDel = (Long) tagRemoveRes.next().get("removedTags");
-            neo4jAL.logInfo("# " + nDel + " demeter tag (" + group + ") were removed from the database.");
-        }
+        TagCleanupService.CleanupReport report =
+                TagCleanupService.clean(neo4jAL, applicationContext, TagCleanupService.Match.CONTAINS, group);
+        neo4jAL.logInfo("# " + report.getModified() + " demeter tag (" + group + ") were removed from the database.");
+    }
+
+    /**
+     * Clean a specific group on the objects grouped
+     *
+     * @param nodeList Objects carrying the tag
+     * @param group    Tag of the group
+     * @throws Neo4jQueryException If the query produced an error
+     */
+    public void cleanTag(List<Node> nodeList, String group) throws Neo4jQueryException {
+        TagCleanupService.CleanupReport report =
+                TagCleanupService.clean(neo4jAL, nodeList, TagCleanupService.Match.CONTAINS, group);
+        neo4jAL.logInfo("# " + report.getModified() + " demeter tag (" + group + ") were removed from the database.");
     }
 
     /**
@@ -459,16 +480,10 @@ public class LevelGroupController {
      */
     public void cleanAllTags(String applicationContext) throws Neo4jQueryException {
         // Once the operation is done, remove Demeter tag prefix tags
-        String removeTagsQuery =
-                String.format(
-                        "MATCH (o:`%1$s`) WHERE EXISTS(o.%2$s)  SET o.%2$s = [ x IN o.%2$s WHERE NOT x CONTAINS '%3$s' ] RETURN COUNT(o) as removedTags;",
-                        applicationContext, IMAGING_OBJECT_TAGS, getLevelPrefix());
-        Result tagRemoveRes = neo4jAL.executeQuery(removeTagsQuery);
-
-        if (tagRemoveRes.hasNext()) {
-            Long nDel = (Long) tagRemoveRes.next().get("removedTags");
-            neo4jAL.logInfo("# " + nDel + " demeter 'group tags' were removed from the database.");
-        }
+        TagCleanupService.CleanupReport report =
+                TagCleanupService.clean(
+                        neo4jAL, applicationContext, TagCleanupService.Match.CONTAINS, getLevelPrefix());
+        neo4jAL.logInfo("# " + report.getModified() + " demeter 'group tags' were removed from the database.");
     }
 
     /**
@@ -22,11 +22,12 @@ package com.castsoftware.demeter.controllers.grouping.modules;
 import com.castsoftware.demeter.config.Configuration;
 import com.castsoftware.demeter.controllers.grouping.AGrouping;
 import com.castsoftware.demeter.database.Neo4jAL;
-import com.castsoftware.demeter.database.Neo4jTypeManager;
 import com.castsoftware.demeter.exceptions.file.FileNotFoundException;
 import com.castsoftware.demeter.exceptions.file.MissingFileException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.services.sequences.SequenceKind;
+import com.castsoftware.demeter.services.sequences.SequenceService;
 import org.neo4j.graphdb.*;
 
 import java.util.Iterator;
@@ -52,8 +53,11 @@ public class ModuleGroupController extends AGrouping {
         }
     }
 
+    private final SequenceService.Block aipIds;
+
     public ModuleGroupController(Neo4jAL neo4jAL, String applicationContext) {
         super(neo4jAL, applicationContext);
+        aipIds = new SequenceService.Block(neo4jAL, applicationContext, SequenceKind.AIP_ID);
     }
 
     /**
@@ -130,11 +134,8 @@ public class ModuleGroupController extends AGrouping {
             if (!modNode.hasLabel(moduleLabel)) continue;
         }
 
-        // Get last AIP ID
-        String reqID = "Match (o) WHERE EXISTS(o.AipId) RETURN MAX(o.AipId) + 1 as maxId";
-        Result resId = neo4jAL.executeQuery(reqID);
-
-        Long maxId = Neo4jTypeManager.getAsLong(resId.next().get("maxId"), 0L);
+        // Get a new AIP ID
+        Long maxId = aipIds.next();
 
         // Get num Object + Sub obj
 
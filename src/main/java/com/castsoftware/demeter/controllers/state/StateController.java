@@ -27,6 +27,7 @@ import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.models.demeter.OperationNode;
 import com.castsoftware.demeter.models.demeter.SaveNode;
 import com.castsoftware.demeter.models.imaging.Level5Node;
+import com.castsoftware.demeter.services.lookup.PageCursor;
 import org.neo4j.graphdb.*;
 
 import java.text.DateFormat;
@@ -36,6 +37,9 @@ import java.util.*;
 public class StateController {
 
     // Static Imaging properties
+    // Name of the paginated list of saves
+    public static final String PAGE_LIST = "saves";
+
     private static final String AGGREGATES_REL = Configuration.get("imaging.node.level_nodes.links");
     private static final String IMAGING_OBJECT_LABEL = Configuration.get("imaging.node.object.label");
     private static final String IMAGING_OBJECT_FULL_NAME =
@@ -72,32 +76,36 @@ public class StateController {
         Node saveNode = svn.createNode();
 
         String fullName;
-        for (Level5Node level : Level5Node.getAllNodesByApplication(neo4jAL, applicationContext)) {
-            fullName = level.getFullName();
-
-            // If the full name match, the level was generated by Demeter
-            if (fullName.matches(".*##(" + GENERATED_LEVEL_PREFIX + ".*)")) {
-
-                Node n = level.getNode();
-
-                // Get connected nodes
-                List<String> fullNameList = new ArrayList<>();
-                for (Iterator<Relationship> relIt =
-                     n.getRelationships(Direction.OUTGOING, aggregates).iterator();
-                     relIt.hasNext(); ) {
-                    Node obj = relIt.next().getEndNode();
-                    if (obj.hasLabel(objectLabel) && obj.hasProperty(IMAGING_OBJECT_FULL_NAME)) {
-                        fullNameList.add((String) obj.getProperty(IMAGING_OBJECT_FULL_NAME));
-                        savedObj++;
+        try (ResourceIterator<Level5Node> levels =
+                     Level5Node.iterateNodesByApplication(neo4jAL, applicationContext)) {
+            while (levels.hasNext()) {
+                Level5Node level = levels.next();
+                fullName = level.getFullName();
+
+                // If the full name match, the level was generated by Demeter
+                if (fullName.matches(".*##(" + GENERATED_LEVEL_PREFIX + ".*)")) {
+
+                    Node n = level.getNode();
+
+                    // Get connected nodes
+                    List<String> fullNameList = new ArrayList<>();
+                    for (Iterator<Relationship> relIt =
+                         n.getRelationships(Direction.OUTGOING, aggregates).iterator();
+                         relIt.hasNext(); ) {
+                        Node obj = relIt.next().getEndNode();
+                        if (obj.hasLabel(objectLabel) && obj.hasProperty(IMAGING_OBJECT_FULL_NAME)) {
+                            fullNameList.add((String) obj.getProperty(IMAGING_OBJECT_FULL_NAME));
+                            savedObj++;
+                        }
                     }
-                }
 
-                // Create operation node
-                OperationNode opN = new OperationNode(neo4jAL, level.getName(), fullNameList);
-                Node opNode = opN.createNode();
+                    // Create operation node
+                    OperationNode opN = new OperationNode(neo4jAL, level.getName(), fullNameList);
+                    Node opNode = opN.createNode();
 
-                // Link the operation node to the Save node
-                opNode.createRelationshipTo(saveNode, toSaveRel);
+                    // Link the operation node to the Save node
+                    opNode.createRelationshipTo(saveNode, toSaveRel);
+                }
             }
         }
 
@@ -115,14 +123,33 @@ public class StateController {
     public static List<Node> getSaveNodesByApplication(Neo4jAL neo4jAL, String applicationName)
             throws Neo4jNoResult {
         List<Node> saveNodes = new ArrayList<>();
-        for (SaveNode sv : SaveNode.getAllSaveNodes(neo4jAL)) {
-            if (sv.getApplication().equals(applicationName)) {
-                try {
-                    saveNodes.add(sv.getNode());
-                } catch (Neo4jQueryException e) {
-                    neo4jAL.logError(
-                            String.format("Save node with name '%s' produced an error.", sv.getName()));
-                }
+        for (SaveNode sv : SaveNode.getSaveNodesByApplication(neo4jAL, applicationName)) {
+            try {
+                saveNodes.add(sv.getNode());
+            } catch (Neo4jQueryException e) {
+                neo4jAL.logError(
+                        String.format("Save node with name '%s' produced an error.", sv.getName()));
+            }
+        }
+        return saveNodes;
+    }
+
+    /**
+     * Get a page of the Saves in the database
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @param cursor  Page to get, sorted by id
+     * @return The list of nodes
+     * @throws Neo4jQueryException
+     */
+    public static List<Node> getSaveNodes(Neo4jAL neo4jAL, PageCursor cursor) throws Neo4jQueryException {
+        List<Node> saveNodes = new ArrayList<>();
+        for (SaveNode sv : SaveNode.getSaveNodes(neo4jAL, cursor)) {
+            try {
+                saveNodes.add(sv.getNode());
+            } catch (Neo4jNoResult e) {
+                neo4jAL.logError(
+                        String.format("Save node with name '%s' produced an error.", sv.getName()));
             }
         }
         return saveNodes;
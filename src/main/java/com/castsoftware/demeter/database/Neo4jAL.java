@@ -26,6 +26,8 @@ import org.neo4j.graphdb.*;
 import org.neo4j.logging.Log;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -185,6 +187,40 @@ public class Neo4jAL {
         }
     }
 
+    /**
+     * Execute a query over a list of node ids, split in chunks. Each chunk is passed to the query in
+     * the <code>$ids</code> parameter and is expected to be unwound by the query.
+     *
+     * @param query     Cypher query to execute for each chunk
+     * @param ids       Ids of the nodes to process
+     * @param params    Additional parameters of the query
+     * @param batchSize Maximum number of ids per chunk
+     * @return The number of chunks executed
+     * @throws Neo4jQueryException Exception during the processing of one of the chunks
+     */
+    public int executeBatchedQuery(
+            String query, long[] ids, Map<String, Object> params, int batchSize)
+            throws Neo4jQueryException {
+        if (batchSize <= 0) batchSize = ids.length;
+
+        Map<String, Object> batchParams = new HashMap<>(params);
+        int numBatch = 0;
+        for (int start = 0; start < ids.length; start += batchSize) {
+            int end = Math.min(start + batchSize, ids.length);
+            batchParams.put("ids", Arrays.copyOfRange(ids, start, end));
+
+            try {
+                this.transaction.execute(query, batchParams).close();
+            } catch (QueryExecutionException e) {
+                throw new Neo4jQueryException(
+                        "Error while executing batched query.", query, e, ERROR_PREFIX + "EXBQ1");
+            }
+            numBatch++;
+        }
+
+        return numBatch;
+    }
+
     public Result executeAtomicQuery(String query, Map<String, Object> params)
             throws Neo4jQueryException {
         try (Transaction tx = db.beginTx()) {
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.listeners;
+
+import com.castsoftware.demeter.services.grouping.AutoGroupingService;
+import com.castsoftware.demeter.services.grouping.GroupingPrefix;
+import com.castsoftware.demeter.services.grouping.GroupingType;
+import com.castsoftware.demeter.utils.configuration.ObjectConfiguration;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventListener;
+
+import java.util.*;
+
+/**
+ * Detect the Demeter grouping tags added on objects, and schedule the grouping of the applications
+ * concerned.
+ */
+public class AutoGroupingListener implements TransactionEventListener<Map<String, Set<GroupingType>>> {
+
+    private final AutoGroupingService autoGroupingService;
+    private final String objectLabel;
+
+    public AutoGroupingListener(AutoGroupingService autoGroupingService) {
+        this.autoGroupingService = autoGroupingService;
+        this.objectLabel = ObjectConfiguration.getObjectLabel().name();
+    }
+
+    @Override
+    public Map<String, Set<GroupingType>> beforeCommit(
+            TransactionData data, Transaction transaction, GraphDatabaseService databaseService) {
+        // Disabled by default, don't diff the tags of every transaction for nothing
+        if (!AutoGroupingService.isEnabled()) return null;
+
+        Set<GroupingPrefix> followed = EnumSet.noneOf(GroupingPrefix.class);
+        for (GroupingType type : GroupingType.values()) followed.add(type.getGroupingPrefix());
+
+        Map<String, Set<GroupingType>> toGroup = new HashMap<>();
+        Map<String, Map<GroupingPrefix, Long>> added =
+                GroupingTagChanges.getAddedPerApplication(data, objectLabel, followed);
+
+        for (Map.Entry<String, Map<GroupingPrefix, Long>> app : added.entrySet()) {
+            for (GroupingType type : GroupingType.values()) {
+                if (!app.getValue().containsKey(type.getGroupingPrefix())) continue;
+                toGroup.computeIfAbsent(app.getKey(), k -> EnumSet.noneOf(GroupingType.class)).add(type);
+            }
+        }
+
+        return toGroup;
+    }
+
+    @Override
+    public void afterCommit(
+            TransactionData data, Map<String, Set<GroupingType>> toGroup, GraphDatabaseService databaseService) {
+        if (toGroup == null || toGroup.isEmpty() || !AutoGroupingService.isEnabled()) return;
+
+        for (Map.Entry<String, Set<GroupingType>> entry : toGroup.entrySet()) {
+            for (GroupingType type : entry.getValue()) {
+                autoGroupingService.schedule(entry.getKey(), type);
+            }
+        }
+    }
+
+    @Override
+    public void afterRollback(
+            TransactionData data, Map<String, Set<GroupingType>> toGroup, GraphDatabaseService databaseService) {
+        // Nothing was written
+    }
+}
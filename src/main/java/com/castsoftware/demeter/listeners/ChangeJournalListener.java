@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.listeners;
+
+import com.castsoftware.demeter.services.changes.ChangeJournal;
+import com.castsoftware.demeter.services.changes.ChangeJournalService;
+import com.castsoftware.demeter.services.grouping.GroupingPrefix;
+import com.castsoftware.demeter.utils.configuration.ObjectConfiguration;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventListener;
+
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Record in the change journal the Demeter tags added on objects
+ */
+public class ChangeJournalListener implements TransactionEventListener<ChangeJournalListener.PendingChanges> {
+
+    private final ChangeJournal journal;
+    private final String objectLabel;
+
+    public ChangeJournalListener(String databaseName) {
+        this.journal = ChangeJournalService.getJournal(databaseName);
+        this.objectLabel = ObjectConfiguration.getObjectLabel().name();
+    }
+
+    @Override
+    public PendingChanges beforeCommit(
+            TransactionData data, Transaction transaction, GraphDatabaseService databaseService) {
+        Map<String, Map<GroupingPrefix, Long>> added =
+                GroupingTagChanges.getAddedPerApplication(
+                        data, objectLabel, EnumSet.allOf(GroupingPrefix.class));
+        return added.isEmpty() ? null : new PendingChanges(added);
+    }
+
+    @Override
+    public void afterCommit(TransactionData data, PendingChanges pending, GraphDatabaseService databaseService) {
+        if (pending == null) return;
+
+        for (Map.Entry<String, Map<GroupingPrefix, Long>> app : pending.counts.entrySet()) {
+            for (Map.Entry<GroupingPrefix, Long> type : app.getValue().entrySet()) {
+                GroupingPrefix gp = type.getKey();
+                journal.append(app.getKey(), gp.getType(), gp.getPrefix(), type.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void afterRollback(TransactionData data, PendingChanges pending, GraphDatabaseService databaseService) {
+        // Nothing was written
+    }
+
+    /**
+     * Number of tags added per application and type of grouping, in a transaction
+     */
+    public static class PendingChanges {
+        private final Map<String, Map<GroupingPrefix, Long>> counts;
+
+        private PendingChanges(Map<String, Map<GroupingPrefix, Long>> counts) {
+            this.counts = counts;
+        }
+    }
+}
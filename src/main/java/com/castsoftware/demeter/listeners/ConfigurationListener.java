@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.listeners;
+
+import com.castsoftware.demeter.models.demeter.TagNode;
+import com.castsoftware.demeter.services.configuration.ActiveBranchService;
+import com.castsoftware.demeter.services.execution.GuardedExecutionService;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.event.LabelEntry;
+import org.neo4j.graphdb.event.PropertyEntry;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventListener;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Drop the cached active branches when a node of a configuration is created, modified or deleted
+ */
+public class ConfigurationListener implements TransactionEventListener<Boolean> {
+
+    private final Set<String> configurationLabels =
+            ActiveBranchService.getConfigurationLabels().stream()
+                    .map(Label::name)
+                    .collect(Collectors.toSet());
+
+    // Runtime properties written on the configuration nodes, they don't change the active branches
+    private final Set<String> runtimeProperties = getRuntimeProperties();
+
+    private static Set<String> getRuntimeProperties() {
+        Set<String> properties = new HashSet<>(GuardedExecutionService.getStatusProperties());
+        properties.add(TagNode.getEstimatedRowsProperty());
+        properties.add(TagNode.getDbHitsProperty());
+        properties.add(TagNode.getCostWarningsProperty());
+        properties.add(TagNode.getCostFlaggedProperty());
+        return properties;
+    }
+
+    @Override
+    public Boolean beforeCommit(TransactionData data, Transaction transaction, GraphDatabaseService databaseService) {
+        return touchesConfiguration(data);
+    }
+
+    @Override
+    public void afterCommit(TransactionData data, Boolean touched, GraphDatabaseService databaseService) {
+        if (Boolean.TRUE.equals(touched)) ActiveBranchService.invalidate();
+    }
+
+    @Override
+    public void afterRollback(TransactionData data, Boolean touched, GraphDatabaseService databaseService) {
+        // A snapshot may have been built on the uncommitted state
+        if (Boolean.TRUE.equals(touched)) ActiveBranchService.invalidate();
+    }
+
+    /**
+     * Check if the transaction modified a node of a configuration
+     *
+     * @param data Data of the transaction
+     * @return True if a configuration node or one of its relationships changed
+     */
+    private boolean touchesConfiguration(TransactionData data) {
+        // Creation and deletion of nodes
+        for (LabelEntry entry : data.assignedLabels()) {
+            if (configurationLabels.contains(entry.label().name())) return true;
+        }
+        for (LabelEntry entry : data.removedLabels()) {
+            if (configurationLabels.contains(entry.label().name())) return true;
+        }
+
+        // Modification of the properties ( Active, Selected, requests, etc. )
+        for (PropertyEntry<Node> entry : data.assignedNodeProperties()) {
+            if (runtimeProperties.contains(entry.key())) continue;
+            if (isConfigurationNode(data, entry.entity())) return true;
+        }
+        for (PropertyEntry<Node> entry : data.removedNodeProperties()) {
+            if (runtimeProperties.contains(entry.key())) continue;
+            if (isConfigurationNode(data, entry.entity())) return true;
+        }
+
+        // Modification of the tree
+        for (Relationship rel : data.createdRelationships()) {
+            if (isConfigurationNode(data, rel.getStartNode())) return true;
+        }
+        for (Relationship rel : data.deletedRelationships()) {
+            try {
+                if (isConfigurationNode(data, rel.getStartNode())) return true;
+            } catch (Exception e) {
+                return true; // Unable to verify, drop the cache
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isConfigurationNode(TransactionData data, Node node) {
+        if (data.isDeleted(node)) return false; // Covered by the removed labels
+        for (Label l : node.getLabels()) {
+            if (configurationLabels.contains(l.name())) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.listeners;
+
+import com.castsoftware.demeter.services.grouping.AutoGroupingService;
+import com.castsoftware.demeter.services.jobs.JobService;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.event.TransactionEventListener;
+import org.neo4j.kernel.extension.ExtensionFactory;
+import org.neo4j.kernel.extension.ExtensionType;
+import org.neo4j.kernel.extension.context.ExtensionContext;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.kernel.lifecycle.Lifecycle;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.internal.LogService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Register the Demeter transaction listeners on every user database
+ */
+public class DemeterExtensionFactory extends ExtensionFactory<DemeterExtensionFactory.Dependencies> {
+
+    private static final String SYSTEM_DATABASE = "system";
+
+    public DemeterExtensionFactory() {
+        super(ExtensionType.DATABASE, "demeterListeners");
+    }
+
+    @Override
+    public Lifecycle newInstance(ExtensionContext context, Dependencies dependencies) {
+        GraphDatabaseAPI db = dependencies.graphdatabaseAPI();
+        DatabaseManagementService managementService = dependencies.databaseManagementService();
+        Log log = dependencies.log().getUserLog(DemeterExtensionFactory.class);
+
+        return new LifecycleAdapter() {
+            private final List<TransactionEventListener<?>> listeners = new ArrayList<>();
+            private AutoGroupingService autoGroupingService;
+
+            @Override
+            public void start() {
+                if (SYSTEM_DATABASE.equals(db.databaseName())) return;
+
+                autoGroupingService = new AutoGroupingService(db, log);
+
+                listeners.add(new ConfigurationListener());
+                listeners.add(new AutoGroupingListener(autoGroupingService));
+                listeners.add(new ChangeJournalListener(db.databaseName()));
+                listeners.add(new QueryCacheListener(db.databaseName()));
+
+                for (TransactionEventListener<?> listener : listeners) {
+                    managementService.registerTransactionEventListener(db.databaseName(), listener);
+                }
+                log.info(
+                        String.format(
+                                "Demeter :: %d listeners registered on database '%s'.",
+                                listeners.size(), db.databaseName()));
+            }
+
+            @Override
+            public void stop() {
+                for (TransactionEventListener<?> listener : listeners) {
+                    managementService.unregisterTransactionEventListener(db.databaseName(), listener);
+                }
+                listeners.clear();
+
+                if (autoGroupingService != null) autoGroupingService.shutdown();
+                JobService.cancelAll(db.databaseName());
+            }
+        };
+    }
+
+    public interface Dependencies {
+        GraphDatabaseAPI graphdatabaseAPI();
+
+        DatabaseManagementService databaseManagementService();
+
+        LogService log();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.listeners;
+
+import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.services.grouping.GroupingPrefix;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.event.PropertyEntry;
+import org.neo4j.graphdb.event.TransactionData;
+
+import java.util.*;
+
+/**
+ * Find the Demeter grouping tags added on objects by a transaction. Shared by the listeners
+ * following these tags.
+ */
+public class GroupingTagChanges {
+
+    private static final String TAGS_PROPERTY = Configuration.get("imaging.link.object_property.tags");
+
+    /**
+     * Get the tags present in the new value but not in the previous one
+     *
+     * @param previous Previous value of the property
+     * @param value    New value of the property
+     * @return The list of tags added
+     */
+    public static List<String> getAddedTags(Object previous, Object value) {
+        if (!(value instanceof String[])) return Collections.emptyList();
+
+        Set<String> previousTags =
+                previous instanceof String[]
+                        ? new HashSet<>(Arrays.asList((String[]) previous))
+                        : Collections.emptySet();
+
+        List<String> added = new ArrayList<>();
+        for (String tag : (String[]) value) {
+            if (!previousTags.contains(tag)) added.add(tag);
+        }
+        return added;
+    }
+
+    /**
+     * Count the grouping tags added by a transaction, per application and prefix
+     *
+     * @param data        Data of the transaction
+     * @param objectLabel Label of the objects
+     * @param followed    Prefixes to look for
+     * @return The number of tags added per application and prefix, empty if none
+     */
+    public static Map<String, Map<GroupingPrefix, Long>> getAddedPerApplication(
+            TransactionData data, String objectLabel, Set<GroupingPrefix> followed) {
+        Map<String, Map<GroupingPrefix, Long>> counts = new HashMap<>();
+        Map<GroupingPrefix, String> prefixes = null;
+
+        for (PropertyEntry<Node> entry : data.assignedNodeProperties()) {
+            if (!TAGS_PROPERTY.equals(entry.key())) continue;
+
+            List<String> added = getAddedTags(entry.previouslyCommittedValue(), entry.value());
+            if (added.isEmpty()) continue;
+
+            Node node = entry.entity();
+            if (data.isDeleted(node) || !node.hasLabel(Label.label(objectLabel))) continue;
+
+            // Load the prefixes only when a tag was added
+            if (prefixes == null) prefixes = GroupingPrefix.getConfigured(followed);
+
+            for (String tag : added) {
+                for (Map.Entry<GroupingPrefix, String> prefix : prefixes.entrySet()) {
+                    if (!tag.startsWith(prefix.getValue())) continue;
+
+                    for (Label l : node.getLabels()) {
+                        if (objectLabel.equals(l.name())) continue;
+                        counts.computeIfAbsent(l.name(), k -> new EnumMap<>(GroupingPrefix.class))
+                                .merge(prefix.getKey(), 1L, Long::sum);
+                    }
+                }
+            }
+        }
+
+        return counts;
+    }
+
+    public GroupingTagChanges() {
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.listeners;
+
+import com.castsoftware.demeter.services.cache.QueryResultCache;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.event.LabelEntry;
+import org.neo4j.graphdb.event.PropertyEntry;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventListener;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Declare a new version of the applications written by a transaction, so their cached statistics and
+ * forecasts are no longer used
+ */
+public class QueryCacheListener implements TransactionEventListener<Set<String>> {
+
+    private final String databaseName;
+
+    public QueryCacheListener(String databaseName) {
+        this.databaseName = databaseName;
+    }
+
+    @Override
+    public Set<String> beforeCommit(
+            TransactionData data, Transaction transaction, GraphDatabaseService databaseService) {
+        Set<String> labels = new HashSet<>();
+        LongHashSet visited = new LongHashSet();
+
+        // Deleted nodes and label changes
+        for (LabelEntry entry : data.assignedLabels()) {
+            labels.add(entry.label().name());
+        }
+        for (LabelEntry entry : data.removedLabels()) {
+            labels.add(entry.label().name());
+        }
+
+        for (PropertyEntry<Node> entry : data.assignedNodeProperties()) {
+            collectLabels(data, entry.entity(), visited, labels);
+        }
+        for (PropertyEntry<Node> entry : data.removedNodeProperties()) {
+            collectLabels(data, entry.entity(), visited, labels);
+        }
+        for (Relationship rel : data.createdRelationships()) {
+            collectLabels(data, rel.getStartNode(), visited, labels);
+            collectLabels(data, rel.getEndNode(), visited, labels);
+        }
+        for (Relationship rel : data.deletedRelationships()) {
+            try {
+                collectLabels(data, rel.getStartNode(), visited, labels);
+                collectLabels(data, rel.getEndNode(), visited, labels);
+            } catch (Exception ignored) {
+                // Deleted nodes are covered by the removed labels
+            }
+        }
+
+        return labels;
+    }
+
+    @Override
+    public void afterCommit(TransactionData data, Set<String> labels, GraphDatabaseService databaseService) {
+        if (labels == null || labels.isEmpty()) return;
+
+        long version = data.getTransactionId();
+        for (String label : labels) {
+            QueryResultCache.setVersion(databaseName, label, version);
+        }
+    }
+
+    @Override
+    public void afterRollback(TransactionData data, Set<String> labels, GraphDatabaseService databaseService) {
+        // Nothing was written
+    }
+
+    private void collectLabels(TransactionData data, Node node, LongHashSet visited, Set<String> labels) {
+        if (!visited.add(node.getId()) || data.isDeleted(node)) return;
+        for (Label l : node.getLabels()) {
+            labels.add(l.name());
+        }
+    }
+}
@@ -24,8 +24,10 @@ import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jNoResult;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.models.imaging.Level5Node;
+import com.castsoftware.demeter.utils.configuration.BatchConfiguration;
 import com.google.gson.Gson;
 import com.google.gson.stream.JsonReader;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
 import org.neo4j.graphdb.*;
 
 import java.io.FileNotFoundException;
@@ -106,51 +108,85 @@ public class MetaModel {
     }
 
     /**
-     * Split the nodes not belonging to a transaction.
+     * Read the objects of the application with their level in a single pass, and get the tag given by
+     * the plan to each of them.
      *
-     * @throws Neo4jQueryException
+     * @param plan    Compiled meta-model
+     * @param matches Number of objects matched by each rule
+     * @return The ids of the objects to tag, per tag
+     * @throws Neo4jQueryException If the request failed
      */
-    private void separateNotInTransactionsObjects() throws Neo4jQueryException {
-        String forgedRequest =
+    private Map<String, LongArrayList> evaluate(MetaModelPlan plan, Map<String, Long> matches)
+            throws Neo4jQueryException {
+        String inTransaction =
+                plan.isTransactionsRequired()
+                        ? String.format("EXISTS((:Transaction:`%1$s`)-[:Contains]->(obj))", applicationContext)
+                        : "false";
+        String req =
                 String.format(
-                        "MATCH (l:Level5:%1$s)-[:Aggregates]->(obj:Object:%1$s) "
-                                + "WHERE obj.External=false AND NOT (:Transaction:%1$s)-[:Contains]->(obj:Object:%1$s) "
-                                + "SET obj.Tags = CASE WHEN obj.Tags IS NULL THEN ['Dm_gl_Not in transaction '+l.Name] ELSE  [x in  obj.Tags WHERE NOT x CONTAINS 'Dm_gl_'] + ('Dm_gl_Not in transaction '+l.Name) END",
-                        applicationContext);
-        neo4jAL.executeQuery(forgedRequest);
+                        "MATCH (l:Level5:`%1$s`)-[:Aggregates]->(obj:Object:`%1$s`) "
+                                + "RETURN ID(obj) as id, l.Name as level, obj.External as external, obj.Type as type, "
+                                + "toString(obj.AipId) as aipId, %2$s as inTransaction",
+                        applicationContext, inTransaction);
+
+        Map<String, LongArrayList> toTag = new HashMap<>();
+        List<MetaModelPlan.Rule> rules = plan.getRules();
+        long[] matched = new long[rules.size()];
+
+        Result result = neo4jAL.executeQuery(req);
+        while (result.hasNext()) {
+            Map<String, Object> record = result.next();
+            Object external = record.get("external");
+            MetaModelPlan.ObjectRow row =
+                    new MetaModelPlan.ObjectRow(
+                            (Long) record.get("id"),
+                            (String) record.get("level"),
+                            external instanceof Boolean ? (Boolean) external : null,
+                            (String) record.get("type"),
+                            (String) record.get("aipId"),
+                            Boolean.TRUE.equals(record.get("inTransaction")));
+
+            // The last rule matching gives the level of the object
+            String tag = null;
+            for (int i = 0; i < rules.size(); i++) {
+                String ruleTag = rules.get(i).evaluate(row);
+                if (ruleTag != null) {
+                    matched[i]++;
+                    tag = ruleTag;
+                }
+            }
+
+            if (tag != null) toTag.computeIfAbsent(tag, k -> new LongArrayList()).add(row.id);
+        }
+
+        for (int i = 0; i < rules.size(); i++) {
+            matches.merge(rules.get(i).getName(), matched[i], Long::sum);
+        }
+        return toTag;
     }
 
     /**
-     * Split the nodes flagged as external from the rest of the application
+     * Apply the tags on the objects, by batches. The previous meta-model tags of the objects are
+     * removed.
      *
-     * @throws Neo4jQueryException
+     * @param toTag Ids of the objects to tag, per tag
+     * @throws Neo4jQueryException If one of the batches failed
      */
-    private void splitExternalsObjects() throws Neo4jQueryException {
-        String forgedRequest =
+    private void write(Map<String, LongArrayList> toTag) throws Neo4jQueryException {
+        String req =
                 String.format(
-                        "MATCH (l:Level5:%1$s)-[:Aggregates]->(obj:Object:%1$s) "
-                                + "WHERE obj.External=true "
-                                + "SET obj.Tags = CASE WHEN obj.Tags IS NULL THEN ['Dm_gl_External '+l.Name] ELSE [x in  obj.Tags WHERE NOT x CONTAINS 'Dm_gl_'] + ('Dm_gl_External '+l.Name) END",
+                        "UNWIND $ids as id MATCH (obj:Object:`%1$s`) WHERE ID(obj)=id "
+                                + "SET obj.Tags = CASE WHEN obj.Tags IS NULL THEN [$tag] "
+                                + "ELSE [x in obj.Tags WHERE NOT x CONTAINS $prefix] + $tag END",
                         applicationContext);
-        neo4jAL.executeQuery(forgedRequest);
-    }
+        int batchSize = BatchConfiguration.getBatchSize();
 
-    /**
-     * Merge object by type
-     *
-     * @param types Type to be merged
-     * @throws Neo4jQueryException
-     */
-    private void mergeObjectByType(String[] types) throws Neo4jQueryException {
-        String forgedRequest;
-        for (int i = 0; i < types.length; i++) {
-            forgedRequest =
-                    String.format(
-                            "MATCH (obj:Object:%1$s) "
-                                    + "WHERE obj.Type='%2$s' "
-                                    + "SET obj.Tags = CASE WHEN obj.Tags IS NULL THEN ['Dm_gl_Extracted'+obj.Type] ELSE [x in  obj.Tags WHERE NOT x CONTAINS 'Dm_gl_'] + ('Dm_gl_Extracted '+obj.Type) END",
-                            applicationContext, types[i]);
-            neo4jAL.executeQuery(forgedRequest);
+        for (Map.Entry<String, LongArrayList> en : toTag.entrySet()) {
+            neo4jAL.executeBatchedQuery(
+                    req,
+                    en.getValue().toArray(),
+                    Map.of("tag", en.getKey(), "prefix", MetaModelPlan.getTagPrefix()),
+                    batchSize);
         }
     }
 
@@ -192,11 +228,14 @@ public class MetaModel {
     }
 
     /**
-     * Process the content of a Metamodel file
+     * Process the content of a Metamodel file. All the options are compiled in a single plan, evaluated
+     * in one pass over the objects of the application.
      *
-     * @throws IOException
+     * @return The duration of the scan and of the writing, and the objects matched by each rule
+     * @throws IOException         If the file cannot be read
+     * @throws Neo4jQueryException If the read or the write of the tags failed
      */
-    public void process() throws IOException {
+    public List<String> process() throws IOException, Neo4jQueryException {
         Gson gson = new Gson();
         MetaModelStructure metaModel;
         try (JsonReader reader =
@@ -204,25 +243,36 @@ public class MetaModel {
             metaModel = gson.fromJson(reader, MetaModelStructure.class);
         }
 
-        // Separate Transactions
-        if (metaModel.splitNotInTransactionsObjects) {
-            try {
-                separateNotInTransactionsObjects();
-            } catch (Neo4jQueryException e) {
-                neo4jAL.logError("Failed to execute objects split by their presence in transactions.", e);
-            }
+        MetaModelPlan plan = MetaModelPlan.compile(metaModel);
+        List<String> report = new ArrayList<>();
+        if (plan.getRules().isEmpty()) {
+            report.add("The metamodel doesn't contain any operation.");
+            return report;
         }
 
-        // Split Externals
-        if (metaModel.splitExternalObjects) {
-            try {
-                splitExternalsObjects();
-            } catch (Neo4jQueryException e) {
-                neo4jAL.logError("Failed to execute objects split by their externality.", e);
-            }
+        Map<String, Long> matches = new LinkedHashMap<>();
+
+        long start = System.nanoTime();
+        Map<String, LongArrayList> toTag = evaluate(plan, matches);
+        long scan = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        write(toTag);
+        long writing = System.nanoTime() - start;
+
+        int tagged = toTag.values().stream().mapToInt(LongArrayList::size).sum();
+        report.add(
+                String.format(
+                        "Scan of the objects : %d ms. %d objects tagged in %d levels.",
+                        scan / 1_000_000, tagged, toTag.size()));
+        for (Map.Entry<String, Long> en : matches.entrySet()) {
+            report.add(String.format("Rule '%s' : %d objects matched.", en.getKey(), en.getValue()));
         }
+        report.add(String.format("Writing of the tags : %d ms.", writing / 1_000_000));
 
-        if (metaModel.toMergeObjectType.length != 0) {
+        for (String line : report) {
+            neo4jAL.logInfo(String.format("Metamodel '%s' :: %s", metaModel.metaModelName, line));
         }
+        return report;
     }
 }
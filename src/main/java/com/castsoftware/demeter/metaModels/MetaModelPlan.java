@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.metaModels;
+
+import java.util.*;
+
+/**
+ * Rules of a meta-model compiled from its file. The rules are evaluated in order on each object of
+ * the application, and the last one matching gives the level of the object.
+ */
+public class MetaModelPlan {
+
+    private static final String TAG_PREFIX = "Dm_gl_";
+
+    private final List<Rule> rules;
+    private final boolean transactionsRequired;
+
+    private MetaModelPlan(List<Rule> rules) {
+        this.rules = rules;
+        this.transactionsRequired = rules.stream().anyMatch(r -> r instanceof NotInTransactionRule);
+    }
+
+    /**
+     * Compile the options and the custom operations of a meta-model
+     *
+     * @param structure Content of the meta-model file
+     * @return The plan
+     */
+    public static MetaModelPlan compile(MetaModelStructure structure) {
+        List<Rule> rules = new ArrayList<>();
+
+        if (structure.splitNotInTransactionsObjects) rules.add(new NotInTransactionRule());
+        if (structure.splitExternalObjects) rules.add(new ExternalRule());
+        if (structure.toMergeObjectType != null && structure.toMergeObjectType.length != 0) {
+            rules.add(new ObjectTypeRule(structure.toMergeObjectType));
+        }
+        if (structure.customOperations != null) {
+            for (Map.Entry<String, Long[]> operation : structure.customOperations.entrySet()) {
+                rules.add(new CustomOperationRule(operation.getKey(), operation.getValue()));
+            }
+        }
+
+        return new MetaModelPlan(rules);
+    }
+
+    public static String getTagPrefix() {
+        return TAG_PREFIX;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Check if one of the rules needs to know if the objects are part of a transaction
+     *
+     * @return True if the transactions must be fetched
+     */
+    public boolean isTransactionsRequired() {
+        return transactionsRequired;
+    }
+
+    /**
+     * Properties of an object and of its level, read once for all the rules
+     */
+    public static class ObjectRow {
+        public final long id;
+        public final String level;
+        // Null if the object has no External property
+        public final Boolean external;
+        public final String type;
+        public final String aipId;
+        public final boolean inTransaction;
+
+        public ObjectRow(
+                long id, String level, Boolean external, String type, String aipId, boolean inTransaction) {
+            this.id = id;
+            this.level = level;
+            this.external = external;
+            this.type = type;
+            this.aipId = aipId;
+            this.inTransaction = inTransaction;
+        }
+    }
+
+    /**
+     * Rule of a meta-model
+     */
+    public interface Rule {
+        String getName();
+
+        /**
+         * Get the tag of the object
+         *
+         * @param row Object to evaluate
+         * @return The tag, or null if the rule doesn't apply
+         */
+        String evaluate(ObjectRow row);
+    }
+
+    /**
+     * Split the objects not belonging to a transaction
+     */
+    private static class NotInTransactionRule implements Rule {
+        @Override
+        public String getName() {
+            return "splitNotInTransactionsObjects";
+        }
+
+        @Override
+        public String evaluate(ObjectRow row) {
+            // Only the objects explicitly flagged as internal
+            if (!Boolean.FALSE.equals(row.external) || row.inTransaction) return null;
+            return TAG_PREFIX + "Not in transaction " + row.level;
+        }
+    }
+
+    /**
+     * Split the objects flagged as external from the rest of the application
+     */
+    private static class ExternalRule implements Rule {
+        @Override
+        public String getName() {
+            return "splitExternalObjects";
+        }
+
+        @Override
+        public String evaluate(ObjectRow row) {
+            return Boolean.TRUE.equals(row.external) ? TAG_PREFIX + "External " + row.level : null;
+        }
+    }
+
+    /**
+     * Extract the objects of some types in their own level
+     */
+    private static class ObjectTypeRule implements Rule {
+        private final Set<String> types;
+
+        private ObjectTypeRule(String[] types) {
+            this.types = new HashSet<>(Arrays.asList(types));
+        }
+
+        @Override
+        public String getName() {
+            return "toMergeObjectType";
+        }
+
+        @Override
+        public String evaluate(ObjectRow row) {
+            return row.type != null && types.contains(row.type) ? TAG_PREFIX + "Extracted " + row.type : null;
+        }
+    }
+
+    /**
+     * Move a list of objects, identified by their AipId, to a level
+     */
+    private static class CustomOperationRule implements Rule {
+        private final String level;
+        private final Set<String> aipIds = new HashSet<>();
+
+        private CustomOperationRule(String level, Long[] aipIds) {
+            this.level = level;
+            if (aipIds == null) return;
+            for (Long id : aipIds) {
+                if (id != null) this.aipIds.add(id.toString());
+            }
+        }
+
+        @Override
+        public String getName() {
+            return "customOperations." + level;
+        }
+
+        @Override
+        public String evaluate(ObjectRow row) {
+            return row.aipId != null && aipIds.contains(row.aipId) ? TAG_PREFIX + level : null;
+        }
+    }
+}
@@ -31,6 +31,7 @@ public class MetaModelStructure {
     public boolean splitNotInTransactionsObjects;
     public boolean splitExternalObjects;
     public String[] toMergeObjectType;
+    // Name of the level to create, and AipIds of the objects to move in it
     public Map<String, Long[]> customOperations;
 
     public MetaModelStructure() {
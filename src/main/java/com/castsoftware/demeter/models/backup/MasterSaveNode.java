@@ -22,10 +22,13 @@ package com.castsoftware.demeter.models.backup;
 import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadNodeFormatException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.services.backup.PictureService;
+import com.castsoftware.demeter.services.blobs.BlobStoreService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.Result;
 
+import java.io.IOException;
 import java.util.Date;
 import java.util.Map;
 import java.util.Optional;
@@ -38,11 +41,18 @@ public class MasterSaveNode {
 
     public static final String MASTERSAVE_NODE_LABEL = "DemeterMasterSave";
 
+    // The picture is kept in the blob store, only its reference and its thumbnail are on the node
+    private static final String PICTURE_PROPERTY = "Picture";
+    private static final String PICTURE_REF_PROPERTY = "PictureRef";
+    private static final String THUMBNAIL_PROPERTY = "Thumbnail";
+
     private Long id;
     private String name;
     private String description;
     private Long timestamp;
     private String picture;
+    private String pictureRef;
+    private String thumbnail;
 
     private Node node;
 
@@ -61,6 +71,8 @@ public class MasterSaveNode {
         this.description = description;
         this.timestamp = timestamp;
         this.picture = picture;
+        this.pictureRef = "";
+        this.thumbnail = "";
     }
 
 
@@ -76,26 +88,48 @@ public class MasterSaveNode {
         this.description = "";
         this.timestamp = new Date().getTime();
         this.picture = "";
+        this.pictureRef = "";
+        this.thumbnail = "";
     }
 
     /**
-     * Constructor from a node
+     * Constructor from a node. A node not in a correct format is detached and deleted, so only use it
+     * in a write transaction. Use {@link #read(Node)} in the read procedures.
      *
      * @param node Node to treat
      * @throws Neo4jBadNodeFormatException
      */
     public MasterSaveNode(Node node) throws Neo4jBadNodeFormatException {
+        this(node, true);
+    }
+
+    /**
+     * Load a save without modifying the graph. A node not in a correct format is only reported.
+     *
+     * @param node Node to treat
+     * @return The save
+     * @throws Neo4jBadNodeFormatException If the node is not in a correct format
+     */
+    public static MasterSaveNode read(Node node) throws Neo4jBadNodeFormatException {
+        return new MasterSaveNode(node, false);
+    }
+
+    private MasterSaveNode(Node node, boolean deleteMalformed) throws Neo4jBadNodeFormatException {
         try {
             this.node = node;
             this.id = (Long) node.getId();
             this.name = (String) node.getProperty("Name");
             this.description = node.hasProperty("Description") ? (String) node.getProperty("Description") : "";
             this.timestamp = node.hasProperty("Timestamp") ? (Long) node.getProperty("Timestamp") : 0L;
-            this.picture = node.hasProperty("Picture") ? (String) node.getProperty("Picture") : "";
+            this.picture = node.hasProperty(PICTURE_PROPERTY) ? (String) node.getProperty(PICTURE_PROPERTY) : "";
+            this.pictureRef = node.hasProperty(PICTURE_REF_PROPERTY) ? (String) node.getProperty(PICTURE_REF_PROPERTY) : "";
+            this.thumbnail = node.hasProperty(THUMBNAIL_PROPERTY) ? (String) node.getProperty(THUMBNAIL_PROPERTY) : "";
         } catch (Exception e) {
-            // Detach delete the node
-            node.getRelationships().forEach(Relationship::delete); // Detach
-            node.delete(); // Delete
+            if (deleteMalformed) {
+                // Detach delete the node
+                node.getRelationships().forEach(Relationship::delete); // Detach
+                node.delete(); // Delete
+            }
             throw new Neo4jBadNodeFormatException(String.format("The MasterSaveNode with id [%d] is not in a correct format", node.getId()), "MASTxCONS01");
         }
     }
@@ -104,18 +138,51 @@ public class MasterSaveNode {
         return id;
     }
 
+    /**
+     * Get the picture stored directly on the node, by the saves created before the blob store
+     *
+     * @return The picture, or an empty string
+     */
     public String getPicture() {
         return picture;
     }
 
     /**
-     * Set a new picture format
+     * Get the reference of the picture in the blob store
      *
+     * @return The reference, or an empty string
+     */
+    public String getPictureRef() {
+        return pictureRef;
+    }
+
+    public String getThumbnail() {
+        return thumbnail;
+    }
+
+    /**
+     * Set a new picture. The picture is written in the blob store of the database, and the node only
+     * keeps its reference and its thumbnail.
+     *
+     * @param neo4jAL Neo4j Access Layer
      * @param picture value
+     * @throws IOException If the picture couldn't be written in the store
      */
-    public void setPicture(String picture) {
-        this.picture = picture;
-        if (node != null) node.setProperty("Picture", picture);
+    public void setPicture(Neo4jAL neo4jAL, String picture) throws IOException {
+        if (picture == null || picture.isEmpty()) {
+            this.pictureRef = "";
+            this.thumbnail = "";
+        } else {
+            this.pictureRef = BlobStoreService.put(neo4jAL.getDb().databaseName(), picture);
+            this.thumbnail = PictureService.createThumbnail(picture);
+        }
+        this.picture = "";
+
+        if (node != null) {
+            node.removeProperty(PICTURE_PROPERTY);
+            node.setProperty(PICTURE_REF_PROPERTY, pictureRef);
+            node.setProperty(THUMBNAIL_PROPERTY, thumbnail);
+        }
     }
 
     public String getName() {
@@ -178,13 +245,11 @@ public class MasterSaveNode {
                 "SET o.Name=$name " +
                 "SET o.Description=$description " +
                 "SET o.Timestamp=$timestamp " +
-                "SET o.Picture=$picture " +
                 "RETURN o as node;", application, MASTERSAVE_NODE_LABEL);
         Map<String, Object> params = Map.of(
                 "name", this.name,
                 "description", this.description,
-                "timestamp", this.timestamp,
-                "picture", this.picture
+                "timestamp", this.timestamp
         );
 
         try {
@@ -194,6 +259,11 @@ public class MasterSaveNode {
             if (res.hasNext()) n = (Node) res.next().get("node");
             else throw new Exception("Failed to create the Master Save node. No results.");
 
+            if (!this.picture.isEmpty()) {
+                this.node = n;
+                setPicture(neo4jAL, this.picture);
+            }
+
             return n;
         } catch (Neo4jQueryException | Exception err) {
             neo4jAL.logError(String.format("Failed to create the Master Save. Request : '%s'.", request), err);
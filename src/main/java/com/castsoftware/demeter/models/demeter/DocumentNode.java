@@ -23,6 +23,7 @@ import com.castsoftware.demeter.config.Configuration;
 import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.neo4j.*;
 import com.castsoftware.demeter.models.Neo4jObject;
+import com.castsoftware.demeter.services.cache.QueryResultCache;
 import com.castsoftware.demeter.tags.TagProcessing;
 import com.castsoftware.demeter.utils.DocumentItGenerator;
 import org.neo4j.graphdb.*;
@@ -52,6 +53,7 @@ public class DocumentNode extends Neo4jObject {
 
     // Anchors
     private static final String RETURN_ANCHOR = Configuration.get("tag.anchors.return.return_val");
+    private static final RelationshipType CONTAINS_DOCUMENT = RelationshipType.withName("ContainsDocument");
     private static final String COUNT_RETURN_VAL =
             Configuration.get("tag.anchors.countReturn.return_val");
 
@@ -248,11 +250,25 @@ public class DocumentNode extends Neo4jObject {
      * Execute the Document node and create the associated document on imaging
      *
      * @param applicationLabel
-     * @return <code>List<Node></code> the list of node concerned by the document creation
+     * @return The number of objects linked to the document created
      * @throws Neo4jBadRequestException
      * @throws Neo4jNoResult
      */
-    public List<Node> execute(String applicationLabel)
+    public Long execute(String applicationLabel)
+            throws Neo4jBadRequestException, Neo4jNoResult, Neo4jQueryException {
+        return execute(this.neo4jAL, applicationLabel);
+    }
+
+    /**
+     * Execute the document request in the transaction of another access layer
+     *
+     * @param neo4jAL          Neo4j Access Layer used to run the request
+     * @param applicationLabel Label of the application
+     * @return The number of objects linked to the document created
+     * @throws Neo4jBadRequestException
+     * @throws Neo4jNoResult
+     */
+    public Long execute(Neo4jAL neo4jAL, String applicationLabel)
             throws Neo4jBadRequestException, Neo4jNoResult, Neo4jQueryException {
         if (this.getNode() == null)
             throw new Neo4jBadRequestException(
@@ -267,18 +283,14 @@ public class DocumentNode extends Neo4jObject {
 
             Result res = neo4jAL.executeQuery(forgedReq);
 
-            List<Node> toDocNode = new ArrayList<>();
-            while (res.hasNext()) {
-                try {
-                    Node n = (Node) res.next().get(RETURN_ANCHOR);
-                    toDocNode.add(n);
-                } catch (Exception ignored) {
-                    // Ignored
-                }
+            // The result is consumed while the document is built
+            Node document;
+            try (ResourceIterator<Object> toDocNode = res.columnAs(RETURN_ANCHOR)) {
+                document =
+                        DocumentItGenerator.create(
+                                neo4jAL, applicationLabel, title, description, toDocNode, new String[0]);
             }
-
-            DocumentItGenerator.create(neo4jAL, applicationLabel, title, description, toDocNode);
-            return toDocNode;
+            return (long) document.getDegree(CONTAINS_DOCUMENT, Direction.INCOMING);
 
         } catch (Neo4jQueryException | NullPointerException | Neo4JTemplateLanguageException e) {
             neo4jAL.logError("Cannot execute : " + forgedReq, e);
@@ -305,6 +317,10 @@ public class DocumentNode extends Neo4jObject {
             String forgedReq = TagProcessing.processApplicationContext(this.request, applicationLabel);
             forgedReq = TagProcessing.forgeCountRequest(forgedReq);
 
+            QueryResultCache.Key key = QueryResultCache.key(neo4jAL, applicationLabel, forgedReq, null);
+            Long cached = QueryResultCache.get(key, Long.class);
+            if (cached != null) return cached;
+
             Result res = neo4jAL.executeQuery(forgedReq);
 
             Long numAffected = 0L;
@@ -312,6 +328,7 @@ public class DocumentNode extends Neo4jObject {
                 numAffected = (Long) res.next().get(COUNT_RETURN_VAL);
             }
 
+            QueryResultCache.put(neo4jAL, key, numAffected);
             return numAffected;
 
         } catch (Neo4jQueryException | NullPointerException | Neo4JTemplateLanguageException e) {
@@ -26,10 +26,13 @@ import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jNoResult;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.models.Neo4jObject;
+import com.castsoftware.demeter.services.lookup.ApplicationLookupService;
+import com.castsoftware.demeter.services.lookup.PageCursor;
 import org.neo4j.graphdb.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 public class SaveNode extends Neo4jObject {
@@ -94,6 +97,32 @@ public class SaveNode extends Neo4jObject {
         }
     }
 
+    /**
+     * Get a page of the Save nodes present in the database, sorted by id
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @param cursor  Page to get
+     * @return The list of save nodes in the page
+     * @throws Neo4jQueryException If the request failed
+     */
+    public static List<SaveNode> getSaveNodes(Neo4jAL neo4jAL, PageCursor cursor) throws Neo4jQueryException {
+        String req = String.format("MATCH (n:`%s`) WHERE ID(n) > $after " +
+                "RETURN n as node ORDER BY ID(n)%s", LABEL, cursor.getLimitClause());
+        List<SaveNode> returnList = new ArrayList<>();
+
+        Result res = neo4jAL.executeQuery(req, Map.of("after", cursor.getAfterId()));
+        while (res.hasNext()) {
+            Node n = (Node) res.next().get("node");
+            try {
+                returnList.add(fromNode(neo4jAL, n));
+            } catch (Neo4jBadNodeFormatException e) {
+                neo4jAL.logError(String.format("The save node with id [%d] was ignored.", n.getId()), e);
+            }
+        }
+
+        return returnList;
+    }
+
     /**
      * Get all the Save node present in the database.
      *
@@ -121,6 +150,38 @@ public class SaveNode extends Neo4jObject {
         return returnList;
     }
 
+    /**
+     * Get the Save nodes of one application. Only the saves with the application property are read.
+     *
+     * @param neo4jAL     Neo4j Access Layer
+     * @param application Name of the application
+     * @return The list of saves
+     * @throws Neo4jNoResult
+     */
+    public static List<SaveNode> getSaveNodesByApplication(Neo4jAL neo4jAL, String application)
+            throws Neo4jNoResult {
+        List<SaveNode> returnList = new ArrayList<>();
+
+        try (ResourceIterator<Node> it =
+                     ApplicationLookupService.findNodes(
+                             neo4jAL, Label.label(LABEL), APPLICATION_PROPERTY, application)) {
+            while (it.hasNext()) {
+                returnList.add(fromNode(neo4jAL, it.next()));
+            }
+        } catch (NoSuchElementException
+                | NullPointerException
+                | Neo4jBadNodeFormatException
+                | Neo4jQueryException e) {
+            throw new Neo4jNoResult(
+                    LABEL + "nodes retrieving by application name failed",
+                    "findQuery",
+                    e,
+                    ERROR_PREFIX + "GANA2");
+        }
+
+        return returnList;
+    }
+
     public String getName() {
         return name;
     }
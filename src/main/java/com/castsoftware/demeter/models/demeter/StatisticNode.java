@@ -23,6 +23,7 @@ import com.castsoftware.demeter.config.Configuration;
 import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.neo4j.*;
 import com.castsoftware.demeter.models.Neo4jObject;
+import com.castsoftware.demeter.services.cache.QueryResultCache;
 import com.castsoftware.demeter.tags.TagProcessing;
 import org.neo4j.graphdb.*;
 
@@ -77,6 +78,10 @@ public class StatisticNode extends Neo4jObject {
         return REQUEST_PROPERTY;
     }
 
+    public static String getDescriptionProperty() {
+        return DESCRIPTION_PROPERTY;
+    }
+
     public static StatisticNode fromNode(Neo4jAL neo4jAL, Node node)
             throws Neo4jBadNodeFormatException {
 
@@ -189,6 +194,27 @@ public class StatisticNode extends Neo4jObject {
      */
     public String executeStat(String applicationLabel)
             throws Neo4jBadRequestException, Neo4jNoResult, Neo4jQueryException {
+        StringBuilder resultString = new StringBuilder();
+
+        for (String r : executeStat(this.neo4jAL, applicationLabel)) {
+            resultString.append("\t - ").append(r);
+            resultString.append("\n");
+        }
+
+        return resultString.toString();
+    }
+
+    /**
+     * Execute a statistics in the transaction of another access layer, and get the results as a list
+     *
+     * @param neo4jAL          Neo4j Access Layer used to run the request
+     * @param applicationLabel Application concerned by the statistics
+     * @return The values returned by the statistic
+     * @throws Neo4jBadRequestException
+     * @throws Neo4jNoResult
+     */
+    public List<String> executeStat(Neo4jAL neo4jAL, String applicationLabel)
+            throws Neo4jBadRequestException, Neo4jNoResult, Neo4jQueryException {
         if (this.getNode() == null)
             throw new Neo4jBadRequestException(
                     "Cannot execute this action. Associated node does not exist.", ERROR_PREFIX + "EXEC1");
@@ -197,18 +223,23 @@ public class StatisticNode extends Neo4jObject {
             String forgedReq = TagProcessing.processApplicationContext(this.request, applicationLabel);
             forgedReq = TagProcessing.processAll(forgedReq);
 
+            QueryResultCache.Key key = QueryResultCache.key(neo4jAL, applicationLabel, forgedReq, null);
+            @SuppressWarnings("unchecked")
+            List<String> cached = QueryResultCache.get(key, List.class);
+            if (cached != null) return cached;
+
             neo4jAL.logInfo("Processing statistic request : " + forgedReq);
 
             Result res = neo4jAL.executeQuery(forgedReq);
 
-            StringBuilder resultString = new StringBuilder();
-
+            List<String> results = new ArrayList<>();
             while (res.hasNext()) {
-                resultString.append("\t - " + res.next().get(STAT_RETURN_STRING));
-                resultString.append("\n");
+                results.add(String.valueOf(res.next().get(STAT_RETURN_STRING)));
             }
 
-            return resultString.toString();
+            results = List.copyOf(results);
+            QueryResultCache.put(neo4jAL, key, results);
+            return results;
 
         } catch (Neo4jQueryException | Neo4JTemplateLanguageException | Exception e) {
             neo4jAL.logError(
@@ -23,6 +23,8 @@ import com.castsoftware.demeter.config.Configuration;
 import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.neo4j.*;
 import com.castsoftware.demeter.models.Neo4jObject;
+import com.castsoftware.demeter.services.cache.QueryResultCache;
+import com.castsoftware.demeter.services.tags.TagCostService;
 import com.castsoftware.demeter.tags.TagProcessing;
 import org.neo4j.graphdb.*;
 
@@ -42,6 +44,13 @@ public class TagNode extends Neo4jObject {
             Configuration.get("neo4j.nodes.t_tag_node.categories");
     private static final String IGNORE_PREFIX_PROPERTY =
             Configuration.get("neo4j.nodes.t_tag_node.ignore_prefix");
+    private static final String ESTIMATED_ROWS_PROPERTY =
+            Configuration.get("neo4j.nodes.t_tag_node.estimated_rows");
+    private static final String DB_HITS_PROPERTY = Configuration.get("neo4j.nodes.t_tag_node.db_hits");
+    private static final String COST_WARNINGS_PROPERTY =
+            Configuration.get("neo4j.nodes.t_tag_node.cost_warnings");
+    private static final String COST_FLAGGED_PROPERTY =
+            Configuration.get("neo4j.nodes.t_tag_node.cost_flagged");
     private static final String ERROR_PREFIX =
             Configuration.get("neo4j.nodes.t_tag_node.error_prefix");
     private static final String USECASE_TO_TAG_REL =
@@ -102,6 +111,10 @@ public class TagNode extends Neo4jObject {
         return REQUEST_PROPERTY;
     }
 
+    public static String getDescriptionProperty() {
+        return DESCRIPTION_PROPERTY;
+    }
+
     public static String getIgnorePrefixProperty() {
         return IGNORE_PREFIX_PROPERTY;
     }
@@ -110,6 +123,22 @@ public class TagNode extends Neo4jObject {
         return CATEGORIES_PROPERTY;
     }
 
+    public static String getEstimatedRowsProperty() {
+        return ESTIMATED_ROWS_PROPERTY;
+    }
+
+    public static String getDbHitsProperty() {
+        return DB_HITS_PROPERTY;
+    }
+
+    public static String getCostWarningsProperty() {
+        return COST_WARNINGS_PROPERTY;
+    }
+
+    public static String getCostFlaggedProperty() {
+        return COST_FLAGGED_PROPERTY;
+    }
+
     /**
      * Create a TagRequestNode Node object from a neo4j node
      *
@@ -246,6 +275,63 @@ public class TagNode extends Neo4jObject {
      */
     public List<Node> executeRequest(String applicationLabel)
             throws Neo4jBadRequestException, Neo4jNoResult, Neo4jQueryException {
+        return executeRequest(this.neo4jAL, applicationLabel);
+    }
+
+    /**
+     * Execute the request of the tag in the transaction of another access layer
+     *
+     * @param neo4jAL          Neo4j Access Layer used to run the request
+     * @param applicationLabel The application that will be flagged by the request.
+     * @return The list of tagged node
+     * @throws Neo4jBadRequestException
+     * @throws Neo4jNoResult
+     */
+    public List<Node> executeRequest(Neo4jAL neo4jAL, String applicationLabel)
+            throws Neo4jBadRequestException, Neo4jNoResult, Neo4jQueryException {
+        List<Node> nodeList = new ArrayList<>();
+        try (ResourceIterator<Object> it = runRequest(neo4jAL, applicationLabel)) {
+            while (it.hasNext()) {
+                nodeList.add((Node) it.next());
+            }
+        }
+        return nodeList;
+    }
+
+    /**
+     * Execute the request of the tag in the transaction of another access layer, and count the nodes
+     * tagged without keeping them in memory
+     *
+     * @param neo4jAL          Neo4j Access Layer used to run the request
+     * @param applicationLabel The application that will be flagged by the request.
+     * @return The number of tagged nodes
+     * @throws Neo4jBadRequestException
+     * @throws Neo4jNoResult
+     */
+    public Long countRequest(Neo4jAL neo4jAL, String applicationLabel)
+            throws Neo4jBadRequestException, Neo4jNoResult, Neo4jQueryException {
+        long count = 0L;
+        try (ResourceIterator<Object> it = runRequest(neo4jAL, applicationLabel)) {
+            while (it.hasNext()) {
+                it.next();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Forge the request of the tag for an application and execute it
+     *
+     * @param neo4jAL          Neo4j Access Layer used to run the request
+     * @param applicationLabel The application that will be flagged by the request.
+     * @return An iterator on the tagged nodes, to close once consumed
+     * @throws Neo4jBadRequestException If the node doesn't exist or if the request failed
+     * @throws Neo4jNoResult            If the node of the tag cannot be found
+     * @throws Neo4jQueryException      If the node of the tag cannot be retrieved
+     */
+    private ResourceIterator<Object> runRequest(Neo4jAL neo4jAL, String applicationLabel)
+            throws Neo4jBadRequestException, Neo4jNoResult, Neo4jQueryException {
         if (this.getNode() == null)
             throw new Neo4jBadRequestException(
                     "Cannot execute this action. Associated node does not exist.", ERROR_PREFIX + "EXEC1");
@@ -265,15 +351,7 @@ public class TagNode extends Neo4jObject {
             String forgedReq = TagProcessing.processApplicationContext(this.request, applicationLabel);
             forgedReq = TagProcessing.processAll(forgedReq);
 
-            List<Node> nodeList = new ArrayList<>();
-            Result res = neo4jAL.executeQuery(forgedReq, params);
-
-            while (res.hasNext()) {
-                Node n = (Node) res.next().get(RETURN_ANCHOR);
-                nodeList.add(n);
-            }
-
-            return nodeList;
+            return neo4jAL.executeQuery(forgedReq, params).columnAs(RETURN_ANCHOR);
         } catch (Neo4jQueryException | NullPointerException | Neo4JTemplateLanguageException e) {
             throw new Neo4jBadRequestException(
                     "The request failed to execute.", this.request, e, ERROR_PREFIX + "EXEC2");
@@ -302,6 +380,10 @@ public class TagNode extends Neo4jObject {
             String forgedReq = TagProcessing.processApplicationContext(this.request, applicationLabel);
             forgedReq = TagProcessing.forgeCountRequest(forgedReq);
 
+            QueryResultCache.Key key = QueryResultCache.key(neo4jAL, applicationLabel, forgedReq, params);
+            Long cached = QueryResultCache.get(key, Long.class);
+            if (cached != null) return cached;
+
             Result res = neo4jAL.executeQuery(forgedReq, params);
 
             Long numAffected = 0L;
@@ -309,6 +391,7 @@ public class TagNode extends Neo4jObject {
                 numAffected = (Long) res.next().get(COUNT_RETURN_VAL);
             }
 
+            QueryResultCache.put(neo4jAL, key, numAffected);
             return numAffected;
 
         } catch (Neo4jQueryException | NullPointerException | Neo4JTemplateLanguageException e) {
@@ -341,7 +424,7 @@ public class TagNode extends Neo4jObject {
 
     /**
      * Test a query using "EXPLAIN" keyword in Neo4j. This function do not execute the query, but will
-     * produce an error if it's incorrect.
+     * produce an error if it's incorrect. The cost estimated by the planner is saved on the node.
      *
      * @param applicationLabel The application that will be flagged by the request.
      * @return <code>Boolean</code> True if the request is valid, false otherwise.
@@ -362,10 +445,10 @@ public class TagNode extends Neo4jObject {
         String req = this.request.replace(LABEL_ANCHOR, applicationLabel);
         String forgedReq = "EXPLAIN " + req.replaceAll("(^\\s\")|(\\s\"\\s?$)", "");
 
+        TagCostService.TagCost cost;
         try (Transaction tx = neo4jAL.getDb().beginTx()) {
-
-            tx.execute(forgedReq, params);
-            return true;
+            Result res = tx.execute(forgedReq, params);
+            cost = TagCostService.fromPlan(res.getExecutionPlanDescription());
         } catch (QueryExecutionException e) {
             String m =
                     String.format(
@@ -374,5 +457,15 @@ public class TagNode extends Neo4jObject {
             neo4jAL.getLogger().warn(m);
             return false;
         }
+
+        // Keep the estimated cost of the request on the node
+        TagCostService.store(this.getNode(), cost);
+        if (cost.isOverBudget()) {
+            neo4jAL.getLogger().warn(
+                    String.format(
+                            "The tag \"%s\" exceeds the cost budget ( %s ).",
+                            this.getTag(), cost.describe()));
+        }
+        return true;
     }
 }
@@ -28,6 +28,7 @@ import com.castsoftware.demeter.exceptions.neo4j.Neo4jNoResult;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.models.BackupNode;
 import com.castsoftware.demeter.models.Neo4jObject;
+import com.castsoftware.demeter.services.lookup.ApplicationLookupService;
 import com.castsoftware.demeter.utils.configuration.LevelGroupingConfiguration;
 import org.neo4j.graphdb.*;
 
@@ -221,30 +222,73 @@ public class Level5Node extends Neo4jObject {
      */
     public static List<Level5Node> getAllNodesByApplication(Neo4jAL neo4jAL, String applicationName)
             throws Neo4jNoResult {
-        Label label = Label.label(LABEL);
-        Label applicationLabel = Label.label(applicationName);
-
         List<Level5Node> returnList = new ArrayList<>();
-        Node n;
-        for (ResourceIterator<Node> it = neo4jAL.getTransaction().findNodes(label); it.hasNext(); ) {
-            try {
-                // Check if the level node has the label of the application
-                n = it.next();
-                if (n.hasLabel(applicationLabel)) {
-                    returnList.add(fromNode(neo4jAL, n));
-                }
-            } catch (NoSuchElementException | NullPointerException | Neo4jBadNodeFormatException e) {
-                throw new Neo4jNoResult(
-                        LABEL + "nodes retrieving by application name failed",
-                        "findQuery",
-                        e,
-                        ERROR_PREFIX + "GANA1");
+
+        try (ResourceIterator<Level5Node> it = iterateNodesByApplication(neo4jAL, applicationName)) {
+            while (it.hasNext()) {
+                returnList.add(it.next());
             }
+        } catch (NoSuchElementException
+                | NullPointerException
+                | NotFoundException
+                | Neo4jQueryException e) {
+            throw new Neo4jNoResult(
+                    LABEL + "nodes retrieving by application name failed",
+                    "findQuery",
+                    e,
+                    ERROR_PREFIX + "GANA1");
         }
 
         return returnList;
     }
 
+    /**
+     * Iterate lazily over the Level5Node nodes present in one application. The iterator must be
+     * closed once consumed.
+     *
+     * @param neo4jAL         Neo4j Access Layer
+     * @param applicationName Application name
+     * @return An iterator on the levels. A malformed level raises a NotFoundException on its turn.
+     * @throws Neo4jQueryException If the scan failed
+     */
+    public static ResourceIterator<Level5Node> iterateNodesByApplication(
+            Neo4jAL neo4jAL, String applicationName) throws Neo4jQueryException {
+        ResourceIterator<Node> nodes =
+                ApplicationLookupService.findNodes(neo4jAL, Label.label(LABEL), applicationName);
+        return new LevelIterator(neo4jAL, nodes);
+    }
+
+    private static class LevelIterator implements ResourceIterator<Level5Node> {
+        private final Neo4jAL neo4jAL;
+        private final ResourceIterator<Node> source;
+
+        private LevelIterator(Neo4jAL neo4jAL, ResourceIterator<Node> source) {
+            this.neo4jAL = neo4jAL;
+            this.source = source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return source.hasNext();
+        }
+
+        @Override
+        public Level5Node next() {
+            Node node = source.next();
+            try {
+                return fromNode(neo4jAL, node);
+            } catch (Neo4jBadNodeFormatException e) {
+                throw new NotFoundException(
+                        String.format("The %s node with id '%d' is malformed.", LABEL, node.getId()), e);
+            }
+        }
+
+        @Override
+        public void close() {
+            source.close();
+        }
+    }
+
     // Getters
     public String getName() {
         return name;
@@ -49,7 +49,7 @@ public class GroupingProcedures {
     @Context
     public Log log;
 
-    @Procedure(value = "demeter.api.get.prefix.level", mode = Mode.WRITE)
+    @Procedure(value = "demeter.api.get.prefix.level", mode = Mode.READ)
     @Description(
             "demeter.api.get.prefix.level() - Get the prefix of the level grouping")
     public Stream<OutputMessage> getLevelPrefix() throws ProcedureException {
@@ -77,7 +77,7 @@ public class GroupingProcedures {
         }
     }
 
-    @Procedure(value = "demeter.api.get.prefix.module", mode = Mode.WRITE)
+    @Procedure(value = "demeter.api.get.prefix.module", mode = Mode.READ)
     @Description(
             "demeter.api.get.prefix.module() - Get the prefix of the module grouping")
     public Stream<OutputMessage> getModulePrefix() throws ProcedureException {
@@ -105,7 +105,7 @@ public class GroupingProcedures {
         }
     }
 
-    @Procedure(value = "demeter.api.get.prefix.architecture", mode = Mode.WRITE)
+    @Procedure(value = "demeter.api.get.prefix.architecture", mode = Mode.READ)
     @Description(
             "demeter.api.get.prefix.architecture() - Get the prefix of the architecture grouping")
     public Stream<OutputMessage> getArchiPrefix() throws ProcedureException {
@@ -134,18 +134,14 @@ public class GroupingProcedures {
     }
 
 
-    @Procedure(value = "demeter.api.get.candidate.modules", mode = Mode.WRITE)
+    @Procedure(value = "demeter.api.get.candidate.modules", mode = Mode.READ)
     @Description(
-            "demeter.api.get.candidate.modules(Optional String application) - Get the candidates for the module grouping")
-    public Stream<CandidateFindingResult> getCandidateModuleGrouping(@Name(value = "Application", defaultValue = "") String application) throws ProcedureException {
+            "demeter.api.get.candidate.modules(Optional String application, Optional Long limit, Optional String cursor) - Get the candidates for the module grouping, by pages. A page holds at least Limit rows unless it is the last one, the rows of an application are never split")
+    public Stream<CandidateFindingResult> getCandidateModuleGrouping(@Name(value = "Application", defaultValue = "") String application, @Name(value = "Limit", defaultValue = "0") Long limit, @Name(value = "Cursor", defaultValue = "") String cursor) throws ProcedureException {
         try {
             Neo4jAL neo4jAL = new Neo4jAL(db, transaction, log);
-            List<CandidateFindingResult> candidates;
-            if (application.isEmpty()) {
-                candidates = GroupingController.getCandidateApplicationsModuleGroup(neo4jAL);
-            } else {
-                candidates = GroupingController.getCandidateApplicationsModuleGroup(neo4jAL, application);
-            }
+            List<CandidateFindingResult> candidates =
+                    GroupingController.getCandidateApplicationsModuleGroup(neo4jAL, application, limit, cursor);
             return candidates.stream();
         } catch (Exception | Neo4jQueryException | Neo4jConnectionError e) {
             ProcedureException ex = new ProcedureException(e);
@@ -155,7 +151,7 @@ public class GroupingProcedures {
     }
 
 
-    @Procedure(value = "demeter.api.get.demeter.modules", mode = Mode.WRITE)
+    @Procedure(value = "demeter.api.get.demeter.modules", mode = Mode.READ)
     @Description(
             "demeter.api.get.demeter.modules(String application) - Get the levels grouped by demeter in one application")
     public Stream<DemeterGroupResult> getDemeterModules(@Name(value = "Application") String application) throws ProcedureException {
@@ -28,6 +28,10 @@ import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.models.backup.MasterSaveNode;
 import com.castsoftware.demeter.results.OutputMessage;
 import com.castsoftware.demeter.results.backup.MasterSaveResult;
+import com.castsoftware.demeter.results.backup.PictureChunkResult;
+import com.castsoftware.demeter.services.backup.MasterSaveNodeService;
+import com.castsoftware.demeter.services.backup.PictureService;
+import com.castsoftware.demeter.services.lookup.PageCursor;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.logging.Log;
@@ -35,6 +39,7 @@ import org.neo4j.procedure.*;
 
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 public class NewBackupProcedure {
@@ -114,18 +119,21 @@ public class NewBackupProcedure {
         }
     }
 
-    @Procedure(value = "demeter.backup.get.list", mode = Mode.WRITE)
+    @Procedure(value = "demeter.backup.get.list", mode = Mode.READ)
     @Description(
-            "demeter.backup.get.list(String application) - Get the list of all saves in one application")
+            "demeter.backup.get.list(String application, Optional Long limit, Optional String cursor) - Get the list of all saves in one application")
     public Stream<MasterSaveResult> getSaves(
-            @Name(value = "Application", defaultValue = "") String application)
+            @Name(value = "Application", defaultValue = "") String application,
+            @Name(value = "Limit", defaultValue = "0") Long limit,
+            @Name(value = "Cursor", defaultValue = "") String cursor)
             throws ProcedureException {
         try {
             Neo4jAL neo4jAL = new Neo4jAL(db, transaction, log);
+            PageCursor page = PageCursor.of(MasterSaveNodeService.PAGE_LIST, limit, cursor);
 
             NewBackupController controller = new NewBackupController(neo4jAL, application);
-            List<MasterSaveNode> saves = controller.getListSave();
-            return saves.stream().map(MasterSaveResult::new);
+            List<MasterSaveNode> saves = controller.getListSave(page);
+            return saves.stream().map(s -> new MasterSaveResult(s, page.next(s.getId())));
         } catch (Exception | Neo4jConnectionError e) {
             ProcedureException ex = new ProcedureException(e);
             log.error("Failed to get the list of application's saves...", e);
@@ -133,6 +141,46 @@ public class NewBackupProcedure {
         }
     }
 
+    @Procedure(value = "demeter.backup.get.picture", mode = Mode.READ)
+    @Description(
+            "demeter.backup.get.picture(String application, Long id) - Get the picture of a save, by chunks")
+    public Stream<PictureChunkResult> getPicture(
+            @Name(value = "Application") String application,
+            @Name(value = "Id") Long id)
+            throws ProcedureException {
+        try {
+            // Check arguments
+            if (application == null || application.isBlank())
+                throw new Exception("The 'Application' parameter must not be empty.");
+
+            Neo4jAL neo4jAL = new Neo4jAL(db, transaction, log);
+
+            NewBackupController controller = new NewBackupController(neo4jAL, application);
+            AtomicLong index = new AtomicLong(0L);
+            return controller.getPicture(id).map(c -> new PictureChunkResult(index.getAndIncrement(), c));
+        } catch (Exception | Neo4jConnectionError | Neo4jBadNodeFormatException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("Failed to get the picture of a save...", e);
+            throw ex;
+        }
+    }
+
+    @Procedure(value = "demeter.backup.sweep.pictures", mode = Mode.WRITE)
+    @Description(
+            "demeter.backup.sweep.pictures() - Remove the pictures no save references anymore from the store of the database. "
+                    + "Only the files older than demeter.blob.sweep.grace_period are removed")
+    public Stream<OutputMessage> sweepPictures() throws ProcedureException {
+        try {
+            Neo4jAL neo4jAL = new Neo4jAL(db, transaction, log);
+            long removed = PictureService.sweep(neo4jAL);
+            return Stream.of(new OutputMessage(String.format("%d pictures were removed from the store.", removed)));
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("Failed to sweep the pictures of the saves...", e);
+            throw ex;
+        }
+    }
+
     @Procedure(value = "demeter.backup.delete", mode = Mode.WRITE)
     @Description(
             "demeter.backup.delete(String application, Long id) - Delete a backup from the database")
@@ -158,7 +206,7 @@ public class NewBackupProcedure {
         }
     }
 
-    @Procedure(value = "demeter.backup.download", mode = Mode.WRITE)
+    @Procedure(value = "demeter.backup.download", mode = Mode.READ)
     @Description(
             "demeter.backup.download(String application, String path) - Download the complete schema of an application")
     public Stream<OutputMessage> download(
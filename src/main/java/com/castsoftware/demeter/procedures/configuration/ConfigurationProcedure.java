@@ -23,6 +23,8 @@ import com.castsoftware.demeter.controllers.configuration.ConfigurationControlle
 import com.castsoftware.demeter.controllers.configuration.TagController;
 import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.ProcedureException;
+import com.castsoftware.demeter.exceptions.file.FileIOException;
+import com.castsoftware.demeter.exceptions.file.MissingFileException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jConnectionError;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jNoResult;
@@ -30,6 +32,8 @@ import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.models.demeter.TagNode;
 import com.castsoftware.demeter.results.NodeResult;
 import com.castsoftware.demeter.results.OutputMessage;
+import com.castsoftware.demeter.results.demeter.ImportRowResult;
+import com.castsoftware.demeter.services.configuration.ConfigurationImportService;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Transaction;
@@ -69,7 +73,7 @@ public class ConfigurationProcedure {
         }
     }
 
-    @Procedure(value = "demeter.forecast", mode = Mode.WRITE)
+    @Procedure(value = "demeter.forecast", mode = Mode.READ)
     @Description("demeter.forecast() - Get the number of request that will be executed")
     public Stream<OutputMessage> forecast(@Name(value = "Configuration") String configurationName)
             throws ProcedureException {
@@ -128,4 +132,30 @@ public class ConfigurationProcedure {
             throw ex;
         }
     }
+
+    @Procedure(value = "demeter.config.import", mode = Mode.WRITE)
+    @Description(
+            "demeter.config.import(String path) - Import a CSV catalogue of use cases, tags, statistics and documents. Relative paths are resolved in the workspace.")
+    public Stream<ImportRowResult> importCatalogue(@Name(value = "Path") String path)
+            throws ProcedureException {
+        try {
+            if (path == null || path.isBlank())
+                throw new Exception("The 'Path' parameter must not be empty.");
+
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+
+            return ConfigurationImportService.importCatalogue(
+                            nal, ConfigurationImportService.resolvePath(path))
+                    .stream()
+                    .map(ImportRowResult::new);
+        } catch (Exception
+                | Neo4jConnectionError
+                | Neo4jQueryException
+                | MissingFileException
+                | FileIOException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while importing the catalogue", e);
+            throw ex;
+        }
+    }
 }
@@ -93,7 +93,7 @@ public class StatisticsProcedure {
         }
     }
 
-    @Procedure(value = "demeter.statistics.getAsList", mode = Mode.WRITE)
+    @Procedure(value = "demeter.statistics.getAsList", mode = Mode.READ)
     @Description(
             "demeter.statistics.getAsList( String ConfigurationName, String Application ) - Get the result of Statistics as a list.")
     public Stream<StatisticResult> getStatisticsAsList(
@@ -26,7 +26,10 @@ import com.castsoftware.demeter.exceptions.neo4j.*;
 import com.castsoftware.demeter.models.demeter.TagNode;
 import com.castsoftware.demeter.results.BooleanResult;
 import com.castsoftware.demeter.results.NodeResult;
+import com.castsoftware.demeter.results.demeter.ApproximateTagResult;
+import com.castsoftware.demeter.results.demeter.TagCostResult;
 import com.castsoftware.demeter.results.demeter.TagResult;
+import com.castsoftware.demeter.services.tags.TagForecastService;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Transaction;
@@ -84,7 +87,7 @@ public class TagProcedure {
         }
     }
 
-    @Procedure(value = "demeter.tag.getAsList", mode = Mode.WRITE)
+    @Procedure(value = "demeter.tag.getAsList", mode = Mode.READ)
     @Description(
             "demeter.tag.getAsList( String ConfigurationName, String ApplicationName ) - Get the result of the Tag on a specific application as a List.")
     public Stream<TagResult> getTagResultsAsList(
@@ -109,6 +112,40 @@ public class TagProcedure {
         }
     }
 
+    @Procedure(value = "demeter.tag.getAsList.approximate", mode = Mode.READ)
+    @Description(
+            "demeter.tag.getAsList.approximate( String ConfigurationName, String ApplicationName, Optional String Mode, Optional Long SampleSize, Optional Long Cap ) - Get an estimate of the result of the Tags on a specific application. Mode : 'auto', 'sample' or 'cap'.")
+    public Stream<ApproximateTagResult> getTagResultsApproximate(
+            @Name(value = "ConfigurationName") String configurationName,
+            @Name(value = "ApplicationName") String applicationName,
+            @Name(value = "Mode", defaultValue = "auto") String mode,
+            @Name(value = "SampleSize", defaultValue = "0") Long sampleSize,
+            @Name(value = "Cap", defaultValue = "0") Long cap)
+            throws ProcedureException {
+
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+
+            List<ApproximateTagResult> resultList =
+                    TagController.forecastTagApproximate(
+                            nal,
+                            configurationName,
+                            applicationName,
+                            TagForecastService.Mode.fromName(mode),
+                            sampleSize == null ? 0L : sampleSize,
+                            cap == null ? 0L : cap);
+            return resultList.stream();
+        } catch (Exception
+                | Neo4jConnectionError
+                | Neo4jQueryException
+                | Neo4jBadRequestException
+                | Neo4jNoResult e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
     @Procedure(value = "demeter.tag.execute", mode = Mode.WRITE)
     @Description(
             "demeter.tag.execute( Long id, String ApplicationName ) - Get the result of the Tag on a specific application as a List.")
@@ -146,4 +183,19 @@ public class TagProcedure {
             throw ex;
         }
     }
+
+    @Procedure(value = "demeter.tag.estimateCost", mode = Mode.WRITE)
+    @Description(
+            "demeter.tag.estimateCost( String queryToValidate ) - Return the cost estimated by the planner for the request, and compare it to the budget.")
+    public Stream<TagCostResult> estimateCost(@Name(value = "Request") String request)
+            throws ProcedureException {
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            return Stream.of(new TagCostResult(TagController.estimateQuery(nal, request).orElse(null)));
+        } catch (Exception | Neo4jConnectionError e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
 }
@@ -30,6 +30,7 @@ import com.castsoftware.demeter.models.demeter.UseCaseNode;
 import com.castsoftware.demeter.results.NodeResult;
 import com.castsoftware.demeter.results.OutputMessage;
 import com.castsoftware.demeter.results.UseCasesMessage;
+import com.castsoftware.demeter.services.lookup.PageCursor;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Transaction;
@@ -84,18 +85,21 @@ public class UseCaseProcedure {
         }
     }
 
-    @Procedure(value = "demeter.useCases.list", mode = Mode.WRITE)
-    @Description("demeter.useCases.list() - List all the use cases present.")
-    public Stream<UseCasesMessage> listUseCaseNodes() throws ProcedureException {
+    @Procedure(value = "demeter.useCases.list", mode = Mode.READ)
+    @Description("demeter.useCases.list(Optional Long limit, Optional String cursor) - List all the use cases present.")
+    public Stream<UseCasesMessage> listUseCaseNodes(
+            @Name(value = "Limit", defaultValue = "0") Long limit,
+            @Name(value = "Cursor", defaultValue = "") String cursor) throws ProcedureException {
 
         try {
             Neo4jAL nal = new Neo4jAL(db, transaction, log);
             nal.logInfo("Starting Use Case Listing..");
+            PageCursor page = PageCursor.of(UseCaseController.PAGE_LIST, limit, cursor);
 
-            List<UseCaseNode> useCases = UseCaseController.listUseCases(nal);
+            List<UseCaseNode> useCases = UseCaseController.listUseCases(nal, page);
             List<UseCasesMessage> messages = new ArrayList<>();
             for (UseCaseNode useCase : useCases) {
-                messages.add(new UseCasesMessage(useCase));
+                messages.add(new UseCasesMessage(useCase, page.next(useCase.getNodeId())));
             }
 
             return messages.stream();
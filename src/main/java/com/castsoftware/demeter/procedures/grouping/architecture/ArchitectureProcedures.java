@@ -27,9 +27,12 @@ import com.castsoftware.demeter.exceptions.ProcedureException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jConnectionError;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.results.CompactNodeResult;
 import com.castsoftware.demeter.results.LongResult;
 import com.castsoftware.demeter.results.NodeResult;
 import com.castsoftware.demeter.results.OutputMessage;
+import com.castsoftware.demeter.results.demeter.GroupingSummaryResult;
+import com.castsoftware.demeter.services.grouping.GroupingType;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Transaction;
@@ -71,6 +74,23 @@ public class ArchitectureProcedures {
         }
     }
 
+    @Procedure(value = "demeter.group.architectures.compact", mode = Mode.WRITE)
+    @Description(
+            "demeter.group.architectures.compact(String applicationName, Boolean Summary) - Group the architectures following Demeter tags applied. Return the id, name and size of the groups instead of the nodes, or one summary row")
+    public Stream<CompactNodeResult> groupArchitecturesCompact(@Name(value = "ApplicationName") String applicationName, @Name(value = "Summary", defaultValue = "false") Boolean summary)
+            throws ProcedureException {
+
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            return GroupingUtilsController.groupCompact(nal, GroupingType.ARCHITECTURE, applicationName, summary);
+
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException | Neo4jBadRequestException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
     @Procedure(value = "demeter.create.architecture", mode = Mode.WRITE)
     @Description(
             "demeter.create.architecture(String applicationName, String architectureName, List<Long> IdList) " +
@@ -134,7 +154,7 @@ public class ArchitectureProcedures {
         }
     }
 
-    @Procedure(value = "demeter.get.architecture.hidden.label", mode = Mode.WRITE)
+    @Procedure(value = "demeter.get.architecture.hidden.label", mode = Mode.READ)
     @Description(
             "demeter.get.architecture.hidden.label() - Get the hidden label of the architectures")
     public Stream<OutputMessage> getHiddenLabelArchitectures()
@@ -150,7 +170,7 @@ public class ArchitectureProcedures {
         }
     }
 
-    @Procedure(value = "demeter.get.subset.hidden.label", mode = Mode.WRITE)
+    @Procedure(value = "demeter.get.subset.hidden.label", mode = Mode.READ)
     @Description(
             "demeter.get.subset.subset.label() - Get the hidden label of the subsets")
     public Stream<OutputMessage> getHiddenLabelSubset()
@@ -284,6 +304,40 @@ public class ArchitectureProcedures {
         }
     }
 
+    @Procedure(value = "demeter.api.group.architectures.views.all.compact", mode = Mode.WRITE)
+    @Description(
+            "demeter.api.group.architectures.views.all.compact(Boolean Summary) - Group all the architectures view. Return the id, name and size of the groups instead of the nodes, or one summary row")
+    public Stream<CompactNodeResult> groupInAllApplicationsCompact(@Name(value = "Summary", defaultValue = "false") Boolean summary)
+            throws ProcedureException {
+
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            return GroupingUtilsController.groupCompact(nal, GroupingType.ARCHITECTURE, null, summary);
+
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException | Neo4jBadRequestException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
+    @Procedure(value = "demeter.api.group.architectures.views.all.parallel", mode = Mode.WRITE)
+    @Description(
+            "demeter.api.group.architectures.views.all.parallel(Long workers) - Group architectures in every applications in parallel, one transaction per application")
+    public Stream<GroupingSummaryResult> groupInAllApplicationsParallel(@Name(value = "Workers", defaultValue = "0") Long workers)
+            throws ProcedureException {
+
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            return Stream.of(GroupingUtilsController.groupAllInParallel(nal, GroupingType.ARCHITECTURE, workers));
+
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
     @Procedure(value = "demeter.api.refresh.architecture", mode = Mode.WRITE)
     @Description(
             "demeter.api.refresh.architecture(String application, String architecture) - Refresh and recalculate the link of one architecture.")
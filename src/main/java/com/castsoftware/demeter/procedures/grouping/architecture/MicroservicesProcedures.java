@@ -70,6 +70,26 @@ public class MicroservicesProcedures {
         }
     }
 
+    @Procedure(value = "demeter.extract.microservice.parallel", mode = Mode.WRITE)
+    @Description(
+            "demeter.extract.microservice.parallel(String applicationName, String prefix) - Extract all the microservices of the application, running the traversals in parallel")
+    public Stream<NodeResult> extractMicroserviceParallel(@Name(value = "ApplicationName") String applicationName, @Name(value = "Prefix") String prefix)
+            throws ProcedureException {
+
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            MicroserviceController mc = new MicroserviceController(nal, applicationName);
+
+            List<Node> nodes = mc.extractMicroserviceParallel(prefix);
+            return nodes.stream().map(NodeResult::new);
+
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException | Neo4jBadRequestException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
     @Procedure(value = "demeter.extract.one.microservice", mode = Mode.WRITE)
     @Description(
             "demeter.extract.one.microservice(String applicationName, String prefix, Long idStart) - Extract a part of the application starting with a node")
@@ -21,15 +21,22 @@ package com.castsoftware.demeter.procedures.grouping.level;
 
 import com.castsoftware.demeter.controllers.api.GroupingController;
 import com.castsoftware.demeter.controllers.grouping.levels.LevelGroupController;
+import com.castsoftware.demeter.controllers.grouping.GroupingUtilsController;
 import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.ProcedureException;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jConnectionError;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.results.CompactNodeResult;
 import com.castsoftware.demeter.results.NodeResult;
 import com.castsoftware.demeter.results.OutputMessage;
 import com.castsoftware.demeter.results.demeter.CandidateFindingResult;
+import com.castsoftware.demeter.results.demeter.CommunityDetectionResult;
 import com.castsoftware.demeter.results.demeter.DemeterGroupResult;
 import com.castsoftware.demeter.utils.LevelsUtils;
+import com.castsoftware.demeter.results.demeter.GroupingSummaryResult;
+import com.castsoftware.demeter.services.community.CommunityDetectionService;
+import com.castsoftware.demeter.services.grouping.GroupingType;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Transaction;
@@ -71,6 +78,23 @@ public class LevelProcedures {
         }
     }
 
+    @Procedure(value = "demeter.group.levels.compact", mode = Mode.WRITE)
+    @Description(
+            "demeter.group.levels.compact(String applicationName, Boolean Summary) - Group the levels following Demeter tags applied. Return the id, name and size of the groups instead of the nodes, or one summary row")
+    public Stream<CompactNodeResult> groupLevelsCompact(@Name(value = "ApplicationName") String applicationName, @Name(value = "Summary", defaultValue = "false") Boolean summary)
+            throws ProcedureException {
+
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            return GroupingUtilsController.groupCompact(nal, GroupingType.LEVEL, applicationName, summary);
+
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException | Neo4jBadRequestException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
     @Procedure(value = "demeter.api.refresh.levels", mode = Mode.WRITE)
     @Description(
             "demeter.api.refresh.levels(String Application) - Refresh all the levels in the application")
@@ -111,6 +135,40 @@ public class LevelProcedures {
         }
     }
 
+    @Procedure(value = "demeter.api.group.levels.all.compact", mode = Mode.WRITE)
+    @Description(
+            "demeter.api.group.levels.all.compact(Boolean Summary) - Group levels in every applications. Return the id, name and size of the groups instead of the nodes, or one summary row")
+    public Stream<CompactNodeResult> groupAllApplicationsCompact(@Name(value = "Summary", defaultValue = "false") Boolean summary)
+            throws ProcedureException {
+
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            return GroupingUtilsController.groupCompact(nal, GroupingType.LEVEL, null, summary);
+
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException | Neo4jBadRequestException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
+    @Procedure(value = "demeter.api.group.levels.all.parallel", mode = Mode.WRITE)
+    @Description(
+            "demeter.api.group.levels.all.parallel(Long workers) - Group levels in every applications in parallel, one transaction per application")
+    public Stream<GroupingSummaryResult> groupAllApplicationsParallel(@Name(value = "Workers", defaultValue = "0") Long workers)
+            throws ProcedureException {
+
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            return Stream.of(new LevelGroupController(nal).groupInAllApplicationsParallel(workers));
+
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
     @Procedure(value = "demeter.api.group.selected.application", mode = Mode.WRITE)
     @Description(
             "demeter.api.group.selected.application(String[] Application) - Group levels in every applications")
@@ -134,19 +192,15 @@ public class LevelProcedures {
 
 
     // Group candidates
-    @Procedure(value = "demeter.api.get.candidate.levels", mode = Mode.WRITE)
+    @Procedure(value = "demeter.api.get.candidate.levels", mode = Mode.READ)
     @Description(
-            "demeter.api.get.candidate.levels(Optional String application) - Get the candidates for the level grouping")
-    public Stream<CandidateFindingResult> getCandidateLevelGrouping(@Name(value = "Application", defaultValue = "") String application) throws ProcedureException {
+            "demeter.api.get.candidate.levels(Optional String application, Optional Long limit, Optional String cursor) - Get the candidates for the level grouping, by pages. A page holds at least Limit rows unless it is the last one, the rows of an application are never split")
+    public Stream<CandidateFindingResult> getCandidateLevelGrouping(@Name(value = "Application", defaultValue = "") String application, @Name(value = "Limit", defaultValue = "0") Long limit, @Name(value = "Cursor", defaultValue = "") String cursor) throws ProcedureException {
         try {
             Neo4jAL neo4jAL = new Neo4jAL(db, transaction, log);
 
-            List<CandidateFindingResult> candidates;
-            if (application.isEmpty()) {
-                candidates = GroupingController.getCandidateApplicationsLevelGroup(neo4jAL);
-            } else {
-                candidates = GroupingController.getCandidateApplicationsLevelGroup(neo4jAL, application);
-            }
+            List<CandidateFindingResult> candidates =
+                    GroupingController.getCandidateApplicationsLevelGroup(neo4jAL, application, limit, cursor);
 
             return candidates.stream();
         } catch (Exception | Neo4jConnectionError | Neo4jQueryException e) {
@@ -157,14 +211,14 @@ public class LevelProcedures {
     }
 
 
-    @Procedure(value = "demeter.api.get.demeter.levels", mode = Mode.WRITE)
+    @Procedure(value = "demeter.api.get.demeter.levels", mode = Mode.READ)
     @Description(
-            "demeter.api.get.demeter.levels(String application) - Get the levels grouped by demeter in one application")
-    public Stream<DemeterGroupResult> getDemeterLevels(@Name(value = "Application") String application) throws ProcedureException {
+            "demeter.api.get.demeter.levels(String application, Optional Long limit, Optional String cursor) - Get the levels grouped by demeter in one application")
+    public Stream<DemeterGroupResult> getDemeterLevels(@Name(value = "Application") String application, @Name(value = "Limit", defaultValue = "0") Long limit, @Name(value = "Cursor", defaultValue = "") String cursor) throws ProcedureException {
         try {
             Neo4jAL neo4jAL = new Neo4jAL(db, transaction, log);
 
-            List<DemeterGroupResult> levels = GroupingController.getDemeterLevels(neo4jAL, application);
+            List<DemeterGroupResult> levels = GroupingController.getDemeterLevels(neo4jAL, application, limit, cursor);
 
             return levels.stream();
         } catch (Exception | Neo4jQueryException | Neo4jConnectionError e) {
@@ -198,4 +252,46 @@ public class LevelProcedures {
             throw ex;
         }
     }
+
+    @Procedure(value = "demeter.community.levels", mode = Mode.WRITE)
+    @Description(
+            "demeter.community.levels(String application, Optional Long maxIterations, Optional Long minSize) - Detect the communities of the call graph and write them as level tags")
+    public Stream<CommunityDetectionResult> detectCommunities(
+            @Name(value = "Application") String application,
+            @Name(value = "MaxIterations", defaultValue = "0") Long maxIterations,
+            @Name(value = "MinSize", defaultValue = "0") Long minSize)
+            throws ProcedureException {
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            CommunityDetectionService.Report report =
+                    CommunityDetectionService.detect(
+                            nal, application, true, maxIterations.intValue(), minSize.intValue());
+            return Stream.of(new CommunityDetectionResult(report));
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
+    @Procedure(value = "demeter.community.levels.preview", mode = Mode.READ)
+    @Description(
+            "demeter.community.levels.preview(String application, Optional Long maxIterations, Optional Long minSize) - Detect the communities of the call graph without writing them")
+    public Stream<CommunityDetectionResult> previewCommunities(
+            @Name(value = "Application") String application,
+            @Name(value = "MaxIterations", defaultValue = "0") Long maxIterations,
+            @Name(value = "MinSize", defaultValue = "0") Long minSize)
+            throws ProcedureException {
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            CommunityDetectionService.Report report =
+                    CommunityDetectionService.detect(
+                            nal, application, false, maxIterations.intValue(), minSize.intValue());
+            return Stream.of(new CommunityDetectionResult(report));
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
 }
@@ -29,8 +29,11 @@ import com.castsoftware.demeter.exceptions.ProcedureException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jConnectionError;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.results.CompactNodeResult;
 import com.castsoftware.demeter.results.NodeResult;
 import com.castsoftware.demeter.results.OutputMessage;
+import com.castsoftware.demeter.results.demeter.GroupingSummaryResult;
+import com.castsoftware.demeter.services.grouping.GroupingType;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Transaction;
@@ -52,7 +55,7 @@ public class ModuleProcedure {
     @Context
     public Log log;
 
-    @Procedure(value = "demeter.module.get.hiddenLabel", mode = Mode.WRITE)
+    @Procedure(value = "demeter.module.get.hiddenLabel", mode = Mode.READ)
     @Description(
             "demeter.module.get.hiddenLabel() - Get the hidden label")
     public Stream<OutputMessage> getHiddenLabel()
@@ -134,6 +137,23 @@ public class ModuleProcedure {
         }
     }
 
+    @Procedure(value = "demeter.group.modules.compact", mode = Mode.WRITE)
+    @Description(
+            "demeter.group.modules.compact(String applicationName, Boolean Summary) - Group the modules following Demeter tags applied. Return the id, name and size of the groups instead of the nodes, or one summary row")
+    public Stream<CompactNodeResult> groupModulesCompact(@Name(value = "ApplicationName") String applicationName, @Name(value = "Summary", defaultValue = "false") Boolean summary)
+            throws ProcedureException {
+
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            return GroupingUtilsController.groupCompact(nal, GroupingType.MODULE, applicationName, summary);
+
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException | Neo4jBadRequestException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
     @Procedure(value = "demeter.api.group.modules.all", mode = Mode.WRITE)
     @Description(
             "demeter.api.group.modules.all() - Group the modules following Demeter tags applied")
@@ -151,4 +171,38 @@ public class ModuleProcedure {
             throw ex;
         }
     }
+
+    @Procedure(value = "demeter.api.group.modules.all.compact", mode = Mode.WRITE)
+    @Description(
+            "demeter.api.group.modules.all.compact(Boolean Summary) - Group the modules following Demeter tags applied in every applications. Return the id, name and size of the groups instead of the nodes, or one summary row")
+    public Stream<CompactNodeResult> groupAllCompact(@Name(value = "Summary", defaultValue = "false") Boolean summary)
+            throws ProcedureException {
+
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            return GroupingUtilsController.groupCompact(nal, GroupingType.MODULE, null, summary);
+
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException | Neo4jBadRequestException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
+    @Procedure(value = "demeter.api.group.modules.all.parallel", mode = Mode.WRITE)
+    @Description(
+            "demeter.api.group.modules.all.parallel(Long workers) - Group modules in every applications in parallel, one transaction per application")
+    public Stream<GroupingSummaryResult> groupAllModulesParallel(@Name(value = "Workers", defaultValue = "0") Long workers)
+            throws ProcedureException {
+
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            return Stream.of(GroupingUtilsController.groupAllInParallel(nal, GroupingType.MODULE, workers));
+
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
 }
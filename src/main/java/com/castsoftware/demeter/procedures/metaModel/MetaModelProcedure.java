@@ -23,12 +23,14 @@ import com.castsoftware.demeter.controllers.configuration.MetaModelController;
 import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.ProcedureException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jConnectionError;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.results.OutputMessage;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.*;
 
+import java.util.List;
 import java.util.stream.Stream;
 
 public class MetaModelProcedure {
@@ -71,15 +73,18 @@ public class MetaModelProcedure {
 
             long start = System.currentTimeMillis();
 
-            MetaModelController.executeMetamodel(nal, applicationContext, metaModelName);
+            List<String> report =
+                    MetaModelController.executeMetamodel(nal, applicationContext, metaModelName);
 
             long end = System.currentTimeMillis();
             long elapsedTime = end - start;
 
-            return Stream.of(
-                    new OutputMessage(
-                            String.format("The metamodel was executed in %d milliseconds.", elapsedTime)));
-        } catch (Exception | Neo4jConnectionError e) {
+            return Stream.concat(
+                    report.stream().map(OutputMessage::new),
+                    Stream.of(
+                            new OutputMessage(
+                                    String.format("The metamodel was executed in %d milliseconds.", elapsedTime))));
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException e) {
             ProcedureException ex = new ProcedureException(e);
             log.error("An error occurred while executing the procedure", e);
             throw ex;
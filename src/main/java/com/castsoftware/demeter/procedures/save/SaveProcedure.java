@@ -29,6 +29,8 @@ import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.results.BooleanResult;
 import com.castsoftware.demeter.results.NodeResult;
 import com.castsoftware.demeter.results.OutputMessage;
+import com.castsoftware.demeter.results.PagedNodeResult;
+import com.castsoftware.demeter.services.lookup.PageCursor;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Transaction;
@@ -71,7 +73,7 @@ public class SaveProcedure {
         }
     }
 
-    @Procedure(value = "demeter.save.getByApplication", mode = Mode.WRITE)
+    @Procedure(value = "demeter.save.getByApplication", mode = Mode.READ)
     @Description(
             "demeter.save.getByApplication(String ApplicationName) - Get all the saves related to a specific application.")
     public Stream<NodeResult> getSaveNodesByApplication(
@@ -95,16 +97,19 @@ public class SaveProcedure {
      * @return
      * @throws ProcedureException
      */
-    @Procedure(value = "demeter.save.getAll", mode = Mode.WRITE)
-    @Description("demeter.save.getAll() - Get all Demeter save present in the database.")
-    public Stream<NodeResult> getAllSaveNodes() throws ProcedureException {
+    @Procedure(value = "demeter.save.getAll", mode = Mode.READ)
+    @Description("demeter.save.getAll(Optional Long limit, Optional String cursor) - Get all Demeter save present in the database.")
+    public Stream<PagedNodeResult> getAllSaveNodes(
+            @Name(value = "Limit", defaultValue = "0") Long limit,
+            @Name(value = "Cursor", defaultValue = "") String cursor) throws ProcedureException {
 
         try {
             Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            PageCursor page = PageCursor.of(StateController.PAGE_LIST, limit, cursor);
 
-            List<Node> nodeList = StateController.getAllSaveNodes(nal);
-            return nodeList.stream().map(NodeResult::new);
-        } catch (Exception | Neo4jConnectionError | Neo4jNoResult e) {
+            List<Node> nodeList = StateController.getSaveNodes(nal, page);
+            return nodeList.stream().map(n -> new PagedNodeResult(n, page.next(n.getId())));
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException e) {
             ProcedureException ex = new ProcedureException(e);
             log.error("An error occurred while executing the procedure", e);
             throw ex;
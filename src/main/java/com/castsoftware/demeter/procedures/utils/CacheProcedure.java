@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.procedures.utils;
+
+import com.castsoftware.demeter.exceptions.ProcedureException;
+import com.castsoftware.demeter.results.demeter.CacheResult;
+import com.castsoftware.demeter.services.cache.QueryResultCache;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.*;
+
+import java.util.stream.Stream;
+
+public class CacheProcedure {
+
+    @Context
+    public Log log;
+
+    @Procedure(value = "demeter.cache.stats", mode = Mode.READ)
+    @Description("demeter.cache.stats() - Get the hit and miss counters of the statistics and forecast cache")
+    public Stream<CacheResult> getStatistics() throws ProcedureException {
+
+        try {
+            return Stream.of(new CacheResult());
+        } catch (Exception e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
+    @Procedure(value = "demeter.cache.clear", mode = Mode.READ)
+    @Description("demeter.cache.clear() - Remove all the entries of the statistics and forecast cache")
+    public Stream<CacheResult> clear() throws ProcedureException {
+
+        try {
+            QueryResultCache.clear();
+            return Stream.of(new CacheResult());
+        } catch (Exception e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
+    @Procedure(value = "demeter.cache.bypass", mode = Mode.READ)
+    @Description(
+            "demeter.cache.bypass(Boolean bypass) - Bypass the statistics and forecast cache, the requests are always executed")
+    public Stream<CacheResult> setBypass(@Name(value = "Bypass") Boolean bypass) throws ProcedureException {
+
+        try {
+            QueryResultCache.setBypass(Boolean.TRUE.equals(bypass));
+            return Stream.of(new CacheResult());
+        } catch (Exception e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+}
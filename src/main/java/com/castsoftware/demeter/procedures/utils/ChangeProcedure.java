@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.procedures.utils;
+
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.ProcedureException;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jConnectionError;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.results.demeter.ChangeResult;
+import com.castsoftware.demeter.services.changes.ChangeJournalService;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.*;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ChangeProcedure {
+
+    @Context
+    public GraphDatabaseService db;
+
+    @Context
+    public Transaction transaction;
+
+    @Context
+    public Log log;
+
+    @Procedure(value = "demeter.changes.since", mode = Mode.READ)
+    @Description(
+            "demeter.changes.since(Long cursor) - Get the applications and the tag prefixes modified since a cursor. "
+                    + "Pass the highest cursor returned to the next call. If the changes since the cursor are no longer "
+                    + "in the journal, the graph is scanned and the results are flagged as not complete.")
+    public Stream<ChangeResult> getChangesSince(@Name(value = "Cursor", defaultValue = "-1") Long cursor)
+            throws ProcedureException {
+
+        try {
+            Neo4jAL nal = new Neo4jAL(db, transaction, log);
+            List<ChangeResult> changes = ChangeJournalService.getChangesSince(nal, cursor);
+            return changes.stream();
+
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+}
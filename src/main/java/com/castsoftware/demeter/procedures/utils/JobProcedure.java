@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.procedures.utils;
+
+import com.castsoftware.demeter.exceptions.ProcedureException;
+import com.castsoftware.demeter.results.demeter.JobResult;
+import com.castsoftware.demeter.services.jobs.Job;
+import com.castsoftware.demeter.services.jobs.JobService;
+import com.castsoftware.demeter.services.jobs.JobType;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.*;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class JobProcedure {
+
+    @Context
+    public GraphDatabaseService db;
+
+    @Context
+    public Log log;
+
+    @Procedure(value = "demeter.jobs.submit", mode = Mode.WRITE)
+    @Description(
+            "demeter.jobs.submit(String type, Map parameters) - Run a LEVELS, MODULES, ARCHITECTURES or BACKUP operation in the background. "
+                    + "Parameters : application ( all the tagged applications if omitted ), and name, description, timestamp, picture for a BACKUP. "
+                    + "If the same work is already queued or running, the existing job is returned. "
+                    + "A job on all the applications and a job on one application of the same type cannot run at the same time.")
+    public Stream<JobResult> submit(
+            @Name(value = "Type") String type,
+            @Name(value = "Parameters", defaultValue = "{}") Map<String, Object> parameters)
+            throws ProcedureException {
+
+        try {
+            Job job = JobService.submit(db, log, JobType.fromName(type), parameters);
+            log.info(String.format("Demeter :: Job %s (%s) submitted.", job.getId(), job.getType().name()));
+            return Stream.of(new JobResult(job));
+
+        } catch (Exception e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
+    @Procedure(value = "demeter.jobs.status", mode = Mode.READ)
+    @Description("demeter.jobs.status(String id) - Get the status and the progress of a job")
+    public Stream<JobResult> status(@Name(value = "Id") String id) throws ProcedureException {
+
+        try {
+            Job job = JobService.getJob(db.databaseName(), id);
+            if (job == null) throw new Exception(String.format("No job with id '%s' was found.", id));
+            return Stream.of(new JobResult(job));
+
+        } catch (Exception e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
+    @Procedure(value = "demeter.jobs.cancel", mode = Mode.WRITE)
+    @Description("demeter.jobs.cancel(String id) - Cancel a job. The application being processed is rolled back.")
+    public Stream<JobResult> cancel(@Name(value = "Id") String id) throws ProcedureException {
+
+        try {
+            Job job = JobService.cancel(db.databaseName(), id);
+            if (job == null) throw new Exception(String.format("No job with id '%s' was found.", id));
+            return Stream.of(new JobResult(job));
+
+        } catch (Exception e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+
+    @Procedure(value = "demeter.jobs.list", mode = Mode.READ)
+    @Description("demeter.jobs.list() - List the jobs of the database, most recent first")
+    public Stream<JobResult> list() throws ProcedureException {
+
+        try {
+            return JobService.getJobs(db.databaseName()).stream().map(JobResult::new);
+
+        } catch (Exception e) {
+            ProcedureException ex = new ProcedureException(e);
+            log.error("An error occurred while executing the procedure", e);
+            throw ex;
+        }
+    }
+}
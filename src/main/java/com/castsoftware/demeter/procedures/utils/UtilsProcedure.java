@@ -102,7 +102,7 @@ public class UtilsProcedure {
         }
     }
 
-    @Procedure(value = "demeter.get.workspace", mode = Mode.WRITE)
+    @Procedure(value = "demeter.get.workspace", mode = Mode.READ)
     @Description("demeter.get.workspace - Get the actual value of the Workspace.")
     public Stream<OutputMessage> getWorkspace()
             throws ProcedureException {
@@ -141,7 +141,7 @@ public class UtilsProcedure {
         }
     }
 
-    @Procedure(value = "demeter.version", mode = Mode.WRITE)
+    @Procedure(value = "demeter.version", mode = Mode.READ)
     @Description("demeter.version() - Get the version of the Extension")
     public Stream<OutputMessage> getVersion() throws ProcedureException {
 
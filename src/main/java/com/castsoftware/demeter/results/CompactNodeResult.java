@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.results;
+
+import com.castsoftware.demeter.config.Configuration;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compact version of a NodeResult : id, name and number of nodes grouped, without the properties of
+ * the node. The summary row aggregates all the nodes and has no id nor name.
+ */
+public class CompactNodeResult {
+
+    private static final String NAME_PROPERTY = Configuration.get("imaging.node.level.name");
+    private static final RelationshipType AGGREGATES =
+            RelationshipType.withName(Configuration.get("imaging.node.level_nodes.links"));
+    private static final RelationshipType CONTAINS =
+            RelationshipType.withName(Configuration.get("imaging.node.module.links.to_objects"));
+
+    public Long id;
+    public String name;
+    public Long numNodes;
+    public Long count;
+    public Long elapsed;
+
+    public CompactNodeResult(Long id, String name, Long numNodes, Long count, Long elapsed) {
+        this.id = id;
+        this.name = name;
+        this.numNodes = numNodes;
+        this.count = count;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Get the compact result of a group node. The count is the number of Aggregates and Contains
+     * relationships leaving the node, read from the degree of the node.
+     *
+     * @param node    Group node
+     * @param elapsed Duration of the operation in milliseconds
+     * @return The compact result
+     */
+    public static CompactNodeResult fromNode(Node node, long elapsed) {
+        long count =
+                node.getDegree(AGGREGATES, Direction.OUTGOING) + node.getDegree(CONTAINS, Direction.OUTGOING);
+        return new CompactNodeResult(
+                node.getId(), (String) node.getProperty(NAME_PROPERTY, null), 1L, count, elapsed);
+    }
+
+    /**
+     * Convert the nodes returned by a procedure
+     *
+     * @param nodes   Nodes to convert
+     * @param elapsed Duration of the operation in milliseconds
+     * @param summary If true, only return one row aggregating all the nodes
+     * @return The stream of results
+     */
+    public static Stream<CompactNodeResult> of(List<Node> nodes, long elapsed, boolean summary) {
+        Stream<CompactNodeResult> results = nodes.stream().map(n -> fromNode(n, elapsed));
+        if (!summary) return results;
+
+        long count = results.mapToLong(r -> r.count).sum();
+        return Stream.of(new CompactNodeResult(null, null, (long) nodes.size(), count, elapsed));
+    }
+}
@@ -29,6 +29,7 @@ public class UseCasesMessage {
     public String parentName;
     public Boolean active;
     public Long id;
+    public String cursor;
 
     public UseCasesMessage(String name, Boolean active, Long id) {
         super();
@@ -45,4 +46,10 @@ public class UseCasesMessage {
         this.id = n.getNodeId();
         this.parentName = n.getParentUseCase();
     }
+
+    public UseCasesMessage(UseCaseNode n, String cursor)
+            throws Neo4jBadRequestException, Neo4jNoResult, Neo4jQueryException {
+        this(n);
+        this.cursor = cursor;
+    }
 }
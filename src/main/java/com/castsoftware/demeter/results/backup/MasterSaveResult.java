@@ -27,13 +27,23 @@ public class MasterSaveResult {
     public String description;
     public Long timestamp;
     public String picture;
+    public String pictureRef;
+    public String cursor;
 
     public MasterSaveResult(MasterSaveNode node) {
         this.id = node.getId();
         this.name = node.getName();
         this.description = node.getDescription();
         this.timestamp = node.getTimestamp();
-        this.picture = node.getPicture();
+        // Only the thumbnail is returned, the picture is streamed by demeter.backup.get.picture.
+        // The saves of the previous versions have no thumbnail, their picture is still on the node.
+        this.picture = node.getThumbnail().isEmpty() ? node.getPicture() : node.getThumbnail();
+        this.pictureRef = node.getPictureRef();
+    }
+
+    public MasterSaveResult(MasterSaveNode node, String cursor) {
+        this(node);
+        this.cursor = cursor;
     }
 
 }
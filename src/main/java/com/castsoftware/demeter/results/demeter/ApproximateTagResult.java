@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.results.demeter;
+
+import com.castsoftware.demeter.services.tags.TagForecastService.Estimate;
+
+public class ApproximateTagResult {
+    public Long id;
+    public String tag;
+    public String description;
+    public Long numMatch;
+    public Long lowerBound;
+    public Long upperBound;
+    public Boolean atLeast;
+    public Boolean exact;
+    public String mode;
+    public Long sampleSize;
+    public Long elapsed;
+    public String categories;
+    public String useCase;
+
+    public ApproximateTagResult(
+            Long id, String tag, String description, Estimate estimate, String categories, String useCase) {
+        this.id = id;
+        this.tag = tag;
+        this.description = description;
+        this.numMatch = estimate.getValue();
+        this.lowerBound = estimate.getLowerBound();
+        this.upperBound = estimate.getUpperBound();
+        this.atLeast = estimate.isAtLeast();
+        this.exact = estimate.isExact();
+        this.mode = estimate.getMode().name();
+        this.sampleSize = estimate.getSampleSize();
+        this.elapsed = estimate.getElapsed();
+        this.categories = categories;
+        this.useCase = useCase;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.results.demeter;
+
+import com.castsoftware.demeter.services.cache.QueryResultCache;
+
+/**
+ * hits: number; misses: number; size: number; capacity: number; bypass: boolean;
+ */
+public class CacheResult {
+    public Long hits;
+    public Long misses;
+    public Long size;
+    public Long capacity;
+    public Boolean bypass;
+
+    public CacheResult() {
+        this.hits = QueryResultCache.getHits();
+        this.misses = QueryResultCache.getMisses();
+        this.size = (long) QueryResultCache.getSize();
+        this.capacity = (long) QueryResultCache.getCapacity();
+        this.bypass = QueryResultCache.isBypassed();
+    }
+}
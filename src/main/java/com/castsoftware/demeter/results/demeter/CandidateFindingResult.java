@@ -26,10 +26,16 @@ public class CandidateFindingResult {
     public String application;
     public List<String> tags;
     public Long numTags;
+    public String cursor;
 
     public CandidateFindingResult(String application, String[] tags, Long numTags) {
+        this(application, tags, numTags, null);
+    }
+
+    public CandidateFindingResult(String application, String[] tags, Long numTags, String cursor) {
         this.application = application;
         this.tags = Arrays.asList(tags);
         this.numTags = numTags;
+        this.cursor = cursor;
     }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.results.demeter;
+
+import com.castsoftware.demeter.services.community.CommunityDetectionService.Report;
+import com.castsoftware.demeter.services.community.LabelPropagation.IterationReport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * application: string; numObjects: number; numRelationships: number; numGroups: number;
+ * numGrouped: number; modularity: number; written: boolean; duration: number; iterations: {
+ * iteration, changed, communities, modularity, duration }[]; groups: { group, size, sample }[];
+ */
+public class CommunityDetectionResult {
+    private static final int SAMPLE_SIZE = 20;
+
+    public String application;
+    public Long numObjects;
+    public Long numRelationships;
+    public Long numGroups;
+    public Long numGrouped;
+    public Double modularity;
+    public Boolean written;
+    public Long duration;
+    public List<Map<String, Object>> iterations;
+    public List<Map<String, Object>> groups;
+
+    public CommunityDetectionResult(Report report) {
+        this.application = report.getApplication();
+        this.numObjects = report.getNumObjects();
+        this.numRelationships = report.getNumRelationships();
+        this.numGroups = (long) report.getGroups().size();
+        this.numGrouped = 0L;
+        this.modularity = report.getModularity();
+        this.written = report.isWritten();
+        this.duration = report.getDuration();
+        this.iterations = new ArrayList<>();
+        this.groups = new ArrayList<>();
+
+        for (IterationReport it : report.getIterations()) {
+            this.iterations.add(
+                    Map.of(
+                            "iteration", (long) it.getIteration(),
+                            "changed", it.getChanged(),
+                            "communities", (long) it.getCommunities(),
+                            "modularity", it.getModularity(),
+                            "duration", it.getDuration()));
+        }
+
+        for (Map.Entry<String, long[]> group : report.getGroups().entrySet()) {
+            this.numGrouped += group.getValue().length;
+
+            List<Long> sample =
+                    Arrays.stream(group.getValue()).limit(SAMPLE_SIZE).boxed().collect(Collectors.toList());
+            this.groups.add(
+                    Map.of(
+                            "group", group.getKey(),
+                            "size", (long) group.getValue().length,
+                            "sample", sample));
+        }
+    }
+}
@@ -20,18 +20,24 @@
 package com.castsoftware.demeter.results.demeter;
 
 /**
- * id: number; name: string; application: string; numObjects: number;
+ * id: number; name: string; application: string; numObjects: number; cursor: string;
  */
 public class DemeterGroupResult {
     public Long id;
     public String name;
     public String application;
     public Long numObjects;
+    public String cursor;
 
     public DemeterGroupResult(Long id, String name, String application, Long numObjects) {
+        this(id, name, application, numObjects, null);
+    }
+
+    public DemeterGroupResult(Long id, String name, String application, Long numObjects, String cursor) {
         this.id = id;
         this.name = name;
         this.application = application;
         this.numObjects = numObjects;
+        this.cursor = cursor;
     }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.results.demeter;
+
+import com.castsoftware.demeter.services.grouping.GroupingType;
+import com.castsoftware.demeter.services.grouping.ParallelGroupingService.ApplicationReport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * type: string; numApplications: number; numSucceeded: number; numFailed: number; numGroups:
+ * number; duration: number; failed: string[]; details: { application, success, numGroups, duration,
+ * message }[];
+ */
+public class GroupingSummaryResult {
+    public String type;
+    public Long numApplications;
+    public Long numSucceeded;
+    public Long numFailed;
+    public Long numGroups;
+    public Long duration;
+    public List<String> failed;
+    public List<Map<String, Object>> details;
+
+    public GroupingSummaryResult(GroupingType type, List<ApplicationReport> reports, Long duration) {
+        this.type = type.name();
+        this.numApplications = (long) reports.size();
+        this.numSucceeded = 0L;
+        this.numGroups = 0L;
+        this.duration = duration;
+        this.failed = new ArrayList<>();
+        this.details = new ArrayList<>();
+
+        for (ApplicationReport r : reports) {
+            if (r.isSuccess()) {
+                this.numSucceeded++;
+                this.numGroups += r.getNumGroups();
+            } else {
+                this.failed.add(r.getApplication());
+            }
+
+            this.details.add(
+                    Map.of(
+                            "application", r.getApplication(),
+                            "success", r.isSuccess(),
+                            "numGroups", r.getNumGroups(),
+                            "duration", r.getDuration(),
+                            "message", r.getMessage()));
+        }
+        this.numFailed = (long) this.failed.size();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.results.demeter;
+
+import com.castsoftware.demeter.services.jobs.Job;
+
+/**
+ * id: string; type: string; application: string; status: string; message: string; groupsDone:
+ * number; objectsMoved: number; applicationsDone: number; applicationsTotal: number; submitted:
+ * number; started: number; finished: number; eta: number;
+ */
+public class JobResult {
+    public String id;
+    public String type;
+    public String application;
+    public String status;
+    public String message;
+    public Long groupsDone;
+    public Long objectsMoved;
+    public Long applicationsDone;
+    public Long applicationsTotal;
+    public Long submitted;
+    public Long started;
+    public Long finished;
+    public Long eta;
+
+    public JobResult(Job job) {
+        this.id = job.getId();
+        this.type = job.getType().name();
+        this.application = job.getApplication();
+        this.status = job.getStatus().name();
+        this.message = job.getMessage();
+        this.groupsDone = job.getGroupsDone();
+        this.objectsMoved = job.getObjectsMoved();
+        this.applicationsDone = (long) job.getApplicationsDone();
+        this.applicationsTotal = (long) job.getApplicationsTotal();
+        this.submitted = job.getSubmitted();
+        this.started = job.getStarted();
+        this.finished = job.getFinished();
+        this.eta = job.getEta();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.results.demeter;
+
+import com.castsoftware.demeter.services.tags.TagCostService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * valid: boolean; estimatedRows: number; dbHits: number; sampleApplication: string; warnings:
+ * string[]; budget: number; overBudget: boolean;
+ */
+public class TagCostResult {
+    public Boolean valid;
+    public Long estimatedRows;
+    public Long dbHits;
+    public String sampleApplication;
+    public List<String> warnings;
+    public Long budget;
+    public Boolean overBudget;
+
+    public TagCostResult(TagCostService.TagCost cost) {
+        this.valid = cost != null;
+        this.estimatedRows = cost == null ? -1L : cost.getEstimatedRows();
+        this.dbHits = cost == null ? -1L : cost.getDbHits();
+        this.sampleApplication = cost == null ? "" : cost.getSampleApplication();
+        this.warnings = cost == null ? new ArrayList<>() : new ArrayList<>(cost.getWarnings());
+        this.budget = TagCostService.getBudget();
+        this.overBudget = cost != null && cost.isOverBudget();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.architectures;
+
+import com.castsoftware.demeter.utils.configuration.ObjectConfiguration;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.eclipse.collections.impl.stack.mutable.primitive.LongArrayStack;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class MicroserviceTraversalService {
+
+    /**
+     * Walk the objects reachable from a starting node. Only Objects carrying a level are expanded,
+     * other nodes are marked as visited and skipped. The traversal only reads the graph, so it can be
+     * executed in any transaction.
+     *
+     * @param tx         Transaction used to read the graph
+     * @param idStart    Id of the starting object
+     * @param direction  Direction of the relationships followed after the first hop
+     * @return The objects discovered, grouped by level
+     */
+    public static TraversalResult traverse(Transaction tx, long idStart, Direction direction) {
+        Label objectLabel = ObjectConfiguration.getObjectLabel();
+        String levelProperty = ObjectConfiguration.getLevelProperty();
+
+        LongHashSet visited = new LongHashSet();
+        LongArrayStack toVisit = new LongArrayStack();
+        Map<String, LongArrayList> levelMap = new HashMap<>();
+
+        // Get neighbors of the starting node, in every direction
+        Node start = tx.getNodeById(idStart);
+        for (Relationship r : start.getRelationships()) {
+            toVisit.push(r.getOtherNodeId(idStart));
+        }
+        visited.add(idStart);
+
+        long idNode;
+        Node treat;
+        Object level;
+        while (toVisit.notEmpty()) {
+            idNode = toVisit.pop();
+            // Ignore if visited
+            if (!visited.add(idNode)) continue;
+
+            treat = tx.getNodeById(idNode);
+            if (!treat.hasLabel(objectLabel)) continue;
+
+            level = treat.getProperty(levelProperty, null);
+            if (level == null) continue;
+
+            levelMap.computeIfAbsent(level.toString(), k -> new LongArrayList()).add(idNode);
+
+            // Add relationships
+            for (Relationship rel : treat.getRelationships(direction)) {
+                toVisit.push(rel.getOtherNodeId(idNode));
+            }
+        }
+
+        return new TraversalResult(idStart, levelMap, visited.size());
+    }
+
+    /**
+     * Objects discovered during a traversal, grouped by their level
+     */
+    public static class TraversalResult {
+        private final long idStart;
+        private final Map<String, LongArrayList> levelMap;
+        private final int visited;
+
+        public TraversalResult(long idStart, Map<String, LongArrayList> levelMap, int visited) {
+            this.idStart = idStart;
+            this.levelMap = levelMap;
+            this.visited = visited;
+        }
+
+        public long getIdStart() {
+            return idStart;
+        }
+
+        public Map<String, LongArrayList> getLevelMap() {
+            return levelMap;
+        }
+
+        public int getVisited() {
+            return visited;
+        }
+
+        /**
+         * Get the number of objects flagged during the traversal
+         *
+         * @return The number of objects with a level
+         */
+        public long getObjectCount() {
+            long count = 0L;
+            for (LongArrayList ids : levelMap.values()) {
+                count += ids.size();
+            }
+            return count;
+        }
+    }
+
+    public MicroserviceTraversalService() {
+    }
+}
@@ -23,6 +23,7 @@ import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadNodeFormatException;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.models.backup.MasterSaveNode;
+import com.castsoftware.demeter.services.lookup.PageCursor;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Result;
@@ -37,6 +38,9 @@ public class MasterSaveNodeService {
 
     private static final String TO_SAVE_NODE = "DECLARES";
 
+    // Name of the paginated list of master saves
+    public static final String PAGE_LIST = "masterSaves";
+
     /**
      * Get the label of the node to save
      *
@@ -150,17 +154,29 @@ public class MasterSaveNodeService {
      * @throws Exception
      */
     public static List<MasterSaveNode> getListMasterSave(Neo4jAL neo4jAL, String application) throws Exception {
-        String req = String.format("MATCH (s:`%s`:`%s`) " +
-                "RETURN DISTINCT s as node", application, getLabelAsString());
+        return getListMasterSave(neo4jAL, application, PageCursor.all(PAGE_LIST));
+    }
+
+    /**
+     * Get a page of the master saves in an application, sorted by id
+     *
+     * @param neo4jAL     Neo4j Access Layer
+     * @param application Name of the application
+     * @param cursor      Page to get
+     * @return The list of master saves in the page
+     */
+    public static List<MasterSaveNode> getListMasterSave(Neo4jAL neo4jAL, String application, PageCursor cursor) throws Exception {
+        String req = String.format("MATCH (s:`%s`:`%s`) WHERE ID(s) > $after " +
+                "RETURN DISTINCT s as node ORDER BY ID(s)%s", application, getLabelAsString(), cursor.getLimitClause());
 
         try {
             List<MasterSaveNode> returnList = new ArrayList<>();
-            Result res = neo4jAL.executeQuery(req);
+            Result res = neo4jAL.executeQuery(req, Map.of("after", cursor.getAfterId()));
 
             while (res.hasNext()) {
                 Node n = (Node) res.next().get("node");
                 try {
-                    returnList.add(new MasterSaveNode(n));
+                    returnList.add(MasterSaveNode.read(n));
                 } catch (Neo4jBadNodeFormatException e) {
                     neo4jAL.logError("Failed to convert node to MasterNode", e);
                 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.backup;
+
+import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.models.backup.MasterSaveNode;
+import com.castsoftware.demeter.services.blobs.BlobStoreService;
+import org.neo4j.graphdb.Result;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Thumbnails of the pictures attached to the saves, and removal of the pictures no longer referenced.
+ * The pictures are sent as base64 strings, with or without a data URI prefix.
+ */
+public class PictureService {
+
+    private static final int DEFAULT_THUMBNAIL_SIZE = 160;
+    private static final String DATA_URI_PREFIX = "data:image/png;base64,";
+
+    /**
+     * Get the maximum width and height of a thumbnail
+     *
+     * @return The size in pixels
+     */
+    public static int getThumbnailSize() {
+        try {
+            int size = Integer.parseInt(Configuration.getBestOfALl("demeter.backup.thumbnail.size"));
+            return size > 0 ? size : DEFAULT_THUMBNAIL_SIZE;
+        } catch (NumberFormatException | NullPointerException e) {
+            return DEFAULT_THUMBNAIL_SIZE;
+        }
+    }
+
+    /**
+     * Create the thumbnail of a picture, as a PNG encoded in base64
+     *
+     * @param picture Picture encoded in base64
+     * @return The thumbnail, or an empty string if the picture isn't an image
+     */
+    public static String createThumbnail(String picture) {
+        if (picture == null || picture.isBlank()) return "";
+
+        boolean dataUri = picture.startsWith("data:");
+        String encoded = dataUri ? picture.substring(picture.indexOf(',') + 1) : picture;
+
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(Base64.getMimeDecoder().decode(encoded)));
+            if (image == null) return "";
+
+            int max = getThumbnailSize();
+            double ratio = Math.min(1.0, (double) max / Math.max(image.getWidth(), image.getHeight()));
+            int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+            int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+
+            BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = thumbnail.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(image, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(thumbnail, "png", out);
+            String result = Base64.getEncoder().encodeToString(out.toByteArray());
+            return dataUri ? DATA_URI_PREFIX + result : result;
+        } catch (IllegalArgumentException | IOException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Remove from the blob store the pictures no save of the database references anymore, once they
+     * are older than the grace period
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @return The number of pictures removed
+     * @throws Neo4jQueryException If the request listing the references failed
+     * @throws IOException         If the store couldn't be listed
+     */
+    public static long sweep(Neo4jAL neo4jAL) throws Neo4jQueryException, IOException {
+        String req =
+                String.format(
+                        "MATCH (s:`%s`) WHERE EXISTS(s.PictureRef) RETURN DISTINCT s.PictureRef as reference",
+                        MasterSaveNode.MASTERSAVE_NODE_LABEL);
+        Result res = neo4jAL.executeQuery(req);
+
+        Set<String> referenced = new HashSet<>();
+        while (res.hasNext()) {
+            referenced.add((String) res.next().get("reference"));
+        }
+
+        String databaseName = neo4jAL.getDb().databaseName();
+        long removed = BlobStoreService.sweep(databaseName, referenced, BlobStoreService.getGracePeriod());
+        neo4jAL.logInfo(
+                String.format(
+                        "%d pictures no longer referenced were removed from the store of '%s'.",
+                        removed, databaseName));
+        return removed;
+    }
+
+    public PictureService() {
+    }
+}
@@ -22,6 +22,8 @@ package com.castsoftware.demeter.services.backup;
 import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.services.backup.MasterSaveNodeService;
+import com.castsoftware.demeter.services.deletion.BulkDeleteService;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Result;
 
@@ -131,12 +133,18 @@ public class SaveNodeService {
 
         String request = String.format("MATCH (o:`%s`)-[:%s]->(s:`%s`) " +
                 "WHERE ID(o)=$idNode " +
-                "DETACH DELETE s", masterLabel, relationship, getLabelAsString());
+                "RETURN DISTINCT ID(s) as id", masterLabel, relationship, getLabelAsString());
 
         Map<String, Object> params = Map.of("idNode", masterId);
 
         try {
-            neo4jAL.executeQuery(request, params);
+            // The save nodes are linked to every object saved, delete them by batches
+            LongArrayList ids = new LongArrayList();
+            Result res = neo4jAL.executeQuery(request, params);
+            while (res.hasNext()) {
+                ids.add((Long) res.next().get("id"));
+            }
+            BulkDeleteService.delete(neo4jAL, ids.toArray(), "Save nodes of " + masterId);
         } catch (Neo4jQueryException e) {
             neo4jAL.logError(String.format("Failed to delete the save nodes attached to master node with id [%d].", masterId));
         }
@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.blobs;
+
+import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.utils.Workspace;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Content-addressed store for the large payloads, kept in the Demeter workspace instead of the graph.
+ * A payload is identified by the SHA-256 hash of its content, so identical payloads are only
+ * stored once per database.
+ *
+ * <p>Payloads are written before the transaction referencing them commits. The files left by the
+ * transactions rolled back, and by the nodes deleted, are removed by a sweep once they are older
+ * than a grace period.
+ */
+public class BlobStoreService {
+
+    private static final int DEFAULT_CHUNK_SIZE = 65536;
+    private static final long DEFAULT_GRACE_PERIOD = 3600000L;
+    private static final String TMP_SUFFIX = ".tmp";
+
+    /**
+     * Get the folder of the store
+     *
+     * @return The path of the folder
+     */
+    public static Path getFolder() {
+        return Workspace.getWorkspace().resolve(Configuration.get("demeter.workspace.blob.folder"));
+    }
+
+    /**
+     * Get the folder of the payloads of a database
+     *
+     * @param databaseName Name of the database
+     * @return The path of the folder
+     */
+    public static Path getFolder(String databaseName) {
+        return getFolder().resolve(databaseName);
+    }
+
+    /**
+     * Get the minimum age of an unreferenced payload before it is swept. It must exceed the duration
+     * of the longest transaction writing a payload.
+     *
+     * @return The period in milliseconds
+     */
+    public static long getGracePeriod() {
+        try {
+            long period = Long.parseLong(Configuration.getBestOfALl("demeter.blob.sweep.grace_period"));
+            return period >= 0 ? period : DEFAULT_GRACE_PERIOD;
+        } catch (NumberFormatException | NullPointerException e) {
+            return DEFAULT_GRACE_PERIOD;
+        }
+    }
+
+    /**
+     * Get the number of characters returned per chunk when a payload is streamed
+     *
+     * @return The size of a chunk
+     */
+    public static int getChunkSize() {
+        try {
+            int size = Integer.parseInt(Configuration.getBestOfALl("demeter.blob.chunk_size"));
+            return size > 0 ? size : DEFAULT_CHUNK_SIZE;
+        } catch (NumberFormatException | NullPointerException e) {
+            return DEFAULT_CHUNK_SIZE;
+        }
+    }
+
+    /**
+     * Get the hash of a content
+     *
+     * @param content Content to hash
+     * @return The SHA-256 hash, as an hexadecimal string
+     */
+    public static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    /**
+     * Store a payload. If the payload is already present, only its modification time is refreshed, so
+     * it isn't swept before the transaction referencing it commits.
+     *
+     * @param databaseName Name of the database
+     * @param content      Payload to store
+     * @return The reference of the payload
+     * @throws IOException If the file couldn't be written
+     */
+    public static String put(String databaseName, String content) throws IOException {
+        String reference = hash(content);
+        Path file = getPath(databaseName, reference);
+        if (Files.exists(file)) {
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                return reference;
+            } catch (NoSuchFileException e) {
+                // Swept meanwhile, write it again
+            }
+        }
+
+        // Write in a temporary file first, so a partial write is never visible
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), reference, TMP_SUFFIX);
+        try {
+            Files.writeString(tmp, content, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Stored meanwhile by another transaction
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return reference;
+    }
+
+    /**
+     * Check if a payload is in the store
+     *
+     * @param databaseName Name of the database
+     * @param reference    Reference of the payload
+     * @return True if present
+     */
+    public static boolean exists(String databaseName, String reference) {
+        return isValid(reference) && Files.exists(getPath(databaseName, reference));
+    }
+
+    /**
+     * Read a payload
+     *
+     * @param databaseName Name of the database
+     * @param reference    Reference of the payload
+     * @return The content, or empty if the payload is not in the store
+     * @throws IOException If the file couldn't be read
+     */
+    public static Optional<String> get(String databaseName, String reference) throws IOException {
+        if (!exists(databaseName, reference)) return Optional.empty();
+        return Optional.of(Files.readString(getPath(databaseName, reference), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read a payload by chunks. The file is read lazily, while the stream is consumed.
+     *
+     * @param databaseName Name of the database
+     * @param reference    Reference of the payload
+     * @param chunkSize    Number of characters per chunk
+     * @return The stream of chunks, to close once consumed
+     * @throws IOException If the payload is not in the store or couldn't be opened
+     */
+    public static Stream<String> stream(String databaseName, String reference, int chunkSize)
+            throws IOException {
+        if (!exists(databaseName, reference)) {
+            throw new NoSuchFileException(String.format("No payload with reference '%s' in the store.", reference));
+        }
+
+        BufferedReader reader = Files.newBufferedReader(getPath(databaseName, reference), StandardCharsets.UTF_8);
+        return StreamSupport.stream(new ChunkSpliterator(reader, chunkSize), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Split a content in chunks
+     *
+     * @param content   Content to split
+     * @param chunkSize Number of characters per chunk
+     * @return The stream of chunks
+     */
+    public static Stream<String> split(String content, int chunkSize) {
+        int numChunks = Math.max(1, (content.length() + chunkSize - 1) / chunkSize);
+        return Stream.iterate(0, i -> i + 1)
+                .limit(numChunks)
+                .map(i -> content.substring(i * chunkSize, Math.min(content.length(), (i + 1) * chunkSize)));
+    }
+
+    /**
+     * Check the format of a reference. Only a SHA-256 hash is accepted, so a reference cannot
+     * point outside of the store.
+     *
+     * @param reference Reference to check
+     * @return True if valid
+     */
+    public static boolean isValid(String reference) {
+        return reference != null && reference.matches("[0-9a-f]{64}");
+    }
+
+    /**
+     * Remove the payloads of a database which are not referenced anymore. Only the files older than
+     * the grace period are removed, as the transaction writing a younger file may not be committed
+     * yet. The temporary files left by an interrupted write are removed too.
+     *
+     * @param databaseName Name of the database
+     * @param referenced   References still used by the database
+     * @param gracePeriod  Minimum age of a file to remove, in milliseconds
+     * @return The number of files removed
+     * @throws IOException If the folder couldn't be listed
+     */
+    public static long sweep(String databaseName, Set<String> referenced, long gracePeriod)
+            throws IOException {
+        Path folder = getFolder(databaseName);
+        if (!Files.isDirectory(folder)) return 0L;
+
+        long limit = System.currentTimeMillis() - gracePeriod;
+        List<Path> toRemove = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(folder, 2)) {
+            files.filter(Files::isRegularFile)
+                    .filter(f -> {
+                        String name = f.getFileName().toString();
+                        return name.endsWith(TMP_SUFFIX) || (isValid(name) && !referenced.contains(name));
+                    })
+                    .forEach(toRemove::add);
+        }
+
+        long removed = 0L;
+        for (Path f : toRemove) {
+            try {
+                // Checked again just before the deletion, a put may have refreshed it
+                if (Files.getLastModifiedTime(f).toMillis() > limit) continue;
+                if (Files.deleteIfExists(f)) removed++;
+            } catch (NoSuchFileException e) {
+                // Removed meanwhile
+            }
+        }
+        return removed;
+    }
+
+    private static Path getPath(String databaseName, String reference) {
+        if (!isValid(reference)) {
+            throw new IllegalArgumentException(String.format("'%s' is not a valid reference.", reference));
+        }
+        return getFolder(databaseName).resolve(reference.substring(0, 2)).resolve(reference);
+    }
+
+    /**
+     * Read a reader by chunks of characters
+     */
+    private static class ChunkSpliterator extends Spliterators.AbstractSpliterator<String> {
+        private final Reader reader;
+        private final char[] buffer;
+
+        private ChunkSpliterator(Reader reader, int chunkSize) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.reader = reader;
+            this.buffer = new char[chunkSize];
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            try {
+                int read = 0;
+                while (read < buffer.length) {
+                    int n = reader.read(buffer, read, buffer.length - read);
+                    if (n < 0) break;
+                    read += n;
+                }
+                if (read == 0) return false;
+                action.accept(new String(buffer, 0, read));
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public BlobStoreService() {
+    }
+}
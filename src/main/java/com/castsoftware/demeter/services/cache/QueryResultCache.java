@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.cache;
+
+import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.database.Neo4jAL;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of the results of the statistics and forecast requests. Entries are keyed by
+ * request and by the version of the application, which is the id of the last committed transaction
+ * that wrote a node of the application. A write on an application makes all its entries unreachable.
+ *
+ * <p>The writes not yet committed by the current transaction are not visible to the versions, and
+ * its reads can see them. A transaction holding uncommitted writes neither reads nor stores entries.
+ */
+public class QueryResultCache {
+
+    private static final int DEFAULT_CAPACITY = 1000;
+
+    // Version of the applications, per database
+    private static final Map<String, Long> VERSIONS = new ConcurrentHashMap<>();
+
+    private static final AtomicLong HITS = new AtomicLong(0L);
+    private static final AtomicLong MISSES = new AtomicLong(0L);
+
+    private static final int CAPACITY = loadCapacity();
+    private static volatile boolean bypass = loadBypass();
+
+    private static final Map<Key, Object> CACHE =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                    return size() > CAPACITY;
+                }
+            };
+
+    private static int loadCapacity() {
+        try {
+            return Integer.parseInt(Configuration.getBestOfALl("demeter.cache.size"));
+        } catch (NumberFormatException | NullPointerException e) {
+            return DEFAULT_CAPACITY;
+        }
+    }
+
+    private static boolean loadBypass() {
+        return Boolean.parseBoolean(Configuration.getBestOfALl("demeter.cache.bypass"));
+    }
+
+    /**
+     * Build the key of a request
+     *
+     * @param neo4jAL     Neo4j Access Layer
+     * @param application Application concerned by the request
+     * @param request     Request executed
+     * @param parameters  Parameters of the request
+     * @return The key
+     */
+    public static Key key(Neo4jAL neo4jAL, String application, String request, Map<String, Object> parameters) {
+        String database = neo4jAL.getDb().databaseName();
+        long version = VERSIONS.getOrDefault(versionKey(database, application), 0L);
+        return new Key(
+                database,
+                application,
+                request,
+                parameters == null ? Map.of() : parameters,
+                version,
+                !hasPendingWrites(neo4jAL));
+    }
+
+    /**
+     * Check if the transaction of the access layer holds writes not yet committed
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @return True if the transaction has pending writes, or if its state cannot be read
+     */
+    public static boolean hasPendingWrites(Neo4jAL neo4jAL) {
+        Transaction tx = neo4jAL.getTransaction();
+        if (!(tx instanceof InternalTransaction)) return true;
+        return ((InternalTransaction) tx).kernelTransaction().dataRead().transactionStateHasChanges();
+    }
+
+    /**
+     * Get the result of a request
+     *
+     * @param key  Key of the request
+     * @param type Type of the result
+     * @param <T>  Type of the result
+     * @return The result, null if not cached, if the cache is bypassed or if the transaction of the
+     * key has pending writes
+     */
+    public static <T> T get(Key key, Class<T> type) {
+        if (bypass || !key.shared) return null;
+
+        Object value;
+        synchronized (CACHE) {
+            value = CACHE.get(key);
+        }
+
+        if (type.isInstance(value)) {
+            HITS.incrementAndGet();
+            return type.cast(value);
+        }
+        MISSES.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Store the result of a request. Nothing is stored if the transaction has pending writes, as the
+     * result may depend on them.
+     *
+     * @param neo4jAL Neo4j Access Layer used to compute the result
+     * @param key     Key of the request
+     * @param value   Result to store, must not be modified afterwards
+     */
+    public static void put(Neo4jAL neo4jAL, Key key, Object value) {
+        if (bypass || value == null || !key.shared || hasPendingWrites(neo4jAL)) return;
+        synchronized (CACHE) {
+            CACHE.put(key, value);
+        }
+    }
+
+    /**
+     * Declare a new version of an application. Called after the commit of a transaction writing the
+     * application.
+     *
+     * @param database    Name of the database
+     * @param application Label of the application
+     * @param version     Id of the committed transaction
+     */
+    public static void setVersion(String database, String application, long version) {
+        VERSIONS.merge(versionKey(database, application), version, Math::max);
+    }
+
+    /**
+     * Remove all the entries and reset the counters
+     */
+    public static void clear() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+        HITS.set(0L);
+        MISSES.set(0L);
+    }
+
+    public static void setBypass(boolean value) {
+        bypass = value;
+        if (value) clear();
+    }
+
+    public static boolean isBypassed() {
+        return bypass;
+    }
+
+    public static long getHits() {
+        return HITS.get();
+    }
+
+    public static long getMisses() {
+        return MISSES.get();
+    }
+
+    public static int getCapacity() {
+        return CAPACITY;
+    }
+
+    public static int getSize() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    private static String versionKey(String database, String application) {
+        return database + "/" + application;
+    }
+
+    /**
+     * Key of a cached request
+     */
+    public static final class Key {
+        private final String database;
+        private final String application;
+        private final String request;
+        private final Map<String, Object> parameters;
+        private final long version;
+        private final int hash;
+
+        // False if built in a transaction with pending writes, not part of the identity
+        private final boolean shared;
+
+        private Key(
+                String database,
+                String application,
+                String request,
+                Map<String, Object> parameters,
+                long version,
+                boolean shared) {
+            this.database = database;
+            this.application = application;
+            this.request = request;
+            this.parameters = parameters;
+            this.version = version;
+            this.shared = shared;
+            this.hash = Objects.hash(database, application, request, parameters, version);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return version == k.version
+                    && hash == k.hash
+                    && database.equals(k.database)
+                    && Objects.equals(application, k.application)
+                    && request.equals(k.request)
+                    && parameters.equals(k.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    public QueryResultCache() {
+    }
+}
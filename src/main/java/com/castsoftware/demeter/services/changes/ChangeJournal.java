@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.changes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Bounded journal of the Demeter tags added on a database. Each change receives a cursor strictly
+ * greater than the previous one. The oldest changes are dropped once the capacity is reached.
+ */
+public class ChangeJournal {
+
+    private final int capacity;
+    private final Deque<Change> changes;
+
+    // Cursors are seeded with the creation time, so a cursor issued before a restart stays below the
+    // new ones
+    private long lastCursor;
+    private long floor;
+
+    public ChangeJournal(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.changes = new ArrayDeque<>();
+        this.lastCursor = System.currentTimeMillis() * 1000L;
+        this.floor = lastCursor;
+    }
+
+    /**
+     * Append a change to the journal
+     *
+     * @param application Name of the application
+     * @param type        Type of grouping concerned
+     * @param prefix      Prefix of the tags
+     * @param numTags     Number of tags added
+     * @return The cursor of the change
+     */
+    public synchronized long append(String application, String type, String prefix, long numTags) {
+        lastCursor++;
+        changes.addLast(new Change(lastCursor, application, type, prefix, numTags));
+
+        while (changes.size() > capacity) {
+            floor = changes.removeFirst().getCursor();
+        }
+        return lastCursor;
+    }
+
+    /**
+     * Check if all the changes following a cursor are still present in the journal
+     *
+     * @param cursor Cursor to verify
+     * @return False if the changes were dropped, or if the cursor wasn't issued by this journal
+     */
+    public synchronized boolean isComplete(long cursor) {
+        return cursor >= floor && cursor <= lastCursor;
+    }
+
+    /**
+     * Get the cursor of the last change
+     *
+     * @return The last cursor
+     */
+    public synchronized long getLastCursor() {
+        return lastCursor;
+    }
+
+    /**
+     * Get the changes following a cursor
+     *
+     * @param cursor Cursor of the last change already read
+     * @return The list of changes, ordered by cursor
+     */
+    public synchronized List<Change> getSince(long cursor) {
+        List<Change> since = new ArrayList<>();
+        Iterator<Change> it = changes.descendingIterator();
+        while (it.hasNext()) {
+            Change c = it.next();
+            if (c.getCursor() <= cursor) break;
+            since.add(c);
+        }
+
+        // Restore the order of insertion
+        Collections.reverse(since);
+        return since;
+    }
+
+    public synchronized int size() {
+        return changes.size();
+    }
+
+    /**
+     * Tags added on an application by a committed transaction
+     */
+    public static class Change {
+        private final long cursor;
+        private final String application;
+        private final String type;
+        private final String prefix;
+        private final long numTags;
+
+        public Change(long cursor, String application, String type, String prefix, long numTags) {
+            this.cursor = cursor;
+            this.application = application;
+            this.type = type;
+            this.prefix = prefix;
+            this.numTags = numTags;
+        }
+
+        public long getCursor() {
+            return cursor;
+        }
+
+        public String getApplication() {
+            return application;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public long getNumTags() {
+            return numTags;
+        }
+    }
+}
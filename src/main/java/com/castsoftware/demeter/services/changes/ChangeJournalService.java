@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.changes;
+
+import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.results.demeter.ChangeResult;
+import com.castsoftware.demeter.services.changes.ChangeJournal.Change;
+import com.castsoftware.demeter.services.grouping.GroupingPrefix;
+import com.castsoftware.demeter.utils.configuration.ObjectConfiguration;
+import org.neo4j.graphdb.Result;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ChangeJournalService {
+
+    private static final int DEFAULT_JOURNAL_SIZE = 10000;
+
+    // Journals per database
+    private static final Map<String, ChangeJournal> JOURNALS = new ConcurrentHashMap<>();
+
+    /**
+     * Get the maximum number of changes kept in a journal
+     *
+     * @return The size of the journal
+     */
+    public static int getJournalSize() {
+        try {
+            return Integer.parseInt(Configuration.getBestOfALl("demeter.changes.journal_size"));
+        } catch (NumberFormatException | NullPointerException e) {
+            return DEFAULT_JOURNAL_SIZE;
+        }
+    }
+
+    /**
+     * Get the prefixes of the tags followed by the journal
+     *
+     * @return A mapping between the grouping prefix and its value
+     */
+    public static Map<GroupingPrefix, String> getTrackedPrefixes() {
+        return GroupingPrefix.getConfigured(EnumSet.allOf(GroupingPrefix.class));
+    }
+
+    /**
+     * Get the journal of a database, created on the first call
+     *
+     * @param databaseName Name of the database
+     * @return The journal
+     */
+    public static ChangeJournal getJournal(String databaseName) {
+        return JOURNALS.computeIfAbsent(databaseName, k -> new ChangeJournal(getJournalSize()));
+    }
+
+    /**
+     * Get the applications and the prefixes of the tags added since a cursor. If the journal doesn't
+     * hold all the changes since this cursor ( dropped changes, restart of the database, first call ),
+     * the graph is scanned once and the results are flagged as incomplete.
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @param cursor  Last cursor read by the client
+     * @return The list of changes merged by application and type
+     * @throws Neo4jQueryException If the scan of the graph failed
+     */
+    public static List<ChangeResult> getChangesSince(Neo4jAL neo4jAL, Long cursor)
+            throws Neo4jQueryException {
+        ChangeJournal journal = getJournal(neo4jAL.getDb().databaseName());
+        long last = journal.getLastCursor();
+
+        if (cursor == null || !journal.isComplete(cursor)) {
+            return scanGraph(neo4jAL, last);
+        }
+
+        // Merge the changes by application and type
+        Map<String, ChangeResult> merged = new LinkedHashMap<>();
+        for (Change c : journal.getSince(cursor)) {
+            String key = c.getApplication() + "/" + c.getType();
+            ChangeResult res = merged.get(key);
+            if (res == null) {
+                merged.put(
+                        key,
+                        new ChangeResult(
+                                c.getCursor(), c.getApplication(), c.getType(), c.getPrefix(), c.getNumTags(), true));
+            } else {
+                res.cursor = c.getCursor();
+                res.numTags += c.getNumTags();
+            }
+        }
+
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Find the applications holding tags with one of the followed prefixes
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @param cursor  Cursor to return to the client
+     * @return The list of applications and types found
+     * @throws Neo4jQueryException If the request failed
+     */
+    private static List<ChangeResult> scanGraph(Neo4jAL neo4jAL, long cursor)
+            throws Neo4jQueryException {
+        Map<GroupingPrefix, String> tracked = getTrackedPrefixes();
+        List<GroupingPrefix> types = new ArrayList<>(tracked.keySet());
+        List<String> prefixes = new ArrayList<>(tracked.values());
+
+        List<ChangeResult> results = new ArrayList<>();
+
+        String objectLabel = ObjectConfiguration.getObjectLabel().name();
+        String tagProperty = Configuration.get("imaging.link.object_property.tags");
+
+        if (prefixes.isEmpty()) {
+            results.add(new ChangeResult(cursor, null, null, null, 0L, false));
+            return results;
+        }
+
+        String req =
+                String.format(
+                        "MATCH (o:`%1$s`) WHERE EXISTS(o.%2$s) "
+                                + "UNWIND range(0, size($prefixes) - 1) as i "
+                                + "WITH o, i WHERE any(x IN o.%2$s WHERE x STARTS WITH $prefixes[i]) "
+                                + "UNWIND [ l IN labels(o) WHERE l <> $objectLabel ] as application "
+                                + "RETURN application, i as index, COUNT(o) as numTags",
+                        objectLabel, tagProperty);
+        Result result =
+                neo4jAL.executeQuery(req, Map.of("prefixes", prefixes, "objectLabel", objectLabel));
+
+        while (result.hasNext()) {
+            Map<String, Object> row = result.next();
+            int index = ((Long) row.get("index")).intValue();
+            results.add(
+                    new ChangeResult(
+                            cursor,
+                            (String) row.get("application"),
+                            types.get(index).getType(),
+                            prefixes.get(index),
+                            (Long) row.get("numTags"),
+                            false));
+        }
+
+        // Nothing tagged, still hand over the cursor to resume from
+        if (results.isEmpty()) results.add(new ChangeResult(cursor, null, null, null, 0L, false));
+
+        return results;
+    }
+
+    public ChangeJournalService() {
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.community;
+
+import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.database.Neo4jAL;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Undirected projection of the call graph of an application, stored in compressed sparse rows. The
+ * sub-objects are merged with their parent object, and each relationship is kept in both
+ * directions.
+ */
+public class CallGraph {
+
+    private static final Label OBJECT_LABEL = Label.label(Configuration.get("imaging.node.object.label"));
+    private static final Label SUB_OBJECT_LABEL =
+            Label.label(Configuration.get("imaging.node.sub_object.label"));
+    private static final RelationshipType BELONG_TO =
+            RelationshipType.withName(Configuration.get("imaging.node.sub_object.link.to_objects"));
+
+    private final long[] nodeIds;
+    private final int[] offsets;
+    private final int[] targets;
+
+    private CallGraph(long[] nodeIds, int[] offsets, int[] targets) {
+        this.nodeIds = nodeIds;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Project the objects of an application and the relationships between them. The relationships
+     * linking a sub-object to its parent end on the same object, so they are never projected.
+     *
+     * @param neo4jAL       Neo4j Access Layer
+     * @param application   Name of the application
+     * @param relationships Types of relationships to project, empty for all
+     * @return The projection
+     */
+    public static CallGraph project(Neo4jAL neo4jAL, String application, List<String> relationships) {
+        Transaction tx = neo4jAL.getTransaction();
+        Label applicationLabel = Label.label(application);
+        Set<String> types = new HashSet<>(relationships);
+
+        // Index the objects, sub-objects share the index of their parent
+        LongIntHashMap index = new LongIntHashMap();
+        LongArrayList nodeIds = new LongArrayList();
+        try (ResourceIterator<Node> it = tx.findNodes(applicationLabel)) {
+            while (it.hasNext()) {
+                Node n = it.next();
+                if (n.hasLabel(OBJECT_LABEL)) {
+                    indexOf(index, nodeIds, n.getId());
+                } else if (n.hasLabel(SUB_OBJECT_LABEL)) {
+                    for (Relationship r : n.getRelationships(Direction.OUTGOING, BELONG_TO)) {
+                        Node parent = r.getEndNode();
+                        if (parent.hasLabel(OBJECT_LABEL) && parent.hasLabel(applicationLabel)) {
+                            index.put(n.getId(), indexOf(index, nodeIds, parent.getId()));
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Collect the relationships between two distinct objects
+        IntArrayList sources = new IntArrayList();
+        IntArrayList destinations = new IntArrayList();
+        try (ResourceIterator<Node> it = tx.findNodes(applicationLabel)) {
+            while (it.hasNext()) {
+                Node n = it.next();
+                int source = index.getIfAbsent(n.getId(), -1);
+                if (source < 0) continue;
+
+                for (Relationship r : n.getRelationships(Direction.OUTGOING)) {
+                    String type = r.getType().name();
+                    if (!types.isEmpty() && !types.contains(type)) continue;
+
+                    int destination = index.getIfAbsent(r.getEndNode().getId(), -1);
+                    if (destination < 0 || destination == source) continue;
+
+                    sources.add(source);
+                    destinations.add(destination);
+                }
+            }
+        }
+
+        return fromEdges(nodeIds.toArray(), sources.toArray(), destinations.toArray());
+    }
+
+    private static int indexOf(LongIntHashMap index, LongArrayList nodeIds, long id) {
+        int i = index.getIfAbsent(id, -1);
+        if (i >= 0) return i;
+
+        i = nodeIds.size();
+        index.put(id, i);
+        nodeIds.add(id);
+        return i;
+    }
+
+    /**
+     * Build the compressed rows from a list of edges
+     *
+     * @param nodeIds      Ids of the nodes in the database
+     * @param sources      Index of the source of each edge
+     * @param destinations Index of the destination of each edge
+     * @return The projection
+     */
+    private static CallGraph fromEdges(long[] nodeIds, int[] sources, int[] destinations) {
+        int n = nodeIds.length;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < sources.length; i++) {
+            offsets[sources[i] + 1]++;
+            offsets[destinations[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        int[] targets = new int[offsets[n]];
+        int[] position = new int[n];
+        System.arraycopy(offsets, 0, position, 0, n);
+        for (int i = 0; i < sources.length; i++) {
+            targets[position[sources[i]]++] = destinations[i];
+            targets[position[destinations[i]]++] = sources[i];
+        }
+
+        return new CallGraph(nodeIds, offsets, targets);
+    }
+
+    public int getNodeCount() {
+        return nodeIds.length;
+    }
+
+    /**
+     * @return The number of relationships projected, each counted once
+     */
+    public long getRelationshipCount() {
+        return targets.length / 2;
+    }
+
+    public long getNodeId(int node) {
+        return nodeIds[node];
+    }
+
+    public int getDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    public int getNeighbour(int node, int i) {
+        return targets[offsets[node] + i];
+    }
+
+    /**
+     * @return The sum of the degrees, twice the number of relationships
+     */
+    public long getTotalDegree() {
+        return targets.length;
+    }
+}
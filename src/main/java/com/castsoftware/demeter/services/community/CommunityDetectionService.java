@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.community;
+
+import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.services.tags.TagCleanupService;
+import com.castsoftware.demeter.utils.configuration.BatchConfiguration;
+import com.castsoftware.demeter.utils.configuration.CommunityConfiguration;
+import com.castsoftware.demeter.utils.configuration.ParallelConfiguration;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Propose level 5 groupings from the communities of the call graph of an application. The
+ * communities are written as level tags, consumed by the level grouping.
+ */
+public class CommunityDetectionService {
+
+    private static final String IMAGING_OBJECT_LABEL = Configuration.get("imaging.node.object.label");
+    private static final String IMAGING_OBJECT_TAGS =
+            Configuration.get("imaging.link.object_property.tags");
+
+    /**
+     * Get the prefix of the level tags written by the detection
+     *
+     * @return The prefix
+     */
+    public static String getTagPrefix() {
+        return Configuration.getBestOfALl("demeter.prefix.level_group")
+                + CommunityConfiguration.getGroupPrefix();
+    }
+
+    /**
+     * Detect the communities of an application
+     *
+     * @param neo4jAL       Neo4j Access Layer
+     * @param application   Name of the application
+     * @param write         Write the level tags on the objects, or only return a preview
+     * @param maxIterations Maximum number of iterations, 0 to use the configuration
+     * @param minSize       Minimum number of objects in a group, 0 to use the configuration
+     * @return The report of the detection
+     * @throws Neo4jQueryException If the tags couldn't be written
+     */
+    public static Report detect(
+            Neo4jAL neo4jAL, String application, boolean write, int maxIterations, int minSize)
+            throws Neo4jQueryException {
+        long start = System.currentTimeMillis();
+        int iterations = maxIterations > 0 ? maxIterations : CommunityConfiguration.getMaxIterations();
+        int size = minSize > 0 ? minSize : CommunityConfiguration.getMinSize();
+
+        CallGraph graph =
+                CallGraph.project(neo4jAL, application, CommunityConfiguration.getRelationships());
+        neo4jAL.logInfo(
+                String.format(
+                        "Community detection : %d objects and %d relationships projected in application '%s' in %d ms.",
+                        graph.getNodeCount(),
+                        graph.getRelationshipCount(),
+                        application,
+                        System.currentTimeMillis() - start));
+
+        ForkJoinPool pool = new ForkJoinPool(ParallelConfiguration.getWorkers());
+        LabelPropagation.Outcome outcome;
+        try {
+            outcome = LabelPropagation.run(graph, pool, iterations, CommunityConfiguration.getTolerance());
+        } finally {
+            pool.shutdown();
+        }
+
+        for (LabelPropagation.IterationReport it : outcome.getIterations()) {
+            neo4jAL.logInfo(
+                    String.format(
+                            "Community detection : iteration %d, %d objects moved, %d communities, modularity %.4f, %d ms.",
+                            it.getIteration(),
+                            it.getChanged(),
+                            it.getCommunities(),
+                            it.getModularity(),
+                            it.getDuration()));
+        }
+
+        // Keep the communities large enough, the largest first
+        Map<Integer, LongArrayList> members = new HashMap<>();
+        int[] labels = outcome.getLabels();
+        for (int i = 0; i < labels.length; i++) {
+            members.computeIfAbsent(labels[i], k -> new LongArrayList()).add(graph.getNodeId(i));
+        }
+        List<LongArrayList> communities =
+                members.values().stream()
+                        .filter(l -> l.size() >= size)
+                        .sorted(Comparator.comparingInt(LongArrayList::size).reversed())
+                        .collect(Collectors.toList());
+
+        Map<String, long[]> groups = new LinkedHashMap<>();
+        for (int i = 0; i < communities.size(); i++) {
+            String name = CommunityConfiguration.getGroupPrefix() + "_" + (i + 1);
+            groups.put(name, communities.get(i).toArray());
+        }
+
+        if (write) writeTags(neo4jAL, application, groups);
+
+        return new Report(
+                application,
+                graph.getNodeCount(),
+                graph.getRelationshipCount(),
+                outcome.getIterations(),
+                groups,
+                write,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Replace the level tags of a previous detection by the new groups, by batches
+     */
+    private static void writeTags(Neo4jAL neo4jAL, String application, Map<String, long[]> groups)
+            throws Neo4jQueryException {
+        String prefix = getTagPrefix();
+        String levelPrefix = Configuration.getBestOfALl("demeter.prefix.level_group");
+
+        // Tags of the previous detection, removed by batches
+        TagCleanupService.clean(neo4jAL, application, TagCleanupService.Match.STARTS_WITH, prefix);
+
+        String req =
+                String.format(
+                        "UNWIND $rows AS row MATCH (o:`%1$s`:`%2$s`) WHERE ID(o)=row.id "
+                                + "SET o.%3$s = CASE WHEN o.%3$s IS NULL THEN [row.tag] ELSE o.%3$s + row.tag END",
+                        IMAGING_OBJECT_LABEL, application, IMAGING_OBJECT_TAGS);
+
+        int batchSize = Math.max(1, BatchConfiguration.getBatchSize());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        long written = 0L;
+        for (Map.Entry<String, long[]> group : groups.entrySet()) {
+            String tag = levelPrefix + group.getKey();
+            for (long id : group.getValue()) {
+                rows.add(Map.of("id", id, "tag", tag));
+                if (rows.size() < batchSize) continue;
+
+                neo4jAL.executeQuery(req, Map.of("rows", rows));
+                written += rows.size();
+                rows = new ArrayList<>();
+            }
+        }
+        if (!rows.isEmpty()) {
+            neo4jAL.executeQuery(req, Map.of("rows", rows));
+            written += rows.size();
+        }
+
+        neo4jAL.logInfo(
+                String.format(
+                        "Community detection : %d groups written on %d objects in application '%s'.",
+                        groups.size(), written, application));
+    }
+
+    /**
+     * Outcome of a detection
+     */
+    public static class Report {
+        private final String application;
+        private final long numObjects;
+        private final long numRelationships;
+        private final List<LabelPropagation.IterationReport> iterations;
+        private final Map<String, long[]> groups;
+        private final boolean written;
+        private final long duration;
+
+        public Report(
+                String application,
+                long numObjects,
+                long numRelationships,
+                List<LabelPropagation.IterationReport> iterations,
+                Map<String, long[]> groups,
+                boolean written,
+                long duration) {
+            this.application = application;
+            this.numObjects = numObjects;
+            this.numRelationships = numRelationships;
+            this.iterations = iterations;
+            this.groups = groups;
+            this.written = written;
+            this.duration = duration;
+        }
+
+        public String getApplication() {
+            return application;
+        }
+
+        public long getNumObjects() {
+            return numObjects;
+        }
+
+        public long getNumRelationships() {
+            return numRelationships;
+        }
+
+        public List<LabelPropagation.IterationReport> getIterations() {
+            return iterations;
+        }
+
+        /**
+         * @return The ids of the objects per group, the largest first
+         */
+        public Map<String, long[]> getGroups() {
+            return groups;
+        }
+
+        public boolean isWritten() {
+            return written;
+        }
+
+        public long getDuration() {
+            return duration;
+        }
+
+        /**
+         * @return The modularity of the last iteration
+         */
+        public double getModularity() {
+            return iterations.isEmpty() ? 0.0 : iterations.get(iterations.size() - 1).getModularity();
+        }
+    }
+
+    public CommunityDetectionService() {
+    }
+}
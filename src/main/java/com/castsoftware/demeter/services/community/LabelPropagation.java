@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.community;
+
+import org.eclipse.collections.impl.map.mutable.primitive.IntIntHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel label propagation. Each object takes the community most represented among its neighbours
+ * and itself, a tie takes the smallest community. The ranges of objects are processed by the workers
+ * of a fork-join pool. The labels of an iteration are only computed from the labels of the previous
+ * one, so the communities found don't depend on the scheduling of the workers, and two runs on the
+ * same graph return the same communities.
+ */
+public class LabelPropagation {
+
+    private static final int TASK_SIZE = 4096;
+
+    /**
+     * Run the propagation until the share of objects changing of community goes under the tolerance
+     *
+     * @param graph         Projection of the call graph
+     * @param pool          Pool of workers
+     * @param maxIterations Maximum number of iterations
+     * @param tolerance     Share of objects changing below which the propagation stops
+     * @return The community of each object and the report of each iteration
+     */
+    public static Outcome run(CallGraph graph, ForkJoinPool pool, int maxIterations, double tolerance) {
+        int n = graph.getNodeCount();
+        int[] labels = new int[n];
+        for (int i = 0; i < n; i++) {
+            labels[i] = i;
+        }
+
+        int[] next = new int[n];
+
+        List<IterationReport> reports = new ArrayList<>();
+        for (int iteration = 1; iteration <= maxIterations && n > 0; iteration++) {
+            long start = System.currentTimeMillis();
+
+            long changed = pool.invoke(new PropagateTask(graph, labels, next, 0, n));
+            int[] previous = labels;
+            labels = next;
+            next = previous;
+
+            double modularity = modularity(graph, labels, pool);
+
+            reports.add(
+                    new IterationReport(
+                            iteration, changed, countCommunities(labels), modularity,
+                            System.currentTimeMillis() - start));
+
+            if (changed <= tolerance * n) break;
+        }
+
+        return new Outcome(labels, reports);
+    }
+
+    /**
+     * Compute the modularity of a partition
+     *
+     * @param graph  Projection of the call graph
+     * @param labels Community of each object
+     * @param pool   Pool of workers
+     * @return The modularity, between -0.5 and 1
+     */
+    public static double modularity(CallGraph graph, int[] labels, ForkJoinPool pool) {
+        double total = graph.getTotalDegree();
+        if (total == 0) return 0.0;
+
+        long internal = pool.invoke(new InternalDegreeTask(graph, labels, 0, graph.getNodeCount()));
+
+        long[] degrees = new long[graph.getNodeCount()];
+        for (int i = 0; i < labels.length; i++) {
+            degrees[labels[i]] += graph.getDegree(i);
+        }
+        double expected = 0.0;
+        for (long d : degrees) {
+            expected += (d / total) * (d / total);
+        }
+
+        return internal / total - expected;
+    }
+
+    private static int countCommunities(int[] labels) {
+        boolean[] seen = new boolean[labels.length];
+        int count = 0;
+        for (int l : labels) {
+            if (!seen[l]) {
+                seen[l] = true;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Compute the new labels of a range of objects from the labels of the previous iteration, and
+     * count the changes
+     */
+    private static class PropagateTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 4710262301934170553L;
+
+        private final CallGraph graph;
+        private final int[] labels;
+        private final int[] next;
+        private final int from;
+        private final int to;
+
+        private PropagateTask(CallGraph graph, int[] labels, int[] next, int from, int to) {
+            this.graph = graph;
+            this.labels = labels;
+            this.next = next;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from > TASK_SIZE) {
+                int middle = (from + to) >>> 1;
+                PropagateTask left = new PropagateTask(graph, labels, next, from, middle);
+                left.fork();
+                long right = new PropagateTask(graph, labels, next, middle, to).compute();
+                return left.join() + right;
+            }
+
+            IntIntHashMap votes = new IntIntHashMap();
+            long changed = 0L;
+            for (int node = from; node < to; node++) {
+                int current = labels[node];
+                int degree = graph.getDegree(node);
+
+                // The object votes for its own community, so two neighbours don't swap forever
+                votes.clear();
+                votes.addToValue(current, 1);
+                for (int i = 0; i < degree; i++) {
+                    votes.addToValue(labels[graph.getNeighbour(node, i)], 1);
+                }
+
+                int best = current;
+                int bestVotes = votes.get(current);
+                for (int i = 0; i < degree; i++) {
+                    int candidate = labels[graph.getNeighbour(node, i)];
+                    int count = votes.get(candidate);
+                    if (count > bestVotes || (count == bestVotes && candidate < best)) {
+                        best = candidate;
+                        bestVotes = count;
+                    }
+                }
+
+                next[node] = best;
+                if (best != current) changed++;
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * Count the relationships of a range of objects ending in the same community
+     */
+    private static class InternalDegreeTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = -2361894057713402818L;
+
+        private final CallGraph graph;
+        private final int[] labels;
+        private final int from;
+        private final int to;
+
+        private InternalDegreeTask(CallGraph graph, int[] labels, int from, int to) {
+            this.graph = graph;
+            this.labels = labels;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from > TASK_SIZE) {
+                int middle = (from + to) >>> 1;
+                InternalDegreeTask left = new InternalDegreeTask(graph, labels, from, middle);
+                left.fork();
+                long right = new InternalDegreeTask(graph, labels, middle, to).compute();
+                return left.join() + right;
+            }
+
+            long internal = 0L;
+            for (int node = from; node < to; node++) {
+                for (int i = 0; i < graph.getDegree(node); i++) {
+                    if (labels[graph.getNeighbour(node, i)] == labels[node]) internal++;
+                }
+            }
+            return internal;
+        }
+    }
+
+    /**
+     * Communities found and reports of the iterations
+     */
+    public static class Outcome {
+        private final int[] labels;
+        private final List<IterationReport> iterations;
+
+        private Outcome(int[] labels, List<IterationReport> iterations) {
+            this.labels = labels;
+            this.iterations = iterations;
+        }
+
+        public int[] getLabels() {
+            return labels;
+        }
+
+        public List<IterationReport> getIterations() {
+            return iterations;
+        }
+    }
+
+    /**
+     * Report of one iteration
+     */
+    public static class IterationReport {
+        private final int iteration;
+        private final long changed;
+        private final int communities;
+        private final double modularity;
+        private final long duration;
+
+        private IterationReport(int iteration, long changed, int communities, double modularity, long duration) {
+            this.iteration = iteration;
+            this.changed = changed;
+            this.communities = communities;
+            this.modularity = modularity;
+            this.duration = duration;
+        }
+
+        public int getIteration() {
+            return iteration;
+        }
+
+        public long getChanged() {
+            return changed;
+        }
+
+        public int getCommunities() {
+            return communities;
+        }
+
+        public double getModularity() {
+            return modularity;
+        }
+
+        public long getDuration() {
+            return duration;
+        }
+    }
+
+    public LabelPropagation() {
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.configuration;
+
+import org.neo4j.graphdb.Label;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the active branches of a configuration. The snapshot only keeps the ids of
+ * the nodes found, so it can be shared between transactions.
+ */
+public class ActiveBranch {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final String configurationName;
+    private final Map<String, long[]> nodesByLabel;
+
+    public ActiveBranch(String configurationName, Map<String, long[]> nodesByLabel) {
+        this.configurationName = configurationName;
+        this.nodesByLabel = Collections.unmodifiableMap(nodesByLabel);
+    }
+
+    public String getConfigurationName() {
+        return configurationName;
+    }
+
+    /**
+     * Check if the label was collected in the snapshot
+     *
+     * @param label Label to check
+     * @return True if the snapshot contains the nodes of this label
+     */
+    public boolean isCollected(Label label) {
+        return nodesByLabel.containsKey(label.name());
+    }
+
+    /**
+     * Get the ids of the nodes with a specific label in the active branches
+     *
+     * @param label Label of the nodes
+     * @return A copy of the ids
+     */
+    public long[] getIds(Label label) {
+        long[] ids = nodesByLabel.get(label.name());
+        if (ids == null) return EMPTY;
+        return ids.clone();
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.configuration;
+
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jNoResult;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.models.Neo4jObject;
+import com.castsoftware.demeter.models.demeter.ConfigurationNode;
+import com.castsoftware.demeter.models.demeter.DocumentNode;
+import com.castsoftware.demeter.models.demeter.StatisticNode;
+import com.castsoftware.demeter.models.demeter.TagNode;
+import com.castsoftware.demeter.models.demeter.UseCaseNode;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Result;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ActiveBranchService {
+
+    private static final String ERROR_PREFIX = "ACTBSx";
+
+    // Snapshots per database and configuration
+    private static final Map<String, ActiveBranch> CACHE = new ConcurrentHashMap<>();
+    private static final AtomicLong GENERATION = new AtomicLong(0L);
+
+    /**
+     * Get the labels of the nodes composing a configuration
+     *
+     * @return The list of labels
+     */
+    public static List<Label> getConfigurationLabels() {
+        return List.of(
+                Label.label(ConfigurationNode.getLabel()),
+                Label.label(UseCaseNode.getLabel()),
+                Label.label(TagNode.getLabel()),
+                Label.label(StatisticNode.getLabel()),
+                Label.label(DocumentNode.getLabel()));
+    }
+
+    /**
+     * Get the labels collected in the snapshots
+     *
+     * @return The list of labels
+     */
+    private static List<Label> getCollectedLabels() {
+        return List.of(
+                Label.label(TagNode.getLabel()),
+                Label.label(StatisticNode.getLabel()),
+                Label.label(DocumentNode.getLabel()));
+    }
+
+    /**
+     * Drop all the snapshots. Called when a configuration node is modified.
+     */
+    public static void invalidate() {
+        GENERATION.incrementAndGet();
+        CACHE.clear();
+    }
+
+    /**
+     * Get the snapshot of the active branches of a configuration. The snapshot is built on the first
+     * call and kept until the configuration changes.
+     *
+     * @param neo4jAL           Neo4j Access Layer
+     * @param configurationName Name of the configuration
+     * @return The snapshot of the active branches
+     * @throws Neo4jBadRequestException If the configuration node is not in a correct format
+     * @throws Neo4jQueryException      If the request failed
+     * @throws Neo4jNoResult            If the configuration doesn't exist
+     */
+    public static ActiveBranch getActiveBranch(Neo4jAL neo4jAL, String configurationName)
+            throws Neo4jBadRequestException, Neo4jQueryException, Neo4jNoResult {
+        String key = neo4jAL.getDb().databaseName() + "/" + configurationName;
+        ActiveBranch branch = CACHE.get(key);
+        if (branch != null) return branch;
+
+        long generation = GENERATION.get();
+        branch = buildActiveBranch(neo4jAL, configurationName);
+
+        // Only keep the snapshot if no configuration changed during the walk
+        if (GENERATION.get() == generation) {
+            CACHE.put(key, branch);
+            if (GENERATION.get() != generation) CACHE.remove(key, branch);
+        }
+
+        return branch;
+    }
+
+    /**
+     * Get the nodes with a specific label in the active branches of a configuration
+     *
+     * @param neo4jAL           Neo4j Access Layer
+     * @param configurationName Name of the configuration
+     * @param toFind            Label of the nodes
+     * @return The set of nodes in the current transaction
+     * @throws Neo4jBadRequestException If the configuration node is not in a correct format
+     * @throws Neo4jQueryException      If the request failed
+     * @throws Neo4jNoResult            If the configuration doesn't exist
+     */
+    public static Set<Node> getNodes(Neo4jAL neo4jAL, String configurationName, Label toFind)
+            throws Neo4jBadRequestException, Neo4jQueryException, Neo4jNoResult {
+        ActiveBranch branch = getActiveBranch(neo4jAL, configurationName);
+        long[] ids;
+
+        if (branch.isCollected(toFind)) {
+            ids = branch.getIds(toFind);
+        } else {
+            ids = walkActiveBranches(neo4jAL, configurationName, List.of(toFind)).get(toFind.name());
+        }
+
+        Set<Node> nodes = new HashSet<>();
+        Node n;
+        for (long id : ids) {
+            n = neo4jAL.getNodeById(id);
+            if (n != null) nodes.add(n);
+        }
+        return nodes;
+    }
+
+    /**
+     * Build the snapshot of a configuration
+     *
+     * @param neo4jAL           Neo4j Access Layer
+     * @param configurationName Name of the configuration
+     * @return The snapshot
+     */
+    private static ActiveBranch buildActiveBranch(Neo4jAL neo4jAL, String configurationName)
+            throws Neo4jBadRequestException, Neo4jQueryException, Neo4jNoResult {
+        return new ActiveBranch(
+                configurationName, walkActiveBranches(neo4jAL, configurationName, getCollectedLabels()));
+    }
+
+    /**
+     * Walk the active branches of a configuration and collect the nodes matching the labels
+     *
+     * @param neo4jAL           Neo4j Access Layer
+     * @param configurationName Name of the configuration to parse
+     * @param toFind            Labels of the nodes to collect
+     * @return The ids of the nodes found per label
+     */
+    private static Map<String, long[]> walkActiveBranches(
+            Neo4jAL neo4jAL, String configurationName, List<Label> toFind)
+            throws Neo4jBadRequestException, Neo4jQueryException, Neo4jNoResult {
+        Label useCaseLabel = Label.label(UseCaseNode.getLabel());
+
+        String req =
+                String.format(
+                        "MATCH(o:%s) WHERE o.%s=$name RETURN o as res",
+                        ConfigurationNode.getLabel(), ConfigurationNode.getNameProperty());
+        Result result = neo4jAL.executeQuery(req, Map.of("name", configurationName));
+
+        if (!result.hasNext()) {
+            throw new Neo4jNoResult(
+                    String.format(
+                            "The request to find Configuration node with name \"%s\" didn't produced any result.",
+                            configurationName),
+                    req,
+                    ERROR_PREFIX + "GATG1");
+        }
+
+        Node confNode;
+        try {
+            confNode = (Node) result.next().get("res");
+        } catch (NoSuchElementException | NullPointerException e) {
+            throw new Neo4jBadRequestException(
+                    "Error the request didn't return results in a correct format.", req, e, ERROR_PREFIX + "GATG2");
+        }
+
+        // One matched set per label, so a node carrying several searched labels is kept for each
+        Map<String, LongArrayList> found = new HashMap<>();
+        Map<String, LongHashSet> matched = new HashMap<>();
+        for (Label l : toFind) {
+            found.put(l.name(), new LongArrayList());
+            matched.put(l.name(), new LongHashSet());
+        }
+
+        // Iterate over Active Use Case
+        Deque<Node> toVisit = new ArrayDeque<>();
+        LongHashSet visited = new LongHashSet();
+        toVisit.push(confNode);
+
+        while (!toVisit.isEmpty()) {
+            Node n = toVisit.pop();
+            if (!visited.add(n.getId())) continue;
+
+            // Check the activation value if useCase Node
+            if (n.hasLabel(useCaseLabel)) {
+                boolean active =
+                        Neo4jObject.castPropertyToBoolean(n.getProperty(UseCaseNode.getActiveProperty()));
+                boolean selected =
+                        Neo4jObject.castPropertyToBoolean(n.getProperty(UseCaseNode.getSelectedProperty()));
+
+                if (!active || !selected) continue;
+            }
+
+            for (Relationship rel : n.getRelationships(Direction.OUTGOING)) {
+                Node otherNode = rel.getEndNode();
+
+                if (!visited.contains(otherNode.getId())) {
+                    toVisit.push(otherNode);
+                }
+
+                for (Label l : toFind) {
+                    if (otherNode.hasLabel(l) && matched.get(l.name()).add(otherNode.getId())) {
+                        found.get(l.name()).add(otherNode.getId());
+                    }
+                }
+            }
+        }
+
+        Map<String, long[]> returnMap = new HashMap<>();
+        for (Map.Entry<String, LongArrayList> en : found.entrySet()) {
+            returnMap.put(en.getKey(), en.getValue().toArray());
+        }
+        return returnMap;
+    }
+
+    public ActiveBranchService() {
+    }
+}
@@ -0,0 +1,630 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.configuration;
+
+import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.controllers.configuration.TagController;
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.file.FileIOException;
+import com.castsoftware.demeter.exceptions.file.MissingFileException;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jConnectionError;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.models.demeter.ConfigurationNode;
+import com.castsoftware.demeter.models.demeter.DocumentNode;
+import com.castsoftware.demeter.models.demeter.StatisticNode;
+import com.castsoftware.demeter.models.demeter.TagNode;
+import com.castsoftware.demeter.models.demeter.UseCaseNode;
+import com.castsoftware.demeter.services.tags.TagCostService;
+import com.castsoftware.demeter.utils.Workspace;
+import com.castsoftware.demeter.utils.configuration.BatchConfiguration;
+import com.castsoftware.demeter.utils.configuration.ParallelConfiguration;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.logging.Log;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Import a catalogue of use cases, tags, statistics and documents from a CSV file. The file is
+ * streamed and processed by batches : the requests of the tags are validated in parallel, in read
+ * transactions, then the nodes of the batch are written in a single transaction.
+ *
+ * <p>Columns of the catalogue ( header case is ignored ) :
+ *
+ * <ul>
+ *   <li>Type : UseCase, Tag, Statistic or Document
+ *   <li>Path : Name of the configuration, followed by the names of the parent use cases, separated
+ *       by '/'
+ *   <li>Name : Name of the use case or the statistic, tag applied, or title of the document
+ *   <li>Request, Active, Selected, Description, Categories, DocumentDescription : Optional
+ * </ul>
+ *
+ * A parent use case must be declared before its children, or already exist in the database. The
+ * rows already present are updated, so a catalogue can be imported several times.
+ */
+public class ConfigurationImportService {
+
+    private static final String ERROR_PREFIX = "CIMPx";
+    private static final String PATH_SEPARATOR = "/";
+
+    private static final String USE_CASE_RELATIONSHIP =
+            Configuration.get("neo4j.relationships.use_case.to_use_case");
+    private static final String TAG_RELATIONSHIP =
+            Configuration.get("neo4j.relationships.use_case.to_tag");
+    private static final String STATISTIC_RELATIONSHIP =
+            Configuration.get("neo4j.relationships.use_case.to_stats");
+    private static final String DOCUMENT_RELATIONSHIP =
+            Configuration.get("neo4j.relationships.use_case.to_document");
+    private static final String DEFAULT_SELECTED_VALUE =
+            Configuration.get("neo4j.nodes.default.selected");
+
+    /**
+     * Resolve the path of a catalogue. Relative paths are resolved in the workspace.
+     *
+     * @param path Path provided by the user
+     * @return The resolved path
+     */
+    public static Path resolvePath(String path) {
+        Path p = Paths.get(path);
+        return p.isAbsolute() ? p : Workspace.getWorkspace().resolve(p);
+    }
+
+    /**
+     * Import a catalogue
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @param path    Path of the CSV file
+     * @return The report of each row, in the order of the file
+     * @throws MissingFileException If the file doesn't exist
+     * @throws FileIOException      If the file couldn't be read. The previous batches stay committed.
+     * @throws Neo4jQueryException  If the import was interrupted
+     */
+    public static List<RowReport> importCatalogue(Neo4jAL neo4jAL, Path path)
+            throws MissingFileException, FileIOException, Neo4jQueryException {
+        if (!Files.isRegularFile(path)) {
+            throw new MissingFileException(
+                    "The catalogue to import doesn't exist", path.toString(), ERROR_PREFIX + "IMPC1");
+        }
+
+        GraphDatabaseService db = neo4jAL.getDb();
+        Log log = neo4jAL.getLogger();
+        int batchSize = Math.max(1, BatchConfiguration.getImportBatchSize());
+
+        List<RowReport> reports = new ArrayList<>();
+        Map<String, Long> parents = new HashMap<>(); // Path to the id of the node, committed only
+        ExecutorService executor = Executors.newFixedThreadPool(ParallelConfiguration.getWorkers());
+
+        CSVFormat format =
+                CSVFormat.DEFAULT
+                        .withFirstRecordAsHeader()
+                        .withIgnoreHeaderCase()
+                        .withIgnoreEmptyLines()
+                        .withTrim();
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+             CSVParser parser = format.parse(reader)) {
+            List<Row> batch = new ArrayList<>();
+
+            for (CSVRecord record : parser) {
+                batch.add(Row.fromRecord(record, parser.getCurrentLineNumber()));
+                if (batch.size() < batchSize) continue;
+
+                processBatch(db, log, executor, batch, parents);
+                batch.forEach(r -> reports.add(r.toReport()));
+                batch = new ArrayList<>();
+                neo4jAL.logInfo(String.format("Catalogue import : %d rows processed.", reports.size()));
+            }
+
+            if (!batch.isEmpty()) {
+                processBatch(db, log, executor, batch, parents);
+                batch.forEach(r -> reports.add(r.toReport()));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The parser reports the errors of the reader as IllegalStateException
+            throw new FileIOException(
+                    "Failed to read the catalogue", path.toString(), e, ERROR_PREFIX + "IMPC2");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Neo4jQueryException(
+                    "The import of the catalogue was interrupted.", e, ERROR_PREFIX + "IMPC3");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long failed = reports.stream().filter(r -> !r.isSuccess()).count();
+        neo4jAL.logInfo(
+                String.format(
+                        "Catalogue '%s' imported : %d rows, %d failed.", path, reports.size(), failed));
+        return reports;
+    }
+
+    /**
+     * Validate then write one batch of rows. If the transaction fails, the whole batch is reported as
+     * failed.
+     */
+    private static void processBatch(
+            GraphDatabaseService db,
+            Log log,
+            ExecutorService executor,
+            List<Row> batch,
+            Map<String, Long> parents)
+            throws InterruptedException {
+        validate(db, log, executor, batch);
+
+        Map<String, Long> resolved = new HashMap<>();
+        try (Transaction tx = db.beginTx()) {
+            // Use cases first, in the order of the file, so the other rows can be attached to them
+            for (Row row : batch) {
+                if (row.type == RowType.USE_CASE && !row.isFailed()) {
+                    writeUseCase(tx, row, parents, resolved);
+                }
+            }
+
+            for (RowType type : List.of(RowType.TAG, RowType.STATISTIC, RowType.DOCUMENT)) {
+                writeLeaves(tx, type, batch, parents, resolved);
+            }
+
+            tx.commit();
+            parents.putAll(resolved);
+        } catch (Exception e) {
+            log.error("Demeter :: Failed to write a batch of the catalogue.", e);
+            for (Row row : batch) {
+                if (row.isFailed()) continue;
+                row.nodeId = null;
+                row.error = "The batch was rolled back : " + e.getMessage();
+            }
+        }
+    }
+
+    /**
+     * Validate the requests of the tags in parallel. Each validation runs in its own transaction,
+     * which is never committed.
+     */
+    private static void validate(
+            GraphDatabaseService db, Log log, ExecutorService executor, List<Row> batch)
+            throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>();
+        for (Row row : batch) {
+            if (row.type == RowType.TAG && !row.isFailed()) {
+                futures.add(executor.submit(() -> validateTag(db, log, row)));
+            }
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                log.error("Demeter :: Failed to validate a request of the catalogue.", e.getCause());
+            }
+        }
+    }
+
+    private static void validateTag(GraphDatabaseService db, Log log, Row row) {
+        try (Transaction tx = db.beginTx()) {
+            Neo4jAL nal = new Neo4jAL(db, tx, log);
+            Optional<TagCostService.TagCost> cost = TagController.estimateQuery(nal, row.request);
+
+            if (cost.isEmpty()) {
+                row.error = "The request provided is in incorrect format.";
+            } else if (cost.get().isOverBudget() && TagCostService.isRejecting()) {
+                row.error =
+                        String.format(
+                                "The request provided exceeds the cost budget ( %s for a budget of %d ).",
+                                cost.get().describe(), TagCostService.getBudget());
+            } else {
+                row.cost = cost.get();
+            }
+        } catch (Exception | Neo4jConnectionError e) {
+            row.error = "Failed to validate the request : " + e.getMessage();
+        }
+    }
+
+    /**
+     * Find or create a use case under its parent
+     */
+    private static void writeUseCase(
+            Transaction tx, Row row, Map<String, Long> parents, Map<String, Long> resolved) {
+        Long parentId = resolveParent(tx, row.path, parents, resolved);
+        if (parentId == null) {
+            row.error = String.format("No parent found with path '%s'.", row.path);
+            return;
+        }
+
+        Node parent = tx.getNodeById(parentId);
+        Node n = findChildUseCase(parent, row.name);
+        if (n == null) {
+            n = tx.createNode(Label.label(UseCaseNode.getLabel()));
+            n.setProperty(UseCaseNode.getNameProperty(), row.name);
+            parent.createRelationshipTo(n, RelationshipType.withName(USE_CASE_RELATIONSHIP));
+        }
+        n.setProperty(UseCaseNode.getActiveProperty(), row.active);
+        n.setProperty(UseCaseNode.getSelectedProperty(), row.selected);
+
+        row.nodeId = n.getId();
+        resolved.put(normalize(row.path) + PATH_SEPARATOR + row.name, n.getId());
+    }
+
+    /**
+     * Write all the rows of a type with a single batched query. A node is identified by its parent,
+     * its name and its request.
+     */
+    private static void writeLeaves(
+            Transaction tx,
+            RowType type,
+            List<Row> batch,
+            Map<String, Long> parents,
+            Map<String, Long> resolved) {
+        List<Map<String, Object>> params = new ArrayList<>();
+
+        for (int i = 0; i < batch.size(); i++) {
+            Row row = batch.get(i);
+            if (row.type != type || row.isFailed()) continue;
+
+            Long parentId = resolveParent(tx, row.path, parents, resolved);
+            if (parentId == null
+                    || !tx.getNodeById(parentId).hasLabel(Label.label(UseCaseNode.getLabel()))) {
+                row.error = String.format("No use case found with path '%s'.", row.path);
+                continue;
+            }
+
+            params.add(
+                    Map.of(
+                            "index", (long) i,
+                            "parent", parentId,
+                            "name", row.name,
+                            "request", row.request,
+                            "properties", getProperties(row)));
+        }
+        if (params.isEmpty()) return;
+
+        String req =
+                String.format(
+                        "UNWIND $rows AS row "
+                                + "MATCH (p:`%s`) WHERE ID(p)=row.parent "
+                                + "MERGE (p)-[:`%s`]->(n:`%s` { `%s`: row.name, `%s`: row.request }) "
+                                + "SET n += row.properties "
+                                + "RETURN row.index AS index, ID(n) AS id",
+                        UseCaseNode.getLabel(),
+                        type.getRelationship(),
+                        type.getLabel(),
+                        type.getNameProperty(),
+                        type.getRequestProperty());
+
+        Result res = tx.execute(req, Map.of("rows", params));
+        while (res.hasNext()) {
+            Map<String, Object> record = res.next();
+            batch.get(((Long) record.get("index")).intValue()).nodeId = (Long) record.get("id");
+        }
+    }
+
+    private static Map<String, Object> getProperties(Row row) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(row.type.getActiveProperty(), row.active);
+
+        switch (row.type) {
+            case TAG:
+                properties.put(TagNode.getDescriptionProperty(), row.description);
+                properties.put(TagNode.getCategoriesProperty(), row.categories);
+                if (row.cost != null) {
+                    properties.put(TagNode.getEstimatedRowsProperty(), row.cost.getEstimatedRows());
+                    properties.put(TagNode.getDbHitsProperty(), row.cost.getDbHits());
+                    properties.put(
+                            TagNode.getCostWarningsProperty(), row.cost.getWarnings().toArray(new String[0]));
+                    properties.put(TagNode.getCostFlaggedProperty(), row.cost.isOverBudget());
+                }
+                break;
+            case STATISTIC:
+                properties.put(StatisticNode.getDescriptionProperty(), row.description);
+                break;
+            case DOCUMENT:
+                properties.put(DocumentNode.getDescriptionProperty(), row.description);
+                properties.put(DocumentNode.getDocumentDescriptionProperty(), row.documentDescription);
+                break;
+            default:
+                break;
+        }
+        return properties;
+    }
+
+    /**
+     * Get the node at the end of a path. The first element is the name of a configuration, the
+     * following ones are the names of the use cases.
+     *
+     * @return The id of the node, or null if the path doesn't exist
+     */
+    private static Long resolveParent(
+            Transaction tx, String path, Map<String, Long> parents, Map<String, Long> resolved) {
+        String key = normalize(path);
+        if (resolved.containsKey(key)) return resolved.get(key);
+        if (parents.containsKey(key)) return parents.get(key);
+
+        String[] names = key.split(PATH_SEPARATOR);
+        Node current = null;
+        try (ResourceIterator<Node> it =
+                     tx.findNodes(
+                             Label.label(ConfigurationNode.getLabel()),
+                             ConfigurationNode.getNameProperty(),
+                             names[0])) {
+            if (it.hasNext()) current = it.next();
+        }
+
+        for (int i = 1; i < names.length && current != null; i++) {
+            current = findChildUseCase(current, names[i]);
+        }
+        if (current == null) return null;
+
+        // Kept until the end of the transaction, the node may have been created by this batch
+        resolved.put(key, current.getId());
+        return current.getId();
+    }
+
+    private static Node findChildUseCase(Node parent, String name) {
+        Label useCaseLabel = Label.label(UseCaseNode.getLabel());
+        for (Relationship rel :
+                parent.getRelationships(Direction.OUTGOING, RelationshipType.withName(USE_CASE_RELATIONSHIP))) {
+            Node child = rel.getEndNode();
+            if (child.hasLabel(useCaseLabel)
+                    && name.equals(child.getProperty(UseCaseNode.getNameProperty(), null))) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private static String normalize(String path) {
+        return Arrays.stream(path.split(PATH_SEPARATOR))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.joining(PATH_SEPARATOR));
+    }
+
+    /**
+     * Types of the rows in the catalogue
+     */
+    private enum RowType {
+        USE_CASE("UseCase"),
+        TAG("Tag"),
+        STATISTIC("Statistic"),
+        DOCUMENT("Document");
+
+        private final String name;
+
+        RowType(String name) {
+            this.name = name;
+        }
+
+        public static RowType fromName(String name) {
+            for (RowType t : values()) {
+                if (t.name.equalsIgnoreCase(name)) return t;
+            }
+            return null;
+        }
+
+        public String getLabel() {
+            switch (this) {
+                case TAG:
+                    return TagNode.getLabel();
+                case STATISTIC:
+                    return StatisticNode.getLabel();
+                case DOCUMENT:
+                    return DocumentNode.getLabel();
+                default:
+                    return UseCaseNode.getLabel();
+            }
+        }
+
+        public String getRelationship() {
+            switch (this) {
+                case TAG:
+                    return TAG_RELATIONSHIP;
+                case STATISTIC:
+                    return STATISTIC_RELATIONSHIP;
+                case DOCUMENT:
+                    return DOCUMENT_RELATIONSHIP;
+                default:
+                    return USE_CASE_RELATIONSHIP;
+            }
+        }
+
+        public String getNameProperty() {
+            switch (this) {
+                case TAG:
+                    return TagNode.getTagProperty();
+                case STATISTIC:
+                    return StatisticNode.getNameProperty();
+                case DOCUMENT:
+                    return DocumentNode.getTitleProperty();
+                default:
+                    return UseCaseNode.getNameProperty();
+            }
+        }
+
+        public String getRequestProperty() {
+            switch (this) {
+                case TAG:
+                    return TagNode.getRequestProperty();
+                case STATISTIC:
+                    return StatisticNode.getRequestProperty();
+                default:
+                    return DocumentNode.getRequestProperty();
+            }
+        }
+
+        public String getActiveProperty() {
+            switch (this) {
+                case TAG:
+                    return TagNode.getActiveProperty();
+                case STATISTIC:
+                    return StatisticNode.getActiveProperty();
+                case DOCUMENT:
+                    return DocumentNode.getActiveProperty();
+                default:
+                    return UseCaseNode.getActiveProperty();
+            }
+        }
+    }
+
+    /**
+     * Row of the catalogue, and its outcome
+     */
+    private static class Row {
+        private final long line;
+        private String typeName;
+        private RowType type;
+        private String path;
+        private String name;
+        private String request;
+        private boolean active;
+        private boolean selected;
+        private String description;
+        private String categories;
+        private String documentDescription;
+
+        private TagCostService.TagCost cost;
+        private Long nodeId;
+        private String error;
+
+        private Row(long line) {
+            this.line = line;
+        }
+
+        private static String get(CSVRecord record, String column) {
+            return record.isMapped(column) && record.isSet(column) ? record.get(column) : "";
+        }
+
+        private static boolean getBoolean(CSVRecord record, String column, boolean defaultValue) {
+            String value = get(record, column);
+            return value.isEmpty() ? defaultValue : Boolean.parseBoolean(value);
+        }
+
+        public static Row fromRecord(CSVRecord record, long line) {
+            Row row = new Row(line);
+            row.typeName = get(record, "Type");
+            row.type = RowType.fromName(row.typeName);
+            row.path = get(record, "Path");
+            row.name = get(record, "Name");
+            row.request = get(record, "Request");
+            row.active = getBoolean(record, "Active", true);
+            row.selected = getBoolean(record, "Selected", Boolean.parseBoolean(DEFAULT_SELECTED_VALUE));
+            row.description = get(record, "Description");
+            row.categories = get(record, "Categories");
+            row.documentDescription = get(record, "DocumentDescription");
+
+            if (row.type == null) {
+                row.error =
+                        String.format(
+                                "Unknown type '%s'. Expected UseCase, Tag, Statistic or Document.", row.typeName);
+            } else if (normalize(row.path).isEmpty()) {
+                row.error = "The 'Path' column must not be empty.";
+            } else if (row.name.isEmpty()) {
+                row.error = "The 'Name' column must not be empty.";
+            } else if (row.type != RowType.USE_CASE && row.request.isEmpty()) {
+                row.error = "The 'Request' column must not be empty.";
+            }
+            return row;
+        }
+
+        public boolean isFailed() {
+            return error != null;
+        }
+
+        public RowReport toReport() {
+            boolean success = !isFailed() && nodeId != null;
+            String message = success ? "" : (error != null ? error : "The row was not written.");
+            return new RowReport(line, typeName, path, name, success, success ? nodeId : -1L, message);
+        }
+    }
+
+    /**
+     * Outcome of the import of one row
+     */
+    public static class RowReport {
+        private final long line;
+        private final String type;
+        private final String path;
+        private final String name;
+        private final boolean success;
+        private final long nodeId;
+        private final String message;
+
+        public RowReport(
+                long line, String type, String path, String name, boolean success, long nodeId, String message) {
+            this.line = line;
+            this.type = type;
+            this.path = path;
+            this.name = name;
+            this.success = success;
+            this.nodeId = nodeId;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public long getNodeId() {
+            return nodeId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    public ConfigurationImportService() {
+    }
+}
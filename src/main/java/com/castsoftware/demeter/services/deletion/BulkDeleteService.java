@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.deletion;
+
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.utils.configuration.BatchConfiguration;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.neo4j.graphdb.*;
+
+/**
+ * Delete nodes and their relationships by bounded batches. Each batch is committed in its own
+ * transaction, so the deletion of a large number of nodes doesn't have to fit in memory.
+ * The nodes to delete must not have been modified by the transaction of the caller.
+ */
+public class BulkDeleteService {
+
+    private static final String ERROR_PREFIX = "BULDx";
+
+    /**
+     * Delete all the nodes with a label
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @param label   Label of the nodes to delete
+     * @return The report of the deletion
+     * @throws Neo4jQueryException If one of the batches failed
+     */
+    public static DeleteReport deleteByLabel(Neo4jAL neo4jAL, Label label) throws Neo4jQueryException {
+        LongArrayList ids = new LongArrayList();
+        try (ResourceIterator<Node> it = neo4jAL.getTransaction().findNodes(label)) {
+            while (it.hasNext()) {
+                ids.add(it.next().getId());
+            }
+        }
+        return delete(neo4jAL, ids.toArray(), label.name());
+    }
+
+    /**
+     * Delete a list of nodes and their relationships. The nodes already deleted are ignored.
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @param ids     Ids of the nodes to delete
+     * @param name    Name of the deletion, used in the progress messages
+     * @return The report of the deletion
+     * @throws Neo4jQueryException If one of the batches failed. The previous batches stay committed.
+     */
+    public static DeleteReport delete(Neo4jAL neo4jAL, long[] ids, String name)
+            throws Neo4jQueryException {
+        GraphDatabaseService db = neo4jAL.getDb();
+        int batchSize = Math.max(1, BatchConfiguration.getDeleteBatchSize());
+        DeleteReport report = new DeleteReport();
+
+        int index = 0;
+        while (index < ids.length) {
+            try (Transaction tx = db.beginTx()) {
+                int operations = 0;
+                boolean full = false;
+
+                while (index < ids.length && !full) {
+                    Node n;
+                    try {
+                        n = tx.getNodeById(ids[index]);
+                    } catch (NotFoundException e) {
+                        index++; // Already deleted
+                        continue;
+                    }
+
+                    // Relationships of a node with a high degree can be split over several batches
+                    for (Relationship r : n.getRelationships()) {
+                        if (operations >= batchSize) {
+                            full = true;
+                            break;
+                        }
+                        r.delete();
+                        operations++;
+                        report.relationships++;
+                    }
+                    if (full) break;
+
+                    n.delete();
+                    operations++;
+                    report.nodes++;
+                    index++;
+                }
+
+                tx.commit();
+                report.batches++;
+            } catch (Exception e) {
+                throw new Neo4jQueryException(
+                        String.format(
+                                "Bulk deletion of '%s' failed after %d nodes and %d relationships.",
+                                name, report.nodes, report.relationships),
+                        e,
+                        ERROR_PREFIX + "DELE1");
+            }
+
+            neo4jAL.logInfo(
+                    String.format(
+                            "Bulk deletion of '%s' : %d/%d nodes processed, %d nodes and %d relationships deleted.",
+                            name, index, ids.length, report.nodes, report.relationships));
+        }
+
+        return report;
+    }
+
+    /**
+     * Result of a bulk deletion
+     */
+    public static class DeleteReport {
+        private long nodes = 0L;
+        private long relationships = 0L;
+        private int batches = 0;
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getRelationships() {
+            return relationships;
+        }
+
+        public int getBatches() {
+            return batches;
+        }
+    }
+
+    public BulkDeleteService() {
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.execution;
+
+import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.TaggingException;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.TransactionTerminatedException;
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.logging.Log;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run the requests of the tags, documents and statistics in their own transaction, with a timeout.
+ * A request overrunning its timeout is terminated by the database and rolled back, without
+ * affecting the other ones.
+ */
+public class GuardedExecutionService {
+
+    private static final String STATUS_PROPERTY = Configuration.get("demeter.execution.property.status");
+    private static final String DURATION_PROPERTY =
+            Configuration.get("demeter.execution.property.duration");
+    private static final String MESSAGE_PROPERTY = Configuration.get("demeter.execution.property.message");
+    private static final String DATE_PROPERTY = Configuration.get("demeter.execution.property.date");
+
+    private static final long DEFAULT_TIMEOUT = 300000L;
+
+    /**
+     * Outcome of a guarded execution
+     */
+    public enum ExecutionStatus {
+        COMPLETED,
+        TIMED_OUT,
+        FAILED
+    }
+
+    /**
+     * Work executed in the child transaction
+     *
+     * @param <T> Type of the result
+     */
+    public interface Work<T> {
+        T execute(Neo4jAL neo4jAL) throws Exception, TaggingException;
+    }
+
+    /**
+     * Get the maximum duration of a request
+     *
+     * @return The timeout in milliseconds, 0 or less to disable it
+     */
+    public static long getTimeout() {
+        try {
+            return Long.parseLong(Configuration.getBestOfALl("demeter.execution.timeout"));
+        } catch (NumberFormatException | NullPointerException e) {
+            return DEFAULT_TIMEOUT;
+        }
+    }
+
+    /**
+     * Get the properties written on the nodes by {@link #record(Node, Outcome)}
+     *
+     * @return The list of property names
+     */
+    public static List<String> getStatusProperties() {
+        return List.of(STATUS_PROPERTY, DURATION_PROPERTY, MESSAGE_PROPERTY, DATE_PROPERTY);
+    }
+
+    /**
+     * Run a work in a child transaction of the database of an access layer
+     *
+     * @param neo4jAL Neo4j Access Layer of the caller
+     * @param work    Work to execute
+     * @param <T>     Type of the result
+     * @return The outcome of the execution
+     */
+    public static <T> Outcome<T> run(Neo4jAL neo4jAL, Work<T> work) {
+        return run(neo4jAL.getDb(), neo4jAL.getLogger(), work);
+    }
+
+    /**
+     * Run a work in a child transaction with the configured timeout. The transaction is committed if
+     * the work completes, and rolled back otherwise.
+     *
+     * @param db   Database
+     * @param log  Logger
+     * @param work Work to execute
+     * @param <T>  Type of the result
+     * @return The outcome of the execution
+     */
+    public static <T> Outcome<T> run(GraphDatabaseService db, Log log, Work<T> work) {
+        long timeout = getTimeout();
+        long start = System.currentTimeMillis();
+
+        try (Transaction tx =
+                     timeout > 0 ? db.beginTx(timeout, TimeUnit.MILLISECONDS) : db.beginTx()) {
+            T value = work.execute(new Neo4jAL(db, tx, log));
+            tx.commit();
+            return new Outcome<>(ExecutionStatus.COMPLETED, value, "", System.currentTimeMillis() - start);
+        } catch (Exception | TaggingException e) {
+            long duration = System.currentTimeMillis() - start;
+            if (isTimeout(e, timeout, duration)) {
+                return new Outcome<>(
+                        ExecutionStatus.TIMED_OUT,
+                        null,
+                        String.format("The request was terminated after %d ms.", duration),
+                        duration);
+            }
+            log.error("The guarded execution failed.", e);
+            return new Outcome<>(ExecutionStatus.FAILED, null, String.valueOf(e.getMessage()), duration);
+        }
+    }
+
+    /**
+     * Write the outcome of the last execution on a node
+     *
+     * @param node    Tag, document or statistic node
+     * @param outcome Outcome of its execution
+     */
+    public static void record(Node node, Outcome<?> outcome) {
+        node.setProperty(STATUS_PROPERTY, outcome.getStatus().name());
+        node.setProperty(DURATION_PROPERTY, outcome.getDuration());
+        node.setProperty(MESSAGE_PROPERTY, outcome.getMessage());
+        node.setProperty(DATE_PROPERTY, System.currentTimeMillis());
+    }
+
+    private static boolean isTimeout(Throwable e, long timeout, long duration) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof Status.HasStatus
+                    && ((Status.HasStatus) t).status()
+                    == Status.Transaction.TransactionTimedOut) {
+                return true;
+            }
+            if (t instanceof TransactionTerminatedException && timeout > 0 && duration >= timeout) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Result of a guarded execution
+     *
+     * @param <T> Type of the result
+     */
+    public static class Outcome<T> {
+        private final ExecutionStatus status;
+        private final T value;
+        private final String message;
+        private final long duration;
+
+        public Outcome(ExecutionStatus status, T value, String message, long duration) {
+            this.status = status;
+            this.value = value;
+            this.message = message;
+            this.duration = duration;
+        }
+
+        public ExecutionStatus getStatus() {
+            return status;
+        }
+
+        public boolean isCompleted() {
+            return status == ExecutionStatus.COMPLETED;
+        }
+
+        /**
+         * @return The result of the work, null if it didn't complete
+         */
+        public T getValue() {
+            return value;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public long getDuration() {
+            return duration;
+        }
+    }
+
+    public GuardedExecutionService() {
+    }
+}
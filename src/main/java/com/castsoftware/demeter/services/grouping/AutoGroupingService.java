@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.grouping;
+
+import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jConnectionError;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.logging.Log;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalescing queue launching the grouping of an application once its Demeter tags stopped changing
+ * for a quiet period.
+ */
+public class AutoGroupingService {
+
+    private static final long DEFAULT_QUIET_PERIOD = 5000L;
+
+    // Read on every commit by the listener, so only refreshed when the configuration changes
+    private static volatile boolean enabled = readEnabled();
+
+    static {
+        Configuration.addReloadListener(AutoGroupingService::refresh);
+    }
+
+    private final GraphDatabaseService db;
+    private final Log log;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, ScheduledFuture<?>> pending;
+
+    public AutoGroupingService(GraphDatabaseService db, Log log) {
+        this.db = db;
+        this.log = log;
+        this.scheduler =
+                Executors.newSingleThreadScheduledExecutor(
+                        r -> {
+                            Thread t = new Thread(r, "demeter-auto-grouping");
+                            t.setDaemon(true);
+                            return t;
+                        });
+        this.pending = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Check if the automatic grouping is enabled in the configuration
+     *
+     * @return True if enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Read again the automatic grouping flag from the configuration
+     */
+    public static void refresh() {
+        enabled = readEnabled();
+    }
+
+    private static boolean readEnabled() {
+        return Boolean.parseBoolean(Configuration.getBestOfALl("demeter.auto_grouping.enabled"));
+    }
+
+    /**
+     * Get the quiet period to wait before launching a grouping
+     *
+     * @return The period in milliseconds
+     */
+    public static long getQuietPeriod() {
+        try {
+            return Long.parseLong(Configuration.getBestOfALl("demeter.auto_grouping.quiet_period"));
+        } catch (NumberFormatException | NullPointerException e) {
+            return DEFAULT_QUIET_PERIOD;
+        }
+    }
+
+    /**
+     * Schedule the grouping of an application. If a grouping is already waiting for this application,
+     * it is postponed to the end of the new quiet period.
+     *
+     * @param application Name of the application
+     * @param type        Type of grouping to launch
+     */
+    public void schedule(String application, GroupingType type) {
+        String key = type.name() + "/" + application;
+        pending.compute(
+                key,
+                (k, previous) -> {
+                    if (previous != null) previous.cancel(false);
+                    return scheduler.schedule(
+                            () -> run(key, application, type), getQuietPeriod(), TimeUnit.MILLISECONDS);
+                });
+    }
+
+    /**
+     * Get the number of groupings waiting for their quiet period
+     *
+     * @return Number of groupings scheduled
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Stop the scheduler, pending groupings are dropped
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        pending.clear();
+    }
+
+    private void run(String key, String application, GroupingType type) {
+        pending.remove(key);
+
+        try (Transaction tx = db.beginTx()) {
+            Neo4jAL nal = new Neo4jAL(db, tx, log);
+            nal.logInfo(
+                    String.format(
+                            "Automatic %s grouping launched on application '%s'.",
+                            type.name().toLowerCase(), application));
+
+            ParallelGroupingService.groupApplication(nal, type, application);
+
+            tx.commit();
+        } catch (Exception
+                | Neo4jConnectionError
+                | Neo4jQueryException
+                | Neo4jBadRequestException e) {
+            log.error(
+                    String.format(
+                            "Demeter :: Automatic %s grouping failed on application '%s'.",
+                            type.name().toLowerCase(), application),
+                    e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.grouping;
+
+import com.castsoftware.demeter.config.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefixes of the Demeter grouping tags, with the key of their value in the configuration
+ */
+public enum GroupingPrefix {
+    LEVEL("demeter.prefix.level_group"),
+    AGGREGATION("demeter.prefix.aggregation_group"),
+    MODULE("demeter.prefix.module_group"),
+    VIEW("demeter.prefix.view_group"),
+    ARCHITECTURE("demeter.prefix.architecture_group"),
+    MICROSERVICE("demeter.prefix.microservice_group"),
+    COMMUNITY("demeter.prefix.auto_community_group");
+
+    // Read on every commit by the listeners, so only refreshed when the configuration changes
+    private static volatile Map<GroupingPrefix, String> cached = load();
+
+    static {
+        Configuration.addReloadListener(GroupingPrefix::refresh);
+    }
+
+    private final String prefixKey;
+
+    GroupingPrefix(String prefixKey) {
+        this.prefixKey = prefixKey;
+    }
+
+    /**
+     * Get the name of the type of grouping, as exposed to the clients
+     *
+     * @return The name in lower case
+     */
+    public String getType() {
+        return name().toLowerCase();
+    }
+
+    public String getPrefix() {
+        return cached.get(this);
+    }
+
+    /**
+     * Read again the prefixes from the configuration
+     */
+    public static void refresh() {
+        cached = load();
+    }
+
+    private static Map<GroupingPrefix, String> load() {
+        Map<GroupingPrefix, String> prefixes = new EnumMap<>(GroupingPrefix.class);
+        for (GroupingPrefix gp : values()) {
+            prefixes.put(gp, Configuration.getBestOfALl(gp.prefixKey));
+        }
+        return prefixes;
+    }
+
+    /**
+     * Get the prefixes set in the configuration. The empty prefixes are ignored.
+     *
+     * @param prefixes Prefixes to look for
+     * @return A mapping between the grouping prefix and its value, in the declaration order
+     */
+    public static Map<GroupingPrefix, String> getConfigured(Set<GroupingPrefix> prefixes) {
+        Map<GroupingPrefix, String> configured = new EnumMap<>(GroupingPrefix.class);
+        for (GroupingPrefix gp : prefixes) {
+            String prefix = gp.getPrefix();
+            if (prefix != null && !prefix.isEmpty()) configured.put(gp, prefix);
+        }
+        return configured;
+    }
+}
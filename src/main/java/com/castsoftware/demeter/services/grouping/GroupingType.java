@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.grouping;
+
+/**
+ * Groupings launched per application
+ */
+public enum GroupingType {
+    LEVEL(GroupingPrefix.LEVEL),
+    MODULE(GroupingPrefix.MODULE),
+    ARCHITECTURE(GroupingPrefix.ARCHITECTURE);
+
+    private final GroupingPrefix groupingPrefix;
+
+    GroupingType(GroupingPrefix groupingPrefix) {
+        this.groupingPrefix = groupingPrefix;
+    }
+
+    public GroupingPrefix getGroupingPrefix() {
+        return groupingPrefix;
+    }
+
+    public String getPrefix() {
+        return groupingPrefix.getPrefix();
+    }
+}
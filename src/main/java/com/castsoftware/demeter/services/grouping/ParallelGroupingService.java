@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.grouping;
+
+import com.castsoftware.demeter.controllers.grouping.architectures.ArchitectureGroupController;
+import com.castsoftware.demeter.controllers.grouping.levels.LevelGroupController;
+import com.castsoftware.demeter.controllers.grouping.modules.ModuleGroupController;
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jConnectionError;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.utils.configuration.ParallelConfiguration;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.logging.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ParallelGroupingService {
+
+    /**
+     * Launch a grouping on one application
+     *
+     * @param neo4jAL     Neo4j Access Layer
+     * @param type        Type of grouping
+     * @param application Name of the application
+     * @return The list of nodes created
+     * @throws Neo4jQueryException      If the requests failed
+     * @throws Neo4jBadRequestException If the creation of a group failed
+     */
+    public static List<Node> groupApplication(Neo4jAL neo4jAL, GroupingType type, String application)
+            throws Neo4jQueryException, Neo4jBadRequestException {
+        switch (type) {
+            case LEVEL:
+                return new LevelGroupController(neo4jAL).groupAllLevels(application);
+            case MODULE:
+                return new ModuleGroupController(neo4jAL, application).launch();
+            case ARCHITECTURE:
+                return new ArchitectureGroupController(neo4jAL, application).launch();
+            default:
+                throw new IllegalArgumentException("Unsupported grouping type " + type);
+        }
+    }
+
+    /**
+     * Launch a grouping on several applications in parallel. Applications are disjoint by label, so
+     * each one is grouped on its own worker, in its own transaction. The failure of an application
+     * doesn't affect the others.
+     *
+     * @param neo4jAL      Neo4j Access Layer
+     * @param type         Type of grouping
+     * @param applications Applications to group
+     * @param workers      Number of workers, 0 to use the configuration
+     * @return The report of each application, in the order of the list
+     * @throws Neo4jQueryException If the grouping was interrupted
+     */
+    public static List<ApplicationReport> groupInParallel(
+            Neo4jAL neo4jAL, GroupingType type, List<String> applications, int workers)
+            throws Neo4jQueryException {
+        List<ApplicationReport> reports = new ArrayList<>();
+        if (applications.isEmpty()) return reports;
+
+        GraphDatabaseService db = neo4jAL.getDb();
+        Log log = neo4jAL.getLogger();
+        int poolSize = workers > 0 ? workers : ParallelConfiguration.getWorkers();
+        poolSize = Math.max(1, Math.min(poolSize, applications.size()));
+        neo4jAL.logInfo(
+                String.format(
+                        "Launching %s grouping on %d applications with %d workers.",
+                        type.name().toLowerCase(), applications.size(), poolSize));
+
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        List<Future<ApplicationReport>> futures = new ArrayList<>();
+        try {
+            for (String application : applications) {
+                futures.add(executor.submit(() -> groupInTransaction(db, log, type, application)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    reports.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    reports.add(
+                            new ApplicationReport(applications.get(i), false, 0L, 0L, e.getCause().getMessage()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            throw new Neo4jQueryException("The parallel grouping was interrupted.", e, "PARGxGIP01");
+        } finally {
+            executor.shutdown();
+        }
+
+        return reports;
+    }
+
+    /**
+     * Group one application in a new transaction
+     */
+    private static ApplicationReport groupInTransaction(
+            GraphDatabaseService db, Log log, GroupingType type, String application) {
+        long start = System.currentTimeMillis();
+        try (Transaction tx = db.beginTx()) {
+            Neo4jAL nal = new Neo4jAL(db, tx, log);
+            long numGroups = groupApplication(nal, type, application).size();
+            tx.commit();
+
+            return new ApplicationReport(
+                    application, true, numGroups, System.currentTimeMillis() - start, "");
+        } catch (Exception
+                | Neo4jConnectionError
+                | Neo4jQueryException
+                | Neo4jBadRequestException e) {
+            log.error(
+                    String.format(
+                            "Demeter :: %s grouping failed on application '%s'.", type.name(), application),
+                    e);
+            return new ApplicationReport(
+                    application, false, 0L, System.currentTimeMillis() - start, String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Outcome of the grouping of one application
+     */
+    public static class ApplicationReport {
+        private final String application;
+        private final boolean success;
+        private final long numGroups;
+        private final long duration;
+        private final String message;
+
+        public ApplicationReport(
+                String application, boolean success, long numGroups, long duration, String message) {
+            this.application = application;
+            this.success = success;
+            this.numGroups = numGroups;
+            this.duration = duration;
+            this.message = message;
+        }
+
+        public String getApplication() {
+            return application;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public long getNumGroups() {
+            return numGroups;
+        }
+
+        public long getDuration() {
+            return duration;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    public ParallelGroupingService() {
+    }
+}
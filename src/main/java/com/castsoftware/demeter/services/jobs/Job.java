@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.jobs;
+
+import org.neo4j.graphdb.Transaction;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Operation executed in the background by the {@link JobService}, with its progress
+ */
+public class Job {
+
+    private final String id;
+    private final String databaseName;
+    private final JobType type;
+    private final String application;
+    private final Map<String, Object> parameters;
+    private final long submitted;
+
+    private volatile JobStatus status;
+    private volatile long started = -1L;
+    private volatile long finished = -1L;
+    private volatile String message = "";
+
+    // Progress
+    private final AtomicLong groupsDone = new AtomicLong(0L);
+    private final AtomicLong objectsMoved = new AtomicLong(0L);
+    private volatile int applicationsDone = 0;
+    private volatile int applicationsTotal = 0;
+
+    // Cancellation
+    private volatile boolean cancelRequested = false;
+    private volatile boolean neverStarted = false;
+    private volatile Transaction transaction;
+    private volatile Future<?> future;
+
+    public Job(String databaseName, JobType type, String application, Map<String, Object> parameters) {
+        this.id = UUID.randomUUID().toString();
+        this.databaseName = databaseName;
+        this.type = type;
+        this.application = application;
+        this.parameters = parameters;
+        this.submitted = System.currentTimeMillis();
+        this.status = JobStatus.QUEUED;
+    }
+
+    /**
+     * Get the key used to detect two submissions of the same work
+     *
+     * @return The deduplication key
+     */
+    public String getKey() {
+        return getKey(databaseName, type, application);
+    }
+
+    public static String getKey(String databaseName, JobType type, String application) {
+        return String.format("%s/%s/%s", databaseName, type.name(), application == null ? "*" : application);
+    }
+
+    public boolean isActive() {
+        return status == JobStatus.QUEUED || status == JobStatus.RUNNING;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public boolean isNeverStarted() {
+        return neverStarted;
+    }
+
+    /**
+     * Request the cancellation of the job. A queued job will never start, a running job has its
+     * current transaction terminated.
+     */
+    public void cancel() {
+        cancelRequested = true;
+        Future<?> f = future;
+        if (f != null && f.cancel(false)) neverStarted = true;
+
+        Transaction tx = transaction;
+        if (tx != null) {
+            try {
+                tx.terminate();
+            } catch (Exception ignored) {
+                // The transaction is already closed
+            }
+        }
+    }
+
+    /**
+     * Estimate the time remaining, based on the applications already processed
+     *
+     * @return The estimation in milliseconds, -1 if it cannot be estimated
+     */
+    public long getEta() {
+        if (status != JobStatus.RUNNING || applicationsDone == 0 || started < 0) return -1L;
+        long elapsed = System.currentTimeMillis() - started;
+        return elapsed / applicationsDone * (applicationsTotal - applicationsDone);
+    }
+
+    void markStarted(int applicationsTotal) {
+        this.applicationsTotal = applicationsTotal;
+        this.started = System.currentTimeMillis();
+        this.status = JobStatus.RUNNING;
+    }
+
+    void markFinished(JobStatus status, String message) {
+        this.status = status;
+        this.message = message;
+        this.finished = System.currentTimeMillis();
+        this.transaction = null;
+    }
+
+    void applicationDone(long groups, long objects) {
+        groupsDone.addAndGet(groups);
+        objectsMoved.addAndGet(objects);
+        applicationsDone++;
+    }
+
+    void setTransaction(Transaction transaction) {
+        this.transaction = transaction;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    void setMessage(String message) {
+        this.message = message;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDatabaseName() {
+        return databaseName;
+    }
+
+    public JobType getType() {
+        return type;
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public long getStarted() {
+        return started;
+    }
+
+    public long getFinished() {
+        return finished;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public long getGroupsDone() {
+        return groupsDone.get();
+    }
+
+    public long getObjectsMoved() {
+        return objectsMoved.get();
+    }
+
+    public int getApplicationsDone() {
+        return applicationsDone;
+    }
+
+    public int getApplicationsTotal() {
+        return applicationsTotal;
+    }
+
+    public enum JobStatus {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED,
+        CANCELLED
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.jobs;
+
+import com.castsoftware.demeter.controllers.backup.NewBackupController;
+import com.castsoftware.demeter.controllers.grouping.GroupingUtilsController;
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadNodeFormatException;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jConnectionError;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.services.grouping.GroupingType;
+import com.castsoftware.demeter.services.grouping.ParallelGroupingService;
+import com.castsoftware.demeter.services.jobs.Job.JobStatus;
+import com.castsoftware.demeter.utils.configuration.JobConfiguration;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.logging.Log;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Run the long operations of Demeter in the background, on a bounded pool of workers. Each
+ * application is processed in its own transaction.
+ */
+public class JobService {
+
+    // Jobs by id, and active jobs by deduplication key
+    private static final Map<String, Job> JOBS = new ConcurrentHashMap<>();
+    private static final Map<String, Job> ACTIVE = new ConcurrentHashMap<>();
+
+    private static ExecutorService executor;
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            AtomicInteger count = new AtomicInteger(0);
+            executor =
+                    Executors.newFixedThreadPool(
+                            JobConfiguration.getWorkers(),
+                            r -> {
+                                Thread t = new Thread(r, "demeter-job-" + count.incrementAndGet());
+                                t.setDaemon(true);
+                                return t;
+                            });
+        }
+        return executor;
+    }
+
+    /**
+     * Submit a job. If the same work is already queued or running, the existing job is returned.
+     *
+     * @param db         Database to process
+     * @param log        Neo4j log
+     * @param type       Type of the job
+     * @param parameters Parameters of the job ( application, and name, description, timestamp, picture
+     *                   for backups )
+     * @return The job submitted, or the job already doing the work
+     * @throws IllegalArgumentException If the parameters are not valid
+     * @throws IllegalStateException    If another job of the same type overlaps the applications
+     */
+    public static Job submit(
+            GraphDatabaseService db, Log log, JobType type, Map<String, Object> parameters) {
+        Map<String, Object> params = parameters == null ? Map.of() : Map.copyOf(parameters);
+        String application = (String) params.get("application");
+        if (application != null && application.isBlank()) application = null;
+
+        if (type == JobType.BACKUP) {
+            if (application == null)
+                throw new IllegalArgumentException("The 'application' parameter is mandatory for a backup.");
+            String name = (String) params.get("name");
+            if (name == null || name.isBlank())
+                throw new IllegalArgumentException("The 'name' parameter is mandatory for a backup.");
+        }
+
+        Job job = new Job(db.databaseName(), type, application, params);
+        synchronized (ACTIVE) {
+            Job existing = ACTIVE.get(job.getKey());
+            if (existing != null) return existing;
+
+            Job overlapping = findOverlapping(job);
+            if (overlapping != null) {
+                throw new IllegalStateException(
+                        String.format(
+                                "The job %s (%s on %s) is already processing this application. "
+                                        + "Wait for its end or cancel it.",
+                                overlapping.getId(),
+                                overlapping.getType().name(),
+                                overlapping.getApplication() == null
+                                        ? "all the applications"
+                                        : overlapping.getApplication()));
+            }
+
+            ACTIVE.put(job.getKey(), job);
+        }
+
+        JOBS.put(job.getId(), job);
+        job.setFuture(getExecutor().submit(() -> execute(db, log, job)));
+        return job;
+    }
+
+    /**
+     * Find an active job of the same type working on the same applications. A job on all the
+     * applications overlaps every job of its type, in both directions.
+     *
+     * @param job Job to check
+     * @return The overlapping job, or null if none
+     */
+    private static Job findOverlapping(Job job) {
+        for (Job other : ACTIVE.values()) {
+            if (!other.getDatabaseName().equals(job.getDatabaseName())) continue;
+            if (other.getType() != job.getType()) continue;
+            if (other.getApplication() == null
+                    || job.getApplication() == null
+                    || other.getApplication().equals(job.getApplication())) {
+                return other;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get a job of a database by its id
+     *
+     * @param databaseName Name of the database
+     * @param id           Id of the job
+     * @return The job, or null if it doesn't exist in this database or was dropped from the history
+     */
+    public static Job getJob(String databaseName, String id) {
+        Job job = JOBS.get(id);
+        if (job == null || !job.getDatabaseName().equals(databaseName)) return null;
+        return job;
+    }
+
+    /**
+     * Get the jobs of a database, most recent first
+     *
+     * @param databaseName Name of the database
+     * @return The list of jobs
+     */
+    public static List<Job> getJobs(String databaseName) {
+        return JOBS.values().stream()
+                .filter(j -> j.getDatabaseName().equals(databaseName))
+                .sorted(Comparator.comparingLong(Job::getSubmitted).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Cancel a job. The application being processed is rolled back.
+     *
+     * @param databaseName Name of the database
+     * @param id           Id of the job
+     * @return The job, or null if it doesn't exist in this database
+     */
+    public static Job cancel(String databaseName, String id) {
+        Job job = getJob(databaseName, id);
+        if (job == null || !job.isActive()) return job;
+
+        job.cancel();
+        // A job cancelled before its start will never run
+        if (job.getStatus() == JobStatus.QUEUED && job.isNeverStarted()) {
+            finish(job, JobStatus.CANCELLED, "Cancelled before its start.");
+        }
+        return job;
+    }
+
+    /**
+     * Cancel all the jobs of a database. Called when the database stops.
+     *
+     * @param databaseName Name of the database
+     */
+    public static void cancelAll(String databaseName) {
+        for (Job job : getJobs(databaseName)) {
+            cancel(databaseName, job.getId());
+        }
+    }
+
+    private static void execute(GraphDatabaseService db, Log log, Job job) {
+        if (job.isCancelRequested()) {
+            finish(job, JobStatus.CANCELLED, "Cancelled before its start.");
+            return;
+        }
+
+        try {
+            List<String> applications = getApplications(db, log, job);
+            job.markStarted(applications.size());
+
+            List<String> failed = new ArrayList<>();
+            for (String application : applications) {
+                if (job.isCancelRequested()) break;
+
+                try (Transaction tx = db.beginTx()) {
+                    job.setTransaction(tx);
+                    job.setMessage(String.format("Processing application '%s'.", application));
+
+                    Neo4jAL nal = new Neo4jAL(db, tx, log);
+                    long objects = countTaggedObjects(nal, job.getType(), application);
+                    long groups = executeOnApplication(nal, job, application);
+
+                    tx.commit();
+                    job.applicationDone(groups, objects);
+                } catch (Exception
+                        | Neo4jConnectionError
+                        | Neo4jQueryException
+                        | Neo4jBadRequestException
+                        | Neo4jBadNodeFormatException e) {
+                    if (job.isCancelRequested()) break;
+                    failed.add(application);
+                    log.error(
+                            String.format(
+                                    "Demeter :: Job %s (%s) failed on application '%s'.",
+                                    job.getId(), job.getType().name(), application),
+                            e);
+                } finally {
+                    job.setTransaction(null);
+                }
+            }
+
+            if (job.isCancelRequested()) {
+                finish(
+                        job,
+                        JobStatus.CANCELLED,
+                        String.format(
+                                "Cancelled after %d/%d applications.",
+                                job.getApplicationsDone(), job.getApplicationsTotal()));
+            } else if (!failed.isEmpty() && failed.size() == applications.size()) {
+                finish(job, JobStatus.FAILED, "Failed on every application. Check the logs.");
+            } else if (!failed.isEmpty()) {
+                finish(
+                        job,
+                        JobStatus.DONE,
+                        String.format("Failed on applications [%s]. Check the logs.", String.join(", ", failed)));
+            } else {
+                finish(
+                        job,
+                        JobStatus.DONE,
+                        String.format("%d applications were processed.", job.getApplicationsDone()));
+            }
+        } catch (Exception | Neo4jConnectionError | Neo4jQueryException e) {
+            log.error(String.format("Demeter :: Job %s (%s) failed.", job.getId(), job.getType().name()), e);
+            finish(job, JobStatus.FAILED, "The job failed. Check the logs.");
+        }
+    }
+
+    /**
+     * Get the applications processed by a job
+     */
+    private static List<String> getApplications(GraphDatabaseService db, Log log, Job job)
+            throws Neo4jConnectionError, Neo4jQueryException {
+        if (job.getApplication() != null) return List.of(job.getApplication());
+
+        try (Transaction tx = db.beginTx()) {
+            Neo4jAL nal = new Neo4jAL(db, tx, log);
+            return GroupingUtilsController.getCandidatesApplications(
+                    nal, job.getType().getGroupingType().getPrefix());
+        }
+    }
+
+    /**
+     * Count the objects carrying the tags processed by the job
+     */
+    private static long countTaggedObjects(Neo4jAL neo4jAL, JobType type, String application)
+            throws Neo4jQueryException {
+        if (type.getGroupingType() == null) return 0L;
+
+        String req =
+                String.format(
+                        "MATCH (o:Object:`%s`) WHERE EXISTS(o.Tags) AND any(x in o.Tags WHERE x STARTS WITH $prefix) "
+                                + "RETURN COUNT(o) as count",
+                        application);
+        Result res =
+                neo4jAL.executeQuery(req, Map.of("prefix", type.getGroupingType().getPrefix()));
+        return res.hasNext() ? (Long) res.next().get("count") : 0L;
+    }
+
+    /**
+     * Execute the job on one application
+     *
+     * @return The number of groups created
+     */
+    private static long executeOnApplication(Neo4jAL neo4jAL, Job job, String application)
+            throws Exception, Neo4jQueryException, Neo4jBadRequestException, Neo4jBadNodeFormatException {
+        // Groupings go through the same dispatch as the parallel and automatic groupings
+        GroupingType groupingType = job.getType().getGroupingType();
+        if (groupingType != null) {
+            return ParallelGroupingService.groupApplication(neo4jAL, groupingType, application).size();
+        }
+
+        Map<String, Object> params = job.getParameters();
+        Object timestamp = params.get("timestamp");
+        new NewBackupController(neo4jAL, application)
+                .saveState(
+                        (String) params.get("name"),
+                        (String) params.getOrDefault("description", ""),
+                        timestamp instanceof Number
+                                ? ((Number) timestamp).longValue()
+                                : System.currentTimeMillis(),
+                        (String) params.getOrDefault("picture", ""));
+        return 1L;
+    }
+
+    private static void finish(Job job, JobStatus status, String message) {
+        job.markFinished(status, message);
+        ACTIVE.remove(job.getKey(), job);
+        trimHistory();
+    }
+
+    /**
+     * Drop the oldest finished jobs exceeding the history size
+     */
+    private static synchronized void trimHistory() {
+        List<Job> finished =
+                JOBS.values().stream()
+                        .filter(j -> !j.isActive())
+                        .sorted(Comparator.comparingLong(Job::getFinished))
+                        .collect(Collectors.toList());
+
+        int toRemove = finished.size() - JobConfiguration.getHistorySize();
+        for (int i = 0; i < toRemove; i++) {
+            JOBS.remove(finished.get(i).getId());
+        }
+    }
+
+    public JobService() {
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.jobs;
+
+import com.castsoftware.demeter.services.grouping.GroupingType;
+
+/**
+ * Operations which can be submitted as a job
+ */
+public enum JobType {
+    LEVELS(GroupingType.LEVEL),
+    MODULES(GroupingType.MODULE),
+    ARCHITECTURES(GroupingType.ARCHITECTURE),
+    BACKUP(null);
+
+    private final GroupingType groupingType;
+
+    JobType(GroupingType groupingType) {
+        this.groupingType = groupingType;
+    }
+
+    /**
+     * Get the grouping launched by the job
+     *
+     * @return The type of grouping, null if the job isn't a grouping
+     */
+    public GroupingType getGroupingType() {
+        return groupingType;
+    }
+
+    /**
+     * Get the job type from its name, case insensitive
+     *
+     * @param name Name of the type
+     * @return The job type
+     * @throws IllegalArgumentException If no type matches the name
+     */
+    public static JobType fromName(String name) {
+        for (JobType t : values()) {
+            if (t.name().equalsIgnoreCase(name)) return t;
+        }
+        throw new IllegalArgumentException(
+                String.format("Unknown job type '%s'. Expected one of : LEVELS, MODULES, ARCHITECTURES, BACKUP.", name));
+    }
+}
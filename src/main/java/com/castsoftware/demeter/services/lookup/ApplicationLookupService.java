@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.lookup;
+
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Result;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Find the nodes of one application without scanning the nodes of all the other applications
+ */
+public class ApplicationLookupService {
+
+    private static final String ERROR_PREFIX = "APLKSx";
+
+    /**
+     * Get the number of nodes with a label, from the count store
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @param label   Label to count
+     * @return The number of nodes
+     * @throws Neo4jQueryException If the request failed
+     */
+    public static long countNodes(Neo4jAL neo4jAL, Label label) throws Neo4jQueryException {
+        String req = String.format("MATCH (n:`%s`) RETURN COUNT(n) as count", label.name());
+        try (Result res = neo4jAL.executeQuery(req)) {
+            return res.hasNext() ? (Long) res.next().get("count") : 0L;
+        }
+    }
+
+    /**
+     * Find the nodes with a label in an application. The smallest of the two labels is scanned, and
+     * the nodes are filtered lazily on the other one.
+     *
+     * @param neo4jAL     Neo4j Access Layer
+     * @param label       Label of the nodes
+     * @param application Name of the application
+     * @return A lazy iterator on the nodes, to close once consumed
+     * @throws Neo4jQueryException If the scan failed
+     */
+    public static ResourceIterator<Node> findNodes(Neo4jAL neo4jAL, Label label, String application)
+            throws Neo4jQueryException {
+        Label applicationLabel = Label.label(application);
+
+        if (countNodes(neo4jAL, applicationLabel) < countNodes(neo4jAL, label)) {
+            return new FilteredIterator(neo4jAL.findNodes(applicationLabel), label);
+        }
+        return new FilteredIterator(neo4jAL.findNodes(label), applicationLabel);
+    }
+
+    /**
+     * Find the nodes with a label and a property value. The kernel uses the schema index if one exists
+     * on the property, otherwise the label is scanned.
+     *
+     * @param neo4jAL  Neo4j Access Layer
+     * @param label    Label of the nodes
+     * @param property Property to match
+     * @param value    Value of the property
+     * @return A lazy iterator on the nodes, to close once consumed
+     * @throws Neo4jQueryException If the lookup failed
+     */
+    public static ResourceIterator<Node> findNodes(
+            Neo4jAL neo4jAL, Label label, String property, Object value) throws Neo4jQueryException {
+        try {
+            return neo4jAL.getTransaction().findNodes(label, property, value);
+        } catch (Exception e) {
+            throw new Neo4jQueryException(
+                    String.format(
+                            "Cannot find nodes with label '%s' and property '%s'.", label.name(), property),
+                    e,
+                    ERROR_PREFIX + "FIND1");
+        }
+    }
+
+    /**
+     * Find the nodes with a label and a property value in an application
+     *
+     * @param neo4jAL     Neo4j Access Layer
+     * @param label       Label of the nodes
+     * @param application Name of the application
+     * @param property    Property to match
+     * @param value       Value of the property
+     * @return A lazy iterator on the nodes, to close once consumed
+     * @throws Neo4jQueryException If the lookup failed
+     */
+    public static ResourceIterator<Node> findNodes(
+            Neo4jAL neo4jAL, Label label, String application, String property, Object value)
+            throws Neo4jQueryException {
+        return new FilteredIterator(findNodes(neo4jAL, label, property, value), Label.label(application));
+    }
+
+    /**
+     * Iterator keeping only the nodes carrying a label
+     */
+    private static class FilteredIterator implements ResourceIterator<Node> {
+        private final ResourceIterator<Node> source;
+        private final Label filter;
+        private Node next;
+
+        private FilteredIterator(ResourceIterator<Node> source, Label filter) {
+            this.source = source;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && source.hasNext()) {
+                Node n = source.next();
+                if (n.hasLabel(filter)) next = n;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Node next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Node n = next;
+            next = null;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            source.close();
+        }
+    }
+
+    public ApplicationLookupService() {
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.lookup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a paginated list. The lists are sorted on a unique key ( node id, name, or name and id
+ * ), and the continuation token returned with each row encodes the key of this row. The next page
+ * starts after this key, so the rows removed meanwhile don't shift the pages, and a row present
+ * during the whole pagination is returned once.
+ *
+ * <p>Neo4j reuses the ids of the deleted nodes. A node created during the pagination can get an id
+ * lower than the cursor and be missed, so the lists sorted on the id alone only guarantee the rows
+ * existing before the first page.
+ */
+public class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String list;
+    private final long limit;
+    private final String after;
+
+    private PageCursor(String list, long limit, String after) {
+        this.list = list;
+        this.limit = limit;
+        this.after = after;
+    }
+
+    /**
+     * Decode the cursor received by a procedure
+     *
+     * @param list  Name of the list paginated, a token of another list is rejected
+     * @param limit Maximum number of entries in the page, 0 or less to get all the entries
+     * @param token Continuation token returned by the previous page, empty for the first page
+     * @return The cursor
+     * @throws IllegalArgumentException If the token is not valid for this list
+     */
+    public static PageCursor of(String list, Long limit, String token) {
+        long max = limit == null ? 0L : limit;
+        if (token == null || token.isEmpty()) return new PageCursor(list, max, null);
+
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("The continuation token is not valid.", e);
+        }
+
+        String prefix = list + SEPARATOR;
+        if (!decoded.startsWith(prefix)) {
+            throw new IllegalArgumentException(
+                    String.format("The continuation token doesn't belong to the list '%s'.", list));
+        }
+        return new PageCursor(list, max, decoded.substring(prefix.length()));
+    }
+
+    /**
+     * Get a cursor on all the entries of a list
+     *
+     * @param list Name of the list
+     * @return The cursor
+     */
+    public static PageCursor all(String list) {
+        return new PageCursor(list, 0L, null);
+    }
+
+    public boolean isLimited() {
+        return limit > 0;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Get the key after which the page starts
+     *
+     * @return The key, or null for the first page
+     */
+    public String getAfter() {
+        return after;
+    }
+
+    /**
+     * Get the node id after which the page starts
+     *
+     * @return The id, or -1 for the first page
+     */
+    public long getAfterId() {
+        if (after == null) return -1L;
+        try {
+            return Long.parseLong(after);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The continuation token is not valid.", e);
+        }
+    }
+
+    /**
+     * Get the name after which a page sorted by name and id starts
+     *
+     * @return The name, or null for the first page
+     */
+    public String getAfterName() {
+        if (after == null) return null;
+        int index = after.indexOf(SEPARATOR);
+        if (index < 0) throw new IllegalArgumentException("The continuation token is not valid.");
+        return after.substring(index + 1);
+    }
+
+    /**
+     * Get the node id after which a page sorted by name and id starts, among the nodes of the same name
+     *
+     * @return The id, or -1 for the first page
+     */
+    public long getAfterNameId() {
+        if (after == null) return -1L;
+        int index = after.indexOf(SEPARATOR);
+        if (index < 0) throw new IllegalArgumentException("The continuation token is not valid.");
+        try {
+            return Long.parseLong(after.substring(0, index));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The continuation token is not valid.", e);
+        }
+    }
+
+    /**
+     * Get the limit clause of the request
+     *
+     * @return The clause, empty if the page isn't limited
+     */
+    public String getLimitClause() {
+        return isLimited() ? " LIMIT " + limit : "";
+    }
+
+    /**
+     * Get the continuation token of a row
+     *
+     * @param key Sort key of the row
+     * @return The token to pass to get the page following this row
+     */
+    public String next(Object key) {
+        String value = list + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the continuation token of a row in a list sorted by name and id
+     *
+     * @param name Name of the row
+     * @param id   Id of the node of the row
+     * @return The token to pass to get the page following this row
+     */
+    public String next(String name, long id) {
+        return next(id + SEPARATOR + name);
+    }
+}
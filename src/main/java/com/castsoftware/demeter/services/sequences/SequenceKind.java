@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.sequences;
+
+/**
+ * Kinds of identifiers allocated by the sequence service, with the request returning the current
+ * maximum. The AipId is unique in the whole database, so its counter is shared by all the
+ * applications and seeded from the global maximum.
+ */
+public enum SequenceKind {
+    AIP_ID("MATCH (o) WHERE EXISTS(o.AipId) RETURN MAX(toInteger(o.AipId)) as max", false),
+    MODEL_ID("MATCH (n:ArchiModel:`%s`) RETURN MAX(toInteger(n.ModelId)) as max", true),
+    SUBSET_ID("MATCH (n:Subset:`%s`) RETURN MAX(toInteger(n.SubsetId)) as max", true);
+
+    private final String maxRequest;
+    private final boolean perApplication;
+
+    SequenceKind(String maxRequest, boolean perApplication) {
+        this.maxRequest = maxRequest;
+        this.perApplication = perApplication;
+    }
+
+    /**
+     * Check if the identifiers are unique per application, or in the whole database
+     *
+     * @return True if each application has its own counter
+     */
+    public boolean isPerApplication() {
+        return perApplication;
+    }
+
+    /**
+     * Get the request returning the highest identifier already used
+     *
+     * @param application Name of the application, ignored for the kinds shared by all the applications
+     * @return The request
+     */
+    public String getMaxRequest(String application) {
+        return perApplication ? String.format(maxRequest, application) : maxRequest;
+    }
+}
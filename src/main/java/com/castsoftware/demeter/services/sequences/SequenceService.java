@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.sequences;
+
+import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.database.Neo4jTypeManager;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jConnectionError;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import org.neo4j.graphdb.ConstraintViolationException;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.schema.ConstraintDefinition;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Allocate the AipId, ModelId and SubsetId of the nodes created by the groupings. Each application
+ * and kind of identifier has a single counter node, initialized from the current maximum the first
+ * time it is used. Allocating a block only updates this node. The AipId counter is shared by all the
+ * applications.
+ *
+ * <p>Counters are identified by a unique key, backed by a uniqueness constraint, so two transactions
+ * creating the same counter end up with a single node.
+ */
+public class SequenceService {
+
+    private static final String ERROR_PREFIX = "SEQSx";
+    private static final String LABEL = Configuration.get("demeter.sequence.node.label");
+    private static final String APPLICATION_PROPERTY = "Application";
+    private static final String KIND_PROPERTY = "Kind";
+    private static final String KEY_PROPERTY = "Key";
+    private static final String VALUE_PROPERTY = "Value";
+
+    // Scope of the counters shared by all the applications
+    private static final String ALL_APPLICATIONS = "*";
+
+    // Databases where the uniqueness constraint was checked
+    private static final Set<String> CONSTRAINED = ConcurrentHashMap.newKeySet();
+
+    private static final int DEFAULT_BLOCK_SIZE = 50;
+
+    public static Label getLabel() {
+        return Label.label(LABEL);
+    }
+
+    /**
+     * Get the number of identifiers reserved at once by a block
+     *
+     * @return The size of the block
+     */
+    public static int getBlockSize() {
+        try {
+            int size = Integer.parseInt(Configuration.getBestOfALl("demeter.sequence.block_size"));
+            return size > 0 ? size : DEFAULT_BLOCK_SIZE;
+        } catch (NumberFormatException | NullPointerException e) {
+            return DEFAULT_BLOCK_SIZE;
+        }
+    }
+
+    /**
+     * Reserve a range of identifiers. The counter is updated in a short transaction of its own,
+     * committed straight away, so the lock on the counter is not held for the duration of the
+     * grouping. The range stays consumed if the calling transaction is rolled back, leaving a gap.
+     *
+     * @param neo4jAL     Neo4j Access Layer
+     * @param application Name of the application
+     * @param kind        Kind of identifier
+     * @param count       Number of identifiers to reserve
+     * @return The first identifier of the range
+     * @throws Neo4jQueryException If the initialization of the counter failed
+     */
+    public static long reserve(Neo4jAL neo4jAL, String application, SequenceKind kind, int count)
+            throws Neo4jQueryException {
+        GraphDatabaseService db = neo4jAL.getDb();
+        ensureConstraint(neo4jAL);
+
+        try (Transaction tx = db.beginTx()) {
+            Neo4jAL nal = new Neo4jAL(db, tx, neo4jAL.getLogger());
+            Node counter = getCounter(nal, application, kind);
+            tx.acquireWriteLock(counter);
+
+            long last = Neo4jTypeManager.getAsLong(counter.getProperty(VALUE_PROPERTY, 0L), 0L);
+            counter.setProperty(VALUE_PROPERTY, last + count);
+            tx.commit();
+            return last + 1;
+        } catch (Neo4jConnectionError e) {
+            throw new Neo4jQueryException(
+                    String.format("Reservation of a block of %s", kind.name()), e, ERROR_PREFIX + "RESE1");
+        }
+    }
+
+    /**
+     * Allocate one identifier
+     *
+     * @param neo4jAL     Neo4j Access Layer
+     * @param application Name of the application
+     * @param kind        Kind of identifier
+     * @return The identifier
+     * @throws Neo4jQueryException If the initialization of the counter failed
+     */
+    public static long next(Neo4jAL neo4jAL, String application, SequenceKind kind)
+            throws Neo4jQueryException {
+        return reserve(neo4jAL, application, kind, 1);
+    }
+
+    /**
+     * Create the uniqueness constraint on the key of the counters, if missing. Schema changes cannot
+     * share a transaction with writes, so the constraint is created in its own transaction, once per
+     * database.
+     *
+     * @param neo4jAL Neo4j Access Layer
+     */
+    private static void ensureConstraint(Neo4jAL neo4jAL) {
+        GraphDatabaseService db = neo4jAL.getDb();
+        if (CONSTRAINED.contains(db.databaseName())) return;
+
+        try (Transaction tx = db.beginTx()) {
+            boolean exists = false;
+            for (ConstraintDefinition cd : tx.schema().getConstraints(getLabel())) {
+                for (String key : cd.getPropertyKeys()) {
+                    if (KEY_PROPERTY.equals(key)) exists = true;
+                }
+            }
+
+            if (!exists) {
+                tx.schema().constraintFor(getLabel()).assertPropertyIsUnique(KEY_PROPERTY).create();
+                tx.commit();
+                neo4jAL.logInfo(String.format("Uniqueness constraint created on %s(%s).", LABEL, KEY_PROPERTY));
+            }
+        } catch (ConstraintViolationException e) {
+            // Created concurrently
+        }
+
+        CONSTRAINED.add(db.databaseName());
+    }
+
+    /**
+     * Get the key of a counter
+     *
+     * @param application Name of the application
+     * @param kind        Kind of identifier
+     * @return The key
+     */
+    private static String getKey(String application, SequenceKind kind) {
+        return (kind.isPerApplication() ? application : ALL_APPLICATIONS) + "/" + kind.name();
+    }
+
+    /**
+     * Get the counter node of an application, or create it from the highest identifier already used.
+     * The creation goes through a MERGE on the unique key, so concurrent creations are serialized and
+     * only the first one is initialized.
+     *
+     * @param neo4jAL     Neo4j Access Layer
+     * @param application Name of the application
+     * @param kind        Kind of identifier
+     * @return The counter node
+     * @throws Neo4jQueryException If the request returning the maximum failed
+     */
+    private static Node getCounter(Neo4jAL neo4jAL, String application, SequenceKind kind)
+            throws Neo4jQueryException {
+        Transaction tx = neo4jAL.getTransaction();
+        String key = getKey(application, kind);
+
+        Node existing = tx.findNode(getLabel(), KEY_PROPERTY, key);
+        if (existing != null) return existing;
+
+        long max;
+        try (Result res = neo4jAL.executeQuery(kind.getMaxRequest(application))) {
+            max = res.hasNext() ? Neo4jTypeManager.getAsLong(res.next().get("max"), 0L) : 0L;
+        }
+
+        String req =
+                String.format(
+                        "MERGE (s:`%1$s` { %2$s: $key }) "
+                                + "ON CREATE SET s.%3$s=$application, s.%4$s=$kind, s.%5$s=$max "
+                                + "RETURN s as counter",
+                        LABEL, KEY_PROPERTY, APPLICATION_PROPERTY, KIND_PROPERTY, VALUE_PROPERTY);
+        Map<String, Object> params =
+                Map.of(
+                        "key", key,
+                        "application", kind.isPerApplication() ? application : ALL_APPLICATIONS,
+                        "kind", kind.name(),
+                        "max", max);
+        Node counter = (Node) neo4jAL.executeQuery(req, params).next().get("counter");
+
+        neo4jAL.logInfo(String.format("Sequence %s initialized at %d.", key, max));
+        return counter;
+    }
+
+    /**
+     * Identifiers reserved by blocks for a grouping. The identifiers of a block left unused, or used
+     * by a transaction rolled back, are lost.
+     */
+    public static class Block {
+        private final Neo4jAL neo4jAL;
+        private final String application;
+        private final SequenceKind kind;
+        private final int size;
+
+        private long next = 0L;
+        private long limit = 0L;
+
+        public Block(Neo4jAL neo4jAL, String application, SequenceKind kind) {
+            this.neo4jAL = neo4jAL;
+            this.application = application;
+            this.kind = kind;
+            this.size = getBlockSize();
+        }
+
+        /**
+         * Get the next identifier, reserve a new block if the current one is exhausted
+         *
+         * @return The identifier
+         * @throws Neo4jQueryException If the reservation failed
+         */
+        public long next() throws Neo4jQueryException {
+            if (next >= limit) {
+                next = reserve(neo4jAL, application, kind, size);
+                limit = next + size;
+            }
+            return next++;
+        }
+    }
+
+    public SequenceService() {
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.tags;
+
+import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.utils.configuration.BatchConfiguration;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Result;
+
+import java.util.Map;
+
+/**
+ * Remove Demeter tags from the objects. Only the objects actually carrying a matching tag are
+ * rewritten, in batches, the others are skipped.
+ */
+public class TagCleanupService {
+
+    private static final String TAGS_PROPERTY = Configuration.get("imaging.link.object_property.tags");
+
+    /**
+     * Comparison applied between the tags and the value to remove
+     */
+    public enum Match {
+        EQUALS("="),
+        STARTS_WITH("STARTS WITH"),
+        CONTAINS("CONTAINS");
+
+        private final String operator;
+
+        Match(String operator) {
+            this.operator = operator;
+        }
+
+        public String getOperator() {
+            return operator;
+        }
+
+        public boolean test(String tag, String value) {
+            switch (this) {
+                case EQUALS:
+                    return tag.equals(value);
+                case STARTS_WITH:
+                    return tag.startsWith(value);
+                default:
+                    return tag.contains(value);
+            }
+        }
+    }
+
+    /**
+     * Remove the matching tags from a list of nodes, usually the node list of a grouping
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @param nodes   Nodes to clean
+     * @param match   Comparison to apply
+     * @param value   Tag or prefix to remove
+     * @return The report of the cleanup
+     * @throws Neo4jQueryException If one of the batches failed
+     */
+    public static CleanupReport clean(Neo4jAL neo4jAL, Iterable<Node> nodes, Match match, String value)
+            throws Neo4jQueryException {
+        LongArrayList toClean = new LongArrayList();
+        long skipped = 0L;
+
+        for (Node n : nodes) {
+            if (carriesTag(n.getProperty(TAGS_PROPERTY, null), match, value)) {
+                toClean.add(n.getId());
+            } else {
+                skipped++;
+            }
+        }
+
+        return rewrite(neo4jAL, toClean, skipped, match, value);
+    }
+
+    /**
+     * Remove the matching tags from all the nodes with a label. The tags are read first, and only the
+     * nodes carrying a matching tag are rewritten.
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @param label   Label of the nodes ( application or Object )
+     * @param match   Comparison to apply
+     * @param value   Tag or prefix to remove
+     * @return The report of the cleanup
+     * @throws Neo4jQueryException If the request or one of the batches failed
+     */
+    public static CleanupReport clean(Neo4jAL neo4jAL, String label, Match match, String value)
+            throws Neo4jQueryException {
+        String req =
+                String.format(
+                        "MATCH (o:`%1$s`) WHERE EXISTS(o.%2$s) "
+                                + "RETURN ID(o) as id, any(x IN o.%2$s WHERE x %3$s $value) as carries",
+                        label, TAGS_PROPERTY, match.getOperator());
+        Result res = neo4jAL.executeQuery(req, Map.of("value", value));
+
+        LongArrayList toClean = new LongArrayList();
+        long skipped = 0L;
+        while (res.hasNext()) {
+            Map<String, Object> row = res.next();
+            if (Boolean.TRUE.equals(row.get("carries"))) {
+                toClean.add((Long) row.get("id"));
+            } else {
+                skipped++;
+            }
+        }
+
+        return rewrite(neo4jAL, toClean, skipped, match, value);
+    }
+
+    /**
+     * Check if a tag property contains a tag matching the value
+     *
+     * @param tags  Value of the tag property
+     * @param match Comparison to apply
+     * @param value Tag or prefix searched
+     * @return True if one of the tags matches
+     */
+    public static boolean carriesTag(Object tags, Match match, String value) {
+        if (!(tags instanceof String[])) return false;
+        for (String tag : (String[]) tags) {
+            if (match.test(tag, value)) return true;
+        }
+        return false;
+    }
+
+    private static CleanupReport rewrite(
+            Neo4jAL neo4jAL, LongArrayList ids, long skipped, Match match, String value)
+            throws Neo4jQueryException {
+        if (!ids.isEmpty()) {
+            String req =
+                    String.format(
+                            "UNWIND $ids as id MATCH (o) WHERE ID(o)=id "
+                                    + "SET o.%1$s = [ x IN o.%1$s WHERE NOT x %2$s $value ]",
+                            TAGS_PROPERTY, match.getOperator());
+            neo4jAL.executeBatchedQuery(
+                    req, ids.toArray(), Map.of("value", value), BatchConfiguration.getBatchSize());
+        }
+
+        CleanupReport report = new CleanupReport(ids.size(), skipped);
+        neo4jAL.logInfo(
+                String.format(
+                        "Tag cleanup ( %s '%s' ) : %d objects modified, %d skipped.",
+                        match.name(), value, report.getModified(), report.getSkipped()));
+        return report;
+    }
+
+    /**
+     * Number of objects rewritten and skipped by a cleanup
+     */
+    public static class CleanupReport {
+        private final long modified;
+        private final long skipped;
+
+        public CleanupReport(long modified, long skipped) {
+            this.modified = modified;
+            this.skipped = skipped;
+        }
+
+        public long getModified() {
+            return modified;
+        }
+
+        public long getSkipped() {
+            return skipped;
+        }
+    }
+
+    public TagCleanupService() {
+    }
+}
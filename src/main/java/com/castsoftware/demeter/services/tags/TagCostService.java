@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.tags;
+
+import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4JTemplateLanguageException;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jNoResult;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.models.demeter.TagNode;
+import com.castsoftware.demeter.services.lookup.ApplicationLookupService;
+import com.castsoftware.demeter.tags.TagProcessing;
+import org.neo4j.graphdb.ExecutionPlanDescription;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.*;
+
+/**
+ * Estimate the cost of the tag requests from their execution plan, and compare it to the budget of
+ * the configuration. The plan is built on the sample application, or on the largest application of
+ * the database, since the estimations on an empty label are meaningless.
+ */
+public class TagCostService {
+
+    private static final String ESTIMATED_ROWS_ARGUMENT = "EstimatedRows";
+    private static final List<String> EXPENSIVE_OPERATORS = List.of("CartesianProduct", "VarLengthExpand");
+
+    private static final long DEFAULT_BUDGET = 10000000L;
+    private static final String DUMMY_APPLICATION = "DummyApplication";
+
+    /**
+     * Get the maximum cost of a tag request : the db hits measured when profiled, the rows estimated
+     * by the planner otherwise
+     *
+     * @return The budget
+     */
+    public static long getBudget() {
+        try {
+            return Long.parseLong(Configuration.getBestOfALl("demeter.tag.cost.budget"));
+        } catch (NumberFormatException | NullPointerException e) {
+            return DEFAULT_BUDGET;
+        }
+    }
+
+    /**
+     * Check if the tags exceeding the budget are rejected, or only flagged
+     *
+     * @return True if they are rejected
+     */
+    public static boolean isRejecting() {
+        return Boolean.parseBoolean(Configuration.getBestOfALl("demeter.tag.cost.reject"));
+    }
+
+    /**
+     * Get the application used to profile the tag requests
+     *
+     * @return The name of the application, empty to skip the profiling
+     */
+    public static String getSampleApplication() {
+        String application = Configuration.getBestOfALl("demeter.tag.cost.sample_application");
+        return application == null ? "" : application.trim();
+    }
+
+    /**
+     * Get the application the tag requests are planned on. The sample application if it exists,
+     * otherwise the application with the most nodes.
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @return The name of the application, or a dummy name if the database has no application
+     * @throws Neo4jQueryException If the applications couldn't be listed
+     */
+    public static String getPlanningApplication(Neo4jAL neo4jAL) throws Neo4jQueryException {
+        String sample = getSampleApplication();
+        if (!sample.isEmpty() && neo4jAL.getAllLabels().contains(Label.label(sample))) return sample;
+
+        String largest = DUMMY_APPLICATION;
+        long largestCount = -1L;
+        List<String> applications = new ArrayList<>();
+        try (Result res = neo4jAL.executeQuery("MATCH (app:Application) RETURN app.Name as name")) {
+            while (res.hasNext()) {
+                Object name = res.next().get("name");
+                if (name instanceof String) applications.add((String) name);
+            }
+        }
+
+        for (String application : applications) {
+            long count = ApplicationLookupService.countNodes(neo4jAL, Label.label(application));
+            if (count > largestCount) {
+                largest = application;
+                largestCount = count;
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * Build the cost of a request from the plan of an EXPLAIN or PROFILE result. The estimated rows
+     * are the largest estimation of the operators, as the estimations of an operator already include
+     * the rows of its children. The result of a PROFILE must be consumed before.
+     *
+     * @param plan Plan of the request
+     * @return The cost
+     */
+    public static TagCost fromPlan(ExecutionPlanDescription plan) {
+        TagCost cost = new TagCost();
+        Deque<ExecutionPlanDescription> toVisit = new ArrayDeque<>();
+        toVisit.push(plan);
+
+        while (!toVisit.isEmpty()) {
+            ExecutionPlanDescription operator = toVisit.pop();
+
+            Object rows = operator.getArguments().get(ESTIMATED_ROWS_ARGUMENT);
+            if (rows instanceof Number) {
+                cost.estimatedRows = Math.max(cost.estimatedRows, ((Number) rows).longValue());
+            }
+
+            if (operator.hasProfilerStatistics()) {
+                if (cost.dbHits < 0) cost.dbHits = 0L;
+                cost.dbHits += operator.getProfilerStatistics().getDbHits();
+            }
+
+            for (String expensive : EXPENSIVE_OPERATORS) {
+                if (operator.getName().startsWith(expensive)) cost.warnings.add(operator.getName());
+            }
+
+            operator.getChildren().forEach(toVisit::push);
+        }
+
+        return cost;
+    }
+
+    /**
+     * Profile the count version of a tag request on the sample application. The request is executed
+     * in its own transaction, which is never committed.
+     *
+     * @param neo4jAL Neo4j Access Layer
+     * @param request Request of the tag
+     * @param cost    Cost to complete with the db hits measured
+     */
+    public static void profile(Neo4jAL neo4jAL, String request, TagCost cost) {
+        String application = getSampleApplication();
+        if (application.isEmpty()) return;
+
+        if (!neo4jAL.getAllLabels().contains(Label.label(application))) {
+            neo4jAL.logInfo(
+                    String.format("The sample application '%s' doesn't exist. Profiling skipped.", application));
+            return;
+        }
+
+        try (Transaction tx = neo4jAL.getDb().beginTx()) {
+            String forgedReq = TagProcessing.processApplicationContext(request, application);
+            forgedReq = "PROFILE " + TagProcessing.forgeCountRequest(forgedReq);
+
+            Result res = tx.execute(forgedReq, Map.of("tagName", ""));
+            res.accept(row -> true);
+
+            TagCost profiled = fromPlan(res.getExecutionPlanDescription());
+            cost.dbHits = profiled.dbHits;
+            cost.sampleApplication = application;
+        } catch (QueryExecutionException | Neo4JTemplateLanguageException e) {
+            neo4jAL.logError(String.format("Failed to profile the request on application '%s'.", application), e);
+        }
+    }
+
+    /**
+     * Save the cost on the tag node
+     *
+     * @param node Tag node
+     * @param cost Cost of its request
+     */
+    public static void store(Node node, TagCost cost) {
+        node.setProperty(TagNode.getEstimatedRowsProperty(), cost.getEstimatedRows());
+        node.setProperty(TagNode.getDbHitsProperty(), cost.getDbHits());
+        node.setProperty(TagNode.getCostWarningsProperty(), cost.getWarnings().toArray(new String[0]));
+        node.setProperty(TagNode.getCostFlaggedProperty(), cost.isOverBudget());
+    }
+
+    /**
+     * Get the estimated rows stored on a tag node
+     *
+     * @param node Tag node
+     * @return The estimated rows, or -1 if the cost was never computed
+     */
+    public static long getEstimatedRows(Node node) {
+        Object rows = node.getProperty(TagNode.getEstimatedRowsProperty(), -1L);
+        return rows instanceof Number ? ((Number) rows).longValue() : -1L;
+    }
+
+    /**
+     * Sort the tags by increasing cost. The tags never estimated are executed last.
+     *
+     * @param tags Tags to sort
+     */
+    public static void sortByCost(List<TagNode> tags) {
+        Map<TagNode, Long> costs = new IdentityHashMap<>();
+        for (TagNode t : tags) {
+            long rows;
+            try {
+                rows = getEstimatedRows(t.getNode());
+            } catch (Neo4jNoResult | Neo4jQueryException e) {
+                rows = -1L;
+            }
+            costs.put(t, rows < 0 ? Long.MAX_VALUE : rows);
+        }
+        tags.sort(Comparator.comparingLong(costs::get));
+    }
+
+    /**
+     * Cost of a tag request
+     */
+    public static class TagCost {
+        private long estimatedRows = 0L;
+        private long dbHits = -1L;
+        private String sampleApplication = "";
+        private final Set<String> warnings = new TreeSet<>();
+
+        public long getEstimatedRows() {
+            return estimatedRows;
+        }
+
+        /**
+         * @return The db hits measured on the sample application, -1 if the request wasn't profiled
+         */
+        public long getDbHits() {
+            return dbHits;
+        }
+
+        public String getSampleApplication() {
+            return sampleApplication;
+        }
+
+        public Set<String> getWarnings() {
+            return warnings;
+        }
+
+        public boolean isProfiled() {
+            return dbHits >= 0;
+        }
+
+        /**
+         * @return The db hits if the request was profiled, the estimated rows otherwise
+         */
+        public long getMeasuredCost() {
+            return isProfiled() ? dbHits : estimatedRows;
+        }
+
+        /**
+         * @return The measured cost with its unit, for the messages
+         */
+        public String describe() {
+            return String.format("%d %s", getMeasuredCost(), isProfiled() ? "db hits" : "estimated rows");
+        }
+
+        public boolean isOverBudget() {
+            return getMeasuredCost() > getBudget();
+        }
+    }
+
+    public TagCostService() {
+    }
+}
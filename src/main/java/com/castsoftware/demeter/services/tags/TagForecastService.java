@@ -0,0 +1,385 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.services.tags;
+
+import com.castsoftware.demeter.config.Configuration;
+import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4JTemplateLanguageException;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.services.cache.QueryResultCache;
+import com.castsoftware.demeter.tags.TagProcessing;
+import com.castsoftware.demeter.utils.configuration.ObjectConfiguration;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import org.neo4j.graphdb.Result;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Approximate forecast of the tag requests. A request is either evaluated on a stratified sample of
+ * the objects of the application, or counted until a cap is reached.
+ */
+public class TagForecastService {
+
+    private static final int DEFAULT_SAMPLE_SIZE = 2000;
+    private static final long DEFAULT_CAP = 1000L;
+    private static final double Z_95 = 1.96;
+
+    private static final String COUNT_RETURN_VAL =
+            Configuration.get("tag.anchors.countReturn.return_val");
+
+    /**
+     * Get the number of objects sampled per application
+     *
+     * @return The size of the sample
+     */
+    public static int getSampleSize() {
+        try {
+            int size = Integer.parseInt(Configuration.getBestOfALl("demeter.forecast.sample_size"));
+            return size > 0 ? size : DEFAULT_SAMPLE_SIZE;
+        } catch (NumberFormatException | NullPointerException e) {
+            return DEFAULT_SAMPLE_SIZE;
+        }
+    }
+
+    /**
+     * Get the number of matches counted before stopping a request
+     *
+     * @return The cap
+     */
+    public static long getCap() {
+        try {
+            long cap = Long.parseLong(Configuration.getBestOfALl("demeter.forecast.cap"));
+            return cap > 0 ? cap : DEFAULT_CAP;
+        } catch (NumberFormatException | NullPointerException e) {
+            return DEFAULT_CAP;
+        }
+    }
+
+    /**
+     * Check if a request can be evaluated on a sample of objects. The variable returned must be
+     * matched as an object, otherwise the sample doesn't represent its population.
+     *
+     * @param request Request of the tag
+     * @return True if the sample can be used
+     */
+    public static boolean isSampleable(String request) {
+        try {
+            String o = TagProcessing.getReturnVariable(request);
+            String objectLabel = ObjectConfiguration.getObjectLabel().name();
+            return Pattern.compile(
+                            "\\(\\s*" + Pattern.quote(o) + "\\s*:[^)]*\\b" + Pattern.quote(objectLabel) + "\\b")
+                    .matcher(request)
+                    .find();
+        } catch (Neo4JTemplateLanguageException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Forecast a tag request on an application
+     *
+     * @param neo4jAL     Neo4j Access Layer
+     * @param request     Request of the tag
+     * @param application Name of the application
+     * @param mode        Method to use
+     * @param sampleSize  Number of objects sampled
+     * @param cap         Number of matches counted before stopping
+     * @return The estimate
+     * @throws Neo4jQueryException              If the request failed
+     * @throws Neo4JTemplateLanguageException If the request has no valid return anchor
+     */
+    public static Estimate forecast(
+            Neo4jAL neo4jAL, String request, String application, Mode mode, int sampleSize, long cap)
+            throws Neo4jQueryException, Neo4JTemplateLanguageException {
+        long start = System.currentTimeMillis();
+        String contextualized = TagProcessing.processApplicationContext(request, application);
+        Estimate estimate;
+
+        switch (mode) {
+            case SAMPLE:
+                estimate = sample(neo4jAL, contextualized, application, sampleSize);
+                break;
+            case CAP:
+                estimate = cap(neo4jAL, contextualized, cap);
+                break;
+            default:
+                if (isSampleable(request)) {
+                    try {
+                        estimate = sample(neo4jAL, contextualized, application, sampleSize);
+                        break;
+                    } catch (Neo4jQueryException e) {
+                        // The request cannot run as a sub-query, count it until the cap
+                        neo4jAL.logInfo(
+                                String.format(
+                                        "The request cannot be sampled, the forecast will stop at %d matches. Cause : %s",
+                                        cap, e.getMessage()));
+                    }
+                }
+                estimate = cap(neo4jAL, contextualized, cap);
+                break;
+        }
+
+        estimate.elapsed = System.currentTimeMillis() - start;
+        return estimate;
+    }
+
+    /**
+     * Count the matches of a request, stopping after the cap
+     */
+    private static Estimate cap(Neo4jAL neo4jAL, String request, long cap)
+            throws Neo4jQueryException, Neo4JTemplateLanguageException {
+        String forged = TagProcessing.forgeCappedCountRequest(request);
+        Result res = neo4jAL.executeQuery(forged, Map.of("cap", cap + 1));
+
+        long count = 0L;
+        if (res.hasNext()) {
+            count = (Long) res.next().get(COUNT_RETURN_VAL);
+        }
+
+        Estimate estimate = new Estimate(Mode.CAP);
+        if (count > cap) {
+            estimate.value = cap;
+            estimate.lowerBound = cap;
+            estimate.upperBound = null; // Unknown
+            estimate.atLeast = true;
+        } else {
+            estimate.value = count;
+            estimate.lowerBound = count;
+            estimate.upperBound = count;
+            estimate.exact = true;
+        }
+        return estimate;
+    }
+
+    /**
+     * Evaluate a request on a stratified sample of the objects, and extrapolate the number of
+     * matches with a 95% confidence interval
+     */
+    private static Estimate sample(Neo4jAL neo4jAL, String request, String application, int sampleSize)
+            throws Neo4jQueryException, Neo4JTemplateLanguageException {
+        Sample sample = getSample(neo4jAL, application, sampleSize);
+        Estimate estimate = new Estimate(Mode.SAMPLE);
+        estimate.sampleSize = sample.ids.length;
+
+        if (sample.ids.length == 0) {
+            estimate.exact = true;
+            return estimate;
+        }
+
+        String forged = TagProcessing.forgeSampledRequest(request);
+        Result res = neo4jAL.executeQuery(forged, Map.of("sample", sample.ids));
+
+        long[] matches = new long[sample.populations.length];
+        int stratum;
+        while (res.hasNext()) {
+            stratum = sample.strata.getIfAbsent((Long) res.next().get("id"), -1);
+            if (stratum >= 0) matches[stratum]++;
+        }
+
+        // Stratified estimator, with the finite population correction
+        double value = 0.0;
+        double variance = 0.0;
+        long observed = 0L;
+        boolean exact = true;
+        for (int h = 0; h < matches.length; h++) {
+            double bigN = sample.populations[h];
+            double n = sample.sampled[h];
+            double m = matches[h];
+            observed += matches[h];
+            value += bigN * (m / n);
+
+            if (n >= bigN) continue; // Stratum fully evaluated
+            exact = false;
+
+            // Agresti-Coull correction, so a stratum without any match or only matches keeps a spread
+            double p = (m == 0 || m == n) ? (m + 1.0) / (n + 2.0) : m / n;
+            variance += bigN * bigN * (1.0 - n / bigN) * p * (1.0 - p) / Math.max(1.0, n - 1.0);
+        }
+
+        double margin = Z_95 * Math.sqrt(variance);
+        estimate.value = Math.round(value);
+        estimate.exact = exact;
+        estimate.lowerBound = Math.max(observed, (long) Math.floor(value - margin));
+        estimate.upperBound = Math.min(sample.population, (long) Math.ceil(value + margin));
+        return estimate;
+    }
+
+    /**
+     * Get a sample of the objects of an application, stratified by type. The sample is kept in the
+     * cache until the application changes.
+     */
+    private static Sample getSample(Neo4jAL neo4jAL, String application, int sampleSize)
+            throws Neo4jQueryException {
+        String req =
+                String.format(
+                        "MATCH (o:`%s`:`%s`) RETURN ID(o) AS id, o.Type AS type",
+                        ObjectConfiguration.getObjectLabel().name(), application);
+
+        QueryResultCache.Key key =
+                QueryResultCache.key(neo4jAL, application, req, Map.of("size", sampleSize));
+        Sample cached = QueryResultCache.get(key, Sample.class);
+        if (cached != null) return cached;
+
+        Map<String, LongArrayList> byType = new TreeMap<>();
+        Result res = neo4jAL.executeQuery(req);
+        while (res.hasNext()) {
+            Map<String, Object> record = res.next();
+            byType.computeIfAbsent(String.valueOf(record.get("type")), k -> new LongArrayList())
+                    .add((Long) record.get("id"));
+        }
+
+        Sample sample = Sample.draw(new ArrayList<>(byType.values()), sampleSize);
+        QueryResultCache.put(neo4jAL, key, sample);
+        return sample;
+    }
+
+    /**
+     * Method of the forecast
+     */
+    public enum Mode {
+        AUTO,
+        SAMPLE,
+        CAP;
+
+        /**
+         * Get the mode from its name, case is ignored
+         *
+         * @param name Name of the mode
+         * @return The mode, AUTO if the name is empty
+         */
+        public static Mode fromName(String name) {
+            if (name == null || name.isBlank()) return AUTO;
+            return Mode.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Stratified random sample of objects, with proportional allocation
+     */
+    private static final class Sample {
+        private final long[] ids;
+        private final LongIntHashMap strata;
+        private final long[] populations;
+        private final long[] sampled;
+        private final long population;
+
+        private Sample(long[] ids, LongIntHashMap strata, long[] populations, long[] sampled) {
+            this.ids = ids;
+            this.strata = strata;
+            this.populations = populations;
+            this.sampled = sampled;
+            this.population = Arrays.stream(populations).sum();
+        }
+
+        private static Sample draw(List<LongArrayList> byStratum, int sampleSize) {
+            long population = byStratum.stream().mapToLong(LongArrayList::size).sum();
+            Random random = ThreadLocalRandom.current();
+
+            LongArrayList ids = new LongArrayList();
+            LongIntHashMap strata = new LongIntHashMap();
+            long[] populations = new long[byStratum.size()];
+            long[] sampled = new long[byStratum.size()];
+
+            for (int h = 0; h < byStratum.size(); h++) {
+                long[] members = byStratum.get(h).toArray();
+                int size = members.length;
+                if (population > sampleSize) {
+                    long allocated = Math.round((double) sampleSize * members.length / population);
+                    size = (int) Math.min(members.length, Math.max(1L, allocated));
+                }
+
+                // Partial Fisher-Yates shuffle
+                for (int i = 0; i < size; i++) {
+                    int j = i + random.nextInt(members.length - i);
+                    long tmp = members[i];
+                    members[i] = members[j];
+                    members[j] = tmp;
+
+                    ids.add(members[i]);
+                    strata.put(members[i], h);
+                }
+
+                populations[h] = members.length;
+                sampled[h] = size;
+            }
+
+            return new Sample(ids.toArray(), strata, populations, sampled);
+        }
+    }
+
+    /**
+     * Estimated number of matches of a request
+     */
+    public static class Estimate {
+        private final Mode mode;
+        private long value = 0L;
+        private long lowerBound = 0L;
+        private Long upperBound = 0L;
+        private boolean atLeast = false;
+        private boolean exact = false;
+        private long sampleSize = 0L;
+        private long elapsed = 0L;
+
+        private Estimate(Mode mode) {
+            this.mode = mode;
+        }
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public long getValue() {
+            return value;
+        }
+
+        public long getLowerBound() {
+            return lowerBound;
+        }
+
+        /**
+         * @return The upper bound of the interval, null if unknown
+         */
+        public Long getUpperBound() {
+            return upperBound;
+        }
+
+        public boolean isAtLeast() {
+            return atLeast;
+        }
+
+        public boolean isExact() {
+            return exact;
+        }
+
+        public long getSampleSize() {
+            return sampleSize;
+        }
+
+        public long getElapsed() {
+            return elapsed;
+        }
+    }
+
+    public TagForecastService() {
+    }
+}
@@ -20,32 +20,53 @@
 package com.castsoftware.demeter.statistics;
 
 import com.castsoftware.demeter.config.Configuration;
-import com.castsoftware.demeter.exceptions.neo4j.Neo4jBadRequestException;
+import com.castsoftware.demeter.database.Neo4jAL;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jNoResult;
 import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
 import com.castsoftware.demeter.models.demeter.StatisticNode;
+import com.castsoftware.demeter.services.execution.GuardedExecutionService;
 import com.castsoftware.demeter.statistics.Highlights.Highlight;
 import com.castsoftware.demeter.statistics.Highlights.HighlightCategory;
-
-import java.io.File;
-import java.io.FileWriter;
+import com.castsoftware.demeter.utils.configuration.ParallelConfiguration;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.logging.Log;
+
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.sql.Timestamp;
-import java.text.SimpleDateFormat;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Write the pre-statistics report of an application. The sections are streamed to the text report
+ * as soon as their results are available, and a JSON and a CSV version are written on save.
+ */
 public class PreStatisticsLogger implements AutoCloseable {
 
     private static final String FILE_EXTENSION = Configuration.get("pre_statistics.file.extension");
-    private static final SimpleDateFormat sdf = new SimpleDateFormat("yyyy_MM_dd_HHmmss");
-    private static final SimpleDateFormat cdf = new SimpleDateFormat("MM/dd/yyyy HH:mm:ss");
+    private static final DateTimeFormatter sdf = DateTimeFormatter.ofPattern("yyyy_MM_dd_HHmmss");
+    private static final DateTimeFormatter cdf = DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm:ss");
 
     private final String applicationContext;
-    private final FileWriter file;
+    private final LocalDateTime generated;
+    private final Path basePath;
+    private final BufferedWriter file;
 
-    private StringBuilder buffer = new StringBuilder();
+    // Machine-readable version of the report
+    private final List<StatisticEntry> statisticEntries = new ArrayList<>();
+    private final List<Highlight> highlightEntries = new ArrayList<>();
 
     /**
      * Constructor
@@ -54,25 +75,18 @@ public class PreStatisticsLogger implements AutoCloseable {
      * @throws IOException If the PreStatisticsLogger failed to create the statistics file
      */
     public PreStatisticsLogger(String applicationContext) throws IOException {
-        String outputDirectory =
-                Configuration.get("demeter.workspace.path")
-                        + Configuration.get("demeter.workspace.statistics.file.path");
-        File statisticsDir = new File(outputDirectory);
-
-        if (!statisticsDir.exists()) {
-            statisticsDir.mkdirs();
-        }
+        Path statisticsDir = Paths.get(getOutputDirectory());
+        Files.createDirectories(statisticsDir);
 
         this.applicationContext = applicationContext;
+        this.generated = LocalDateTime.now();
+        this.basePath =
+                statisticsDir.resolve(
+                        String.format(
+                                "Pre_Statistics_for_%s_on%s", applicationContext, sdf.format(generated)));
+        this.file = Files.newBufferedWriter(getPath(FILE_EXTENSION), StandardCharsets.UTF_8);
 
-        Timestamp timestamp = new Timestamp(System.currentTimeMillis());
-        String forgedPath =
-                String.format(
-                        "%s/Pre_Statistics_for_%s_on%s.%s",
-                        outputDirectory, applicationContext, sdf.format(timestamp), FILE_EXTENSION);
-        file = new FileWriter(forgedPath);
-
-        flushBuffer();
+        writeIntro();
     }
 
     /**
@@ -85,62 +99,145 @@ public class PreStatisticsLogger implements AutoCloseable {
                 + Configuration.get("demeter.workspace.statistics.file.path");
     }
 
-    public void writeIntro() {
-        Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+    /**
+     * Get the path of the report for an extension
+     *
+     * @param extension Extension of the file
+     * @return The path of the file
+     */
+    public Path getPath(String extension) {
+        return Paths.get(basePath.toString() + "." + extension);
+    }
+
+    /**
+     * Get the files produced by this report
+     *
+     * @return The list of paths
+     */
+    public List<Path> getOutputFiles() {
+        return List.of(getPath(FILE_EXTENSION), getPath("json"), getPath("csv"));
+    }
+
+    public void writeIntro() throws IOException {
         String title =
                 String.format(
                         "Report generated on %s for application %s . It contains pre-tagging statistics",
-                        cdf.format(timestamp), applicationContext);
+                        cdf.format(generated), applicationContext);
 
         String box = "#".repeat(124) + String.format("\n# %1$-120s #\n", title) + "#".repeat(124);
 
-        buffer.append(box);
+        file.write(box);
     }
 
-    public void writeParagraph(String title, String para) {
-        buffer.append(String.format("\n%s %-36s %s\n", "-".repeat(36), title, "-".repeat(50)));
-        buffer.append(para);
+    public void writeParagraph(String title, String para) throws IOException {
+        file.write(String.format("\n%s %-36s %s\n", "-".repeat(36), title, "-".repeat(50)));
+        file.write(para);
     }
 
-    private void writeEndOfSection() {
-        buffer.append("#".repeat(124));
+    private void writeEndOfSection() throws IOException {
+        file.write("#".repeat(124));
     }
 
-    public void writeStatistics(List<StatisticNode> statistics) {
-        String title = String.format("\nStatistics for application :  %s \n", applicationContext);
-        buffer.append(title);
+    /**
+     * Execute the statistics on parallel workers, each one in its own transaction, and write their
+     * sections in order as soon as they are available.
+     *
+     * @param neo4jAL    Neo4j Access Layer
+     * @param statistics Statistics to execute
+     * @throws IOException If the report cannot be written
+     */
+    public void writeStatistics(Neo4jAL neo4jAL, List<StatisticNode> statistics) throws IOException {
+        file.write(String.format("\nStatistics for application :  %s \n", applicationContext));
+
+        GraphDatabaseService db = neo4jAL.getDb();
+        int workers = Math.max(1, Math.min(ParallelConfiguration.getWorkers(), statistics.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+
+        try {
+            List<Future<GuardedExecutionService.Outcome<List<String>>>> futures = new ArrayList<>();
+            for (StatisticNode stn : statistics) {
+                futures.add(executor.submit(() -> executeStatistic(db, neo4jAL.getLogger(), stn)));
+            }
 
-        for (StatisticNode stn : statistics) {
-            StringBuilder statRes = new StringBuilder();
-            statRes.append("-".repeat(124)).append("\n");
-            try {
-                statRes.append("\n\tStatistics on : ").append(stn.getName()).append("\n");
-                String description = stn.getDescription();
-                if (!description.isEmpty()) {
-                    statRes
-                            .append(" \tDescription : ")
-                            .append(stn.getDescription().replaceAll("\\n", "\n\t"))
-                            .append("\n\n");
+            for (int i = 0; i < statistics.size(); i++) {
+                StatisticNode stn = statistics.get(i);
+                List<String> results = Collections.emptyList();
+                String error = null;
+
+                try {
+                    GuardedExecutionService.Outcome<List<String>> outcome = futures.get(i).get();
+                    recordOutcome(neo4jAL, stn, outcome);
+                    if (outcome.isCompleted()) {
+                        results = outcome.getValue();
+                    } else {
+                        error = outcome.getStatus().name() + " : " + outcome.getMessage();
+                    }
+                } catch (ExecutionException e) {
+                    error = String.valueOf(e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    error = "The execution of the statistic was interrupted.";
                 }
 
-                statRes.append("\tResults of the statistics : \n");
-                String res = stn.executeStat(applicationContext);
-                statRes.append(res);
-            } catch (Neo4jBadRequestException | Neo4jNoResult | Exception | Neo4jQueryException e) {
-                statRes.append("\nAn error occurred during the execution of this statistic.\n");
-                statRes.append(e.getMessage()).append("\n");
+                writeStatistic(new StatisticEntry(stn.getName(), stn.getDescription(), results, error));
             }
-            buffer.append(statRes);
+        } finally {
+            executor.shutdownNow();
         }
-        buffer.append("-".repeat(124)).append("\n");
 
+        file.write("-".repeat(124) + "\n");
         writeEndOfSection();
+        file.flush();
+    }
+
+    /**
+     * Execute a statistic in a new transaction, with the timeout of the guarded executions
+     */
+    private GuardedExecutionService.Outcome<List<String>> executeStatistic(
+            GraphDatabaseService db, Log log, StatisticNode stn) {
+        return GuardedExecutionService.run(db, log, child -> stn.executeStat(child, applicationContext));
     }
 
-    public void writeHighlights(List<Highlight> highlights) {
-        Map<HighlightCategory, String> sortedCases = new HashMap<>();
+    private void recordOutcome(
+            Neo4jAL neo4jAL, StatisticNode stn, GuardedExecutionService.Outcome<?> outcome) {
+        try {
+            GuardedExecutionService.record(stn.getNode(), outcome);
+        } catch (Exception | Neo4jNoResult | Neo4jQueryException e) {
+            neo4jAL.logError("Failed to record the status of the statistic " + stn.getName(), e);
+        }
+    }
 
-        buffer.append(String.format("\n%d tags were processed in this scan.\n", highlights.size()));
+    private void writeStatistic(StatisticEntry entry) throws IOException {
+        statisticEntries.add(entry);
+
+        StringBuilder statRes = new StringBuilder();
+        statRes.append("-".repeat(124)).append("\n");
+        statRes.append("\n\tStatistics on : ").append(entry.name).append("\n");
+        if (!entry.description.isEmpty()) {
+            statRes
+                    .append(" \tDescription : ")
+                    .append(entry.description.replaceAll("\\n", "\n\t"))
+                    .append("\n\n");
+        }
+
+        statRes.append("\tResults of the statistics : \n");
+        if (entry.error == null) {
+            for (String r : entry.results) {
+                statRes.append("\t - ").append(r).append("\n");
+            }
+        } else {
+            statRes.append("\nAn error occurred during the execution of this statistic.\n");
+            statRes.append(entry.error).append("\n");
+        }
+
+        file.write(statRes.toString());
+    }
+
+    public void writeHighlights(List<Highlight> highlights) throws IOException {
+        highlightEntries.addAll(highlights);
+        Map<HighlightCategory, StringBuilder> sortedCases = new EnumMap<>(HighlightCategory.class);
+
+        file.write(String.format("\n%d tags were processed in this scan.\n", highlights.size()));
 
         for (Highlight h : highlights) {
 
@@ -154,36 +251,84 @@ public class PreStatisticsLogger implements AutoCloseable {
             line += "\n\tDescription : " + description;
             line += "\n\n";
 
-            String value = sortedCases.getOrDefault(h.getCategory(), "\n");
-            value += line;
-            sortedCases.put(h.getCategory(), value);
+            sortedCases.computeIfAbsent(h.getCategory(), k -> new StringBuilder("\n")).append(line);
         }
 
-        for (Map.Entry<HighlightCategory, String> entry : sortedCases.entrySet()) {
-            writeParagraph(entry.getKey().getText(), entry.getValue());
+        for (Map.Entry<HighlightCategory, StringBuilder> entry : sortedCases.entrySet()) {
+            writeParagraph(entry.getKey().getText(), entry.getValue().toString());
         }
 
         writeEndOfSection();
-    }
-
-    public String getBufferState() {
-        return buffer.toString();
-    }
-
-    public void flushBuffer() {
-        buffer = new StringBuilder();
-        writeIntro();
+        file.flush();
     }
 
     /**
-     * Write to file and flush buffer.
+     * Flush the text report, and write the JSON and CSV versions.
      *
      * @throws IOException
      */
     public void save() throws IOException {
-        file.write(buffer.toString());
         file.flush();
-        flushBuffer();
+        saveJson();
+        saveCsv();
+    }
+
+    private void saveJson() throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("application", applicationContext);
+        report.put("generated", generated.toString());
+        report.put("statistics", statisticEntries);
+
+        List<Map<String, Object>> highlights = new ArrayList<>();
+        for (Highlight h : highlightEntries) {
+            Map<String, Object> hm = new LinkedHashMap<>();
+            hm.put("title", h.getTitle());
+            hm.put("type", h.getType().name());
+            hm.put("category", h.getCategory().name());
+            hm.put("useCase", h.getUseCaseTitle());
+            hm.put("findings", h.getFindings());
+            hm.put("description", h.getDescription());
+            highlights.add(hm);
+        }
+        report.put("highlights", highlights);
+
+        Gson gson = new GsonBuilder().serializeNulls().setPrettyPrinting().create();
+        try (BufferedWriter writer = Files.newBufferedWriter(getPath("json"), StandardCharsets.UTF_8)) {
+            gson.toJson(report, writer);
+        }
+    }
+
+    private void saveCsv() throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(getPath("csv"), StandardCharsets.UTF_8);
+             CSVPrinter printer =
+                     new CSVPrinter(
+                             writer,
+                             CSVFormat.DEFAULT.withHeader(
+                                     "section", "name", "type", "category", "use_case", "findings", "value",
+                                     "description"))) {
+
+            for (StatisticEntry s : statisticEntries) {
+                if (s.error != null) {
+                    printer.printRecord("statistic", s.name, "ERROR", "", "", "", s.error, s.description);
+                    continue;
+                }
+                for (String r : s.results) {
+                    printer.printRecord("statistic", s.name, "", "", "", "", r, s.description);
+                }
+            }
+
+            for (Highlight h : highlightEntries) {
+                printer.printRecord(
+                        "highlight",
+                        h.getTitle(),
+                        h.getType().name(),
+                        h.getCategory().name(),
+                        h.getUseCaseTitle(),
+                        h.getFindings(),
+                        "",
+                        h.getDescription());
+            }
+        }
     }
 
     @Override
@@ -192,4 +337,21 @@ public class PreStatisticsLogger implements AutoCloseable {
             file.close();
         }
     }
+
+    /**
+     * Result of a statistic, as written in the report
+     */
+    private static class StatisticEntry {
+        private final String name;
+        private final String description;
+        private final List<String> results;
+        private final String error;
+
+        private StatisticEntry(String name, String description, List<String> results, String error) {
+            this.name = name;
+            this.description = description == null ? "" : description;
+            this.results = results;
+            this.error = error;
+        }
+    }
 }
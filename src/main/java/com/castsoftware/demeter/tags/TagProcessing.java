@@ -38,6 +38,11 @@ public class TagProcessing {
     public static final String ANCHOR_COUNT_RETURN_VALUE =
             Configuration.get("tag.anchors.countReturn.label");
 
+    public static final String ANCHOR_CAPPED_COUNT_RETURN_VALUE =
+            Configuration.get("tag.anchors.cappedCountReturn.label");
+    public static final String ANCHOR_SAMPLED_RETURN_VALUE =
+            Configuration.get("tag.anchors.sampledReturn.label");
+
     public static final String LABEL_ANCHOR = Configuration.get("tag.anchors.label");
 
     // Label anchor is not present in this list. It is the only mandatory label that request a
@@ -151,6 +156,59 @@ public class TagProcessing {
         return removeRemainingAnchors(request);
     }
 
+    /**
+     * Replace the RETURN anchor by a count stopping after <code>$cap</code> distinct nodes. Remove
+     * every other anchors encountered.
+     *
+     * @param request
+     * @return
+     */
+    public static String forgeCappedCountRequest(String request)
+            throws Neo4JTemplateLanguageException {
+        String o = getReturnVariable(request);
+        String replacer = ANCHOR_CAPPED_COUNT_RETURN_VALUE.replace("@", o);
+        request = request.replaceAll(";", "");
+        request = request.replaceFirst(ANCHOR_RETURN, Matcher.quoteReplacement(replacer));
+
+        return removeRemainingAnchors(request);
+    }
+
+    /**
+     * Forge a request evaluated only on a sample of nodes, passed as the <code>$sample</code> list
+     * of ids. The returned variable is bound to each node of the sample, and the original request is
+     * executed in a sub-query. Return the ids of the nodes matched, as <code>id</code>.
+     *
+     * @param request
+     * @return
+     */
+    public static String forgeSampledRequest(String request) throws Neo4JTemplateLanguageException {
+        String o = getReturnVariable(request);
+        String replacer = ANCHOR_SAMPLED_RETURN_VALUE.replace("@", o);
+        request = request.replaceAll(";", "");
+        request = request.replaceFirst(ANCHOR_RETURN, Matcher.quoteReplacement(replacer));
+
+        return String.format(
+                "UNWIND $sample AS sampleId MATCH (%1$s) WHERE ID(%1$s)=sampleId "
+                        + "CALL { WITH %1$s %2$s } RETURN DISTINCT sampleId AS id",
+                o, removeRemainingAnchors(request));
+    }
+
+    /**
+     * Get the name of the variable in the return anchor
+     *
+     * @param request The request
+     * @return The name of the variable
+     */
+    public static String getReturnVariable(String request) throws Neo4JTemplateLanguageException {
+        Matcher m = Pattern.compile(ANCHOR_RETURN).matcher(request);
+
+        if (!m.find() || m.groupCount() < 1 || m.group(1).isEmpty())
+            throw new Neo4JTemplateLanguageException(
+                    "Invalid return tag usage.", request, "TAGPxGRTV01");
+
+        return m.group(1);
+    }
+
     /**
      * Check the presence of a Count anchor request
      *
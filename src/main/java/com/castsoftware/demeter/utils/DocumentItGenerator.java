@@ -21,27 +21,65 @@ package com.castsoftware.demeter.utils;
 
 import com.castsoftware.demeter.config.Configuration;
 import com.castsoftware.demeter.database.Neo4jAL;
+import com.castsoftware.demeter.exceptions.neo4j.Neo4jQueryException;
+import com.castsoftware.demeter.utils.configuration.BatchConfiguration;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
-import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Transaction;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Create the documents of CAST Imaging. The objects are consumed as a stream and linked to the
+ * document in batches.
+ */
 public class DocumentItGenerator {
 
     private static final String DOCUMENTIT_LABEL =
             Configuration.get("imaging.node.document_it.label");
+    private static final String CONTAINS_DOCUMENT = "ContainsDocument";
+
+    private static final int DEFAULT_MAX_NODES = 10000;
+
+    /**
+     * Get the maximum number of AipId stored in the "Nodes" property of a document. Above this number,
+     * the objects are only linked to the document.
+     *
+     * @return The maximum number of AipId
+     */
+    public static int getMaxNodes() {
+        try {
+            return Integer.parseInt(Configuration.getBestOfALl("demeter.document.max_nodes"));
+        } catch (NumberFormatException | NullPointerException e) {
+            return DEFAULT_MAX_NODES;
+        }
+    }
 
+    /**
+     * Create a new document and link the objects to it while consuming them
+     *
+     * @param nal              Neo4j Access layer
+     * @param applicationLabel Name of the application
+     * @param title            Title of the document
+     * @param description      Description of the document
+     * @param toInclude        Objects to include, the values which aren't nodes are ignored
+     * @param tags             Tags of the document
+     * @return Document node created
+     * @throws Neo4jQueryException If the creation of a batch of links failed
+     */
     public static Node create(
             Neo4jAL nal,
             String applicationLabel,
             String title,
             String description,
-            List<Node> toInclude,
-            String[] tags) {
+            Iterator<?> toInclude,
+            String[] tags)
+            throws Neo4jQueryException {
         // Create documentIT node
         Transaction tx = nal.getTransaction();
         Node n = tx.createNode(Label.label(DOCUMENTIT_LABEL));
@@ -57,26 +95,66 @@ public class DocumentItGenerator {
         n.setProperty("Tags", tags);
         n.setProperty("ViewName", "");
 
+        String linkReq =
+                String.format(
+                        "UNWIND $ids as id MATCH (o) WHERE ID(o)=id "
+                                + "WITH o MATCH (d) WHERE ID(d)=$document CREATE (o)-[:%s]->(d)",
+                        CONTAINS_DOCUMENT);
+        Map<String, Object> params = Map.of("document", n.getId());
+        int batchSize = Math.max(1, BatchConfiguration.getBatchSize());
+        int maxNodes = getMaxNodes();
+
         // Add object's AIP node & Link the objects
-        ArrayList<String> nodeAipIdList = new ArrayList<>();
-        for (Node o : toInclude) {
-            try {
-                String aipId = (String) o.getProperty("AipId");
-                nodeAipIdList.add(aipId);
-                o.createRelationshipTo(n, RelationshipType.withName("ContainsDocument"));
-            } catch (ClassCastException e) {
-                nal.logError("Cannot attach node with Id " + o.getId() + "to document.", e);
+        List<String> nodeAipIdList = new ArrayList<>();
+        LongArrayList batch = new LongArrayList(Math.min(batchSize, 1024));
+        long linked = 0L;
+
+        while (toInclude.hasNext()) {
+            Object value = toInclude.next();
+            if (!(value instanceof Node)) continue;
+            Node o = (Node) value;
+
+            Object aipId = o.getProperty("AipId", null);
+            if (!(aipId instanceof String)) {
+                nal.logError("Cannot attach node with Id " + o.getId() + " to document. Missing AipId.");
+                continue;
+            }
+
+            if (nodeAipIdList.size() < maxNodes) nodeAipIdList.add((String) aipId);
+            batch.add(o.getId());
+            linked++;
+
+            if (batch.size() >= batchSize) {
+                nal.executeBatchedQuery(linkReq, batch.toArray(), params, batchSize);
+                batch.clear();
             }
         }
 
-        String[] nodes = new String[nodeAipIdList.size()];
-        nodes = nodeAipIdList.toArray(nodes);
+        if (!batch.isEmpty()) nal.executeBatchedQuery(linkReq, batch.toArray(), params, batchSize);
 
-        n.setProperty("Nodes", nodes);
+        if (linked > nodeAipIdList.size()) {
+            nal.logInfo(
+                    String.format(
+                            "WARNING : Document '%s' includes %d objects. Only the first %d are listed in its 'Nodes' property, all of them are linked.",
+                            title, linked, nodeAipIdList.size()));
+        }
+
+        n.setProperty("Nodes", nodeAipIdList.toArray(new String[0]));
 
         return n;
     }
 
+    public static Node create(
+            Neo4jAL nal,
+            String applicationLabel,
+            String title,
+            String description,
+            List<Node> toInclude,
+            String[] tags)
+            throws Neo4jQueryException {
+        return create(nal, applicationLabel, title, description, toInclude.iterator(), tags);
+    }
+
     /**
      * Create a new document following CAST Imaging document structure
      *
@@ -91,7 +169,8 @@ public class DocumentItGenerator {
             String applicationLabel,
             String title,
             String description,
-            List<Node> toInclude) {
+            List<Node> toInclude)
+            throws Neo4jQueryException {
         return DocumentItGenerator.create(
                 nal, applicationLabel, title, description, toInclude, new String[0]);
     }
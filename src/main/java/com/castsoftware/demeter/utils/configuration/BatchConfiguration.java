@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.utils.configuration;
+
+import com.castsoftware.demeter.config.Configuration;
+
+/**
+ * Batch Configuration
+ */
+public class BatchConfiguration {
+
+	/**
+	 * Get the number of nodes written by a single batched query
+	 * @return The size of a batch
+	 */
+	public static int getBatchSize() {
+		try {
+			return Integer.parseInt(Configuration.getBestOfALl("demeter.batch.size"));
+		} catch (NumberFormatException | NullPointerException e) {
+			return 10000;
+		}
+	}
+
+	/**
+	 * Get the number of nodes and relationships deleted before an intermediate commit
+	 * @return The size of a deletion batch
+	 */
+	public static int getDeleteBatchSize() {
+		try {
+			return Integer.parseInt(Configuration.getBestOfALl("demeter.delete.batch_size"));
+		} catch (NumberFormatException | NullPointerException e) {
+			return 5000;
+		}
+	}
+
+	/**
+	 * Get the number of rows of a catalogue validated and written in the same transaction
+	 * @return The size of an import batch
+	 */
+	public static int getImportBatchSize() {
+		try {
+			return Integer.parseInt(Configuration.getBestOfALl("demeter.import.batch_size"));
+		} catch (NumberFormatException | NullPointerException e) {
+			return 500;
+		}
+	}
+
+}
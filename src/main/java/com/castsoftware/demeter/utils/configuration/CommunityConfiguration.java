@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.utils.configuration;
+
+import com.castsoftware.demeter.config.Configuration;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Community detection Configuration
+ */
+public class CommunityConfiguration {
+
+	/**
+	 * Get the maximum number of iterations of the label propagation
+	 * @return The number of iterations
+	 */
+	public static int getMaxIterations() {
+		try {
+			int iterations = Integer.parseInt(Configuration.getBestOfALl("demeter.community.max_iterations"));
+			if (iterations > 0) return iterations;
+		} catch (NumberFormatException | NullPointerException ignored) {
+		}
+		return 20;
+	}
+
+	/**
+	 * Get the share of objects changing of community below which the propagation stops
+	 * @return The tolerance, between 0 and 1
+	 */
+	public static double getTolerance() {
+		try {
+			return Double.parseDouble(Configuration.getBestOfALl("demeter.community.tolerance"));
+		} catch (NumberFormatException | NullPointerException e) {
+			return 0.001;
+		}
+	}
+
+	/**
+	 * Get the minimum number of objects in a community to propose it as a level
+	 * @return The minimum size
+	 */
+	public static int getMinSize() {
+		try {
+			int size = Integer.parseInt(Configuration.getBestOfALl("demeter.community.min_size"));
+			if (size > 0) return size;
+		} catch (NumberFormatException | NullPointerException ignored) {
+		}
+		return 3;
+	}
+
+	/**
+	 * Get the types of relationships projected between the objects
+	 * @return The list of types, empty to project all of them
+	 */
+	public static List<String> getRelationships() {
+		String value = Configuration.getBestOfALl("demeter.community.relationships");
+		if (value == null || value.isBlank()) return List.of();
+		return Arrays.stream(value.split(","))
+				.map(String::trim)
+				.filter(s -> !s.isEmpty())
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Get the prefix of the names of the communities
+	 * @return The prefix
+	 */
+	public static String getGroupPrefix() {
+		return Configuration.getBestOfALl("demeter.prefix.auto_community_group");
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2020  Hugo JOBY
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License v3 for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public v3
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package com.castsoftware.demeter.utils.configuration;
+
+import com.castsoftware.demeter.config.Configuration;
+
+/**
+ * Job Configuration
+ */
+public class JobConfiguration {
+
+	/**
+	 * Get the number of jobs running at the same time
+	 * @return The number of workers
+	 */
+	public static int getWorkers() {
+		try {
+			int workers = Integer.parseInt(Configuration.getBestOfALl("demeter.jobs.workers"));
+			if (workers > 0) return workers;
+		} catch (NumberFormatException | NullPointerException ignored) {
+		}
+		return 2;
+	}
+
+	/**
+	 * Get the number of finished jobs kept for the status requests
+	 * @return The size of the history
+	 */
+	public static int getHistorySize() {
+		try {
+			return Integer.parseInt(Configuration.getBestOfALl("demeter.jobs.history"));
+		} catch (NumberFormatException | NullPointerException e) {
+			return 100;
+		}
+	}
+
+}